@@ -0,0 +1,318 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.benchmark;
+
+import com.hhao.common.mybatis.page.PageInfo;
+import com.hhao.common.mybatis.page.executor.AbstractPageExecutor;
+import com.hhao.common.mybatis.page.executor.ParamMapping;
+import com.hhao.common.mybatis.page.executor.PageExecutor;
+import com.hhao.common.mybatis.page.executor.SingleQueryDynamicPageExecutor;
+import com.hhao.common.mybatis.page.executor.sql.SqlExecutor;
+import com.hhao.common.mybatis.page.executor.sql.SqlModel;
+import com.hhao.common.mybatis.page.executor.sql.SqlPageModel;
+import com.hhao.common.mybatis.page.executor.sql.dialect.DialectFactory;
+import com.hhao.common.mybatis.page.executor.sql.dialect.H2Dialect;
+import com.hhao.common.mybatis.page.interceptor.PageInterceptor;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页执行器基准测试:SingleQueryDynamicPageExecutor的单次分页调用,新旧实现对比
+ * 使用H2内存库及带动态sql的Mapper,两者都经由PageInterceptor执行
+ * 1、legacyPagedQuery:原实现(LegacySingleQueryDynamicPageExecutor),每次调用3次getBoundSql,并新建分页、count两个MappedStatement
+ * 2、pagedQuery:现实现,每次调用只计算一次BoundSql,派生的MappedStatement按原语句缓存
+ * 3、plainQuery:不分页的同一查询,作为基线
+ * 两种实现都关闭count缓存及页面缓存,每次都执行count语句
+ * 运行:java -jar hhao-benchmark/target/benchmarks.jar PagingBenchmark -prof gc,对比gc.alloc.rate.norm(每次调用分配的字节数)
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PagingBenchmark {
+    private static final String URL = "jdbc:h2:mem:paging;DB_CLOSE_DELAY=-1";
+    private static final int ROWS = 1000;
+
+    /**
+     * 每页记录数
+     */
+    @Param({"10", "100"})
+    public int pageSize;
+
+    /**
+     * 是否查询总行数
+     */
+    @Param({"true", "false"})
+    public boolean includeTotalRows;
+
+    private PooledDataSource dataSource;
+    private SqlSession sqlSession;
+    private BookMapper bookMapper;
+    private long pageNum;
+
+    /**
+     * 测试用的Mapper,带动态sql
+     */
+    public interface BookMapper {
+        /**
+         * Find books.
+         *
+         * @param minPrice the min price
+         * @param type     the type
+         * @param pageInfo the page info
+         * @return the list
+         */
+        @Select({"<script>",
+                "select id, name, price, type from book",
+                "<where>",
+                "<if test='minPrice != null'>and price &gt;= #{minPrice}</if>",
+                "<if test='type != null'>and type = #{type}</if>",
+                "</where>",
+                "order by id",
+                "</script>"})
+        List<Book> findBooks(@org.apache.ibatis.annotations.Param("minPrice") Integer minPrice,
+                             @org.apache.ibatis.annotations.Param("type") Integer type,
+                             @org.apache.ibatis.annotations.Param("pageInfo") PageInfo pageInfo);
+    }
+
+    /**
+     * 测试用的实体
+     */
+    public static class Book {
+        private Long id;
+        private String name;
+        private Integer price;
+        private Integer type;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getPrice() {
+            return price;
+        }
+
+        public void setPrice(Integer price) {
+            this.price = price;
+        }
+
+        public Integer getType() {
+            return type;
+        }
+
+        public void setType(Integer type) {
+            this.type = type;
+        }
+    }
+
+    /**
+     * 建表、写入数据并构建带分页拦截器的SqlSession
+     *
+     * @throws SQLException the sql exception
+     */
+    @Setup
+    public void setup() throws SQLException {
+        dataSource = new PooledDataSource("org.h2.Driver", URL, "sa", "");
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists book");
+            statement.execute("create table book(id bigint primary key, name varchar(64), price int, type int)");
+            try (PreparedStatement insert = connection.prepareStatement("insert into book values(?,?,?,?)")) {
+                for (int i = 1; i <= ROWS; i++) {
+                    insert.setLong(1, i);
+                    insert.setString(2, "book" + i);
+                    insert.setInt(3, i % 100);
+                    insert.setInt(4, i % 5);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+
+        DialectFactory.register(new H2Dialect());
+        Configuration configuration = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.setDatabaseId("h2");
+        configuration.setCacheEnabled(false);
+        configuration.addInterceptor(new PageInterceptor());
+        configuration.addMapper(BookMapper.class);
+        SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        sqlSession = sqlSessionFactory.openSession(true);
+        bookMapper = sqlSession.getMapper(BookMapper.class);
+    }
+
+    /**
+     * Tear down.
+     */
+    @TearDown
+    public void tearDown() {
+        sqlSession.close();
+        dataSource.forceCloseAll();
+    }
+
+    /**
+     * 原实现的分页查询
+     *
+     * @return the list
+     */
+    @Benchmark
+    public List<Book> legacyPagedQuery() {
+        return bookMapper.findBooks(10, 1, nextPageInfo(LegacySingleQueryDynamicPageExecutor::new));
+    }
+
+    /**
+     * 现实现的分页查询
+     *
+     * @return the list
+     */
+    @Benchmark
+    public List<Book> pagedQuery() {
+        return bookMapper.findBooks(10, 1, nextPageInfo(SingleQueryDynamicPageExecutor::new));
+    }
+
+    /**
+     * 不分页的同一查询
+     *
+     * @return the list
+     */
+    @Benchmark
+    public List<Book> plainQuery() {
+        return bookMapper.findBooks(10, 1, null);
+    }
+
+    /**
+     * PageInfo在分页过程中会被修改,每次调用新建,页码在第1、2页间轮换(查询结果有180条,两种页大小下都不会溢出)
+     *
+     * @param pageExecutor the page executor
+     * @return the page info
+     */
+    private PageInfo nextPageInfo(Supplier<PageExecutor> pageExecutor) {
+        pageNum = pageNum % 2 + 1;
+        PageInfo pageInfo = new PageInfo.Builder(pageNum)
+                .setPageSize(pageSize)
+                .setIncludeTotalRows(includeTotalRows)
+                .setCountCache(false)
+                .setPageCache(false)
+                .build();
+        pageInfo.setPageExecutor(pageExecutor.get());
+        return pageInfo;
+    }
+
+    /**
+     * 原来的SingleQueryDynamicPageExecutor,保留作为对比的基线
+     * 每次调用执行3次getBoundSql(动态sql每次重新求值),新建分页、count两个MappedStatement
+     * 分页语句替换MappedStatement后通过invocation.proceed()执行
+     * 原实现设置附加参数时遍历的是转换后的ParameterMapping,分页参数不会被设置,这里改为遍历SqlModel的参数,使查询能够执行
+     */
+    public static class LegacySingleQueryDynamicPageExecutor extends AbstractPageExecutor {
+
+        @Override
+        public Object execute(Invocation invocation, PageInfo pageInfo) throws Throwable {
+            Executor executor = this.getExecutor(invocation);
+            MappedStatement mappedStatement = this.getMappedStatement(invocation);
+            RowBounds rowBounds = this.getRowBounds(invocation);
+            ResultHandler resultHandler = this.getResultHandler(invocation);
+            Object parameter = this.getParameter(invocation);
+            BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+            List<Object> parameterMappings = Collections.unmodifiableList(boundSql.getParameterMappings());
+            SqlExecutor sqlExecutor = this.getSqlExecutor(pageInfo, this.getDatabaseId(mappedStatement));
+            String dbName = this.getDatabaseId(mappedStatement);
+            SqlPageModel sqlPageModel = sqlExecutor.generalSqlPageModel(pageInfo, boundSql.getSql(), parameterMappings, dbName);
+            SqlSource pageSqlSource = buildSqlSource(sqlPageModel.getSelect(), mappedStatement, parameter);
+            MappedStatement pageMappedStatement = buildMappedStatement(mappedStatement, pageSqlSource, mappedStatement.getResultMaps());
+            resetMappedStatement(invocation, pageMappedStatement);
+            if (pageInfo.isIncludeTotalRows()) {
+                SqlSource countSqlSource = buildSqlSource(sqlPageModel.getCount(), mappedStatement, parameter);
+                MappedStatement countMappedStatement = buildMappedStatement(mappedStatement, countSqlSource, addCountResultMap(new ArrayList<>()));
+                BoundSql countSql = countMappedStatement.getBoundSql(parameter);
+                CacheKey cacheKey = executor.createCacheKey(countMappedStatement, parameter, rowBounds, countSql);
+                List<Object> result = executor.query(countMappedStatement, parameter, rowBounds, resultHandler, cacheKey, countSql);
+                setCountResult(pageInfo, result);
+                pageOverflowToLast(pageInfo, pageMappedStatement, parameter, pageSqlSource.getBoundSql(parameter));
+            }
+            return setPageResult(pageInfo, invocation.proceed());
+        }
+
+        /**
+         * 原来的buildPageSqlSource、buildCountSqlSource,每次重新取原语句的BoundSql
+         */
+        private SqlSource buildSqlSource(SqlModel sqlModel, MappedStatement mappedStatement, Object parameter) {
+            BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+            List<ParameterMapping> parameterMappings = new ArrayList<>();
+            for (Object param : sqlModel.getParams()) {
+                if (param instanceof ParameterMapping) {
+                    parameterMappings.add((ParameterMapping) param);
+                } else if (param instanceof ParamMapping) {
+                    parameterMappings.add(new ParameterMapping.Builder(mappedStatement.getConfiguration(), ((ParamMapping) param).getProperty(), ((ParamMapping) param).getJavaType()).build());
+                } else {
+                    throw new RuntimeException("only support ParameterMapping or ParamMapping");
+                }
+            }
+            BoundSql newBoundSql = new BoundSql(mappedStatement.getConfiguration(),
+                    sqlModel.getSql(), parameterMappings,
+                    boundSql.getParameterObject());
+            for (Object param : sqlModel.getParams()) {
+                if (param instanceof ParamMapping) {
+                    newBoundSql.setAdditionalParameter(((ParamMapping) param).getProperty(), ((ParamMapping) param).getValue());
+                }
+            }
+            return parameterObject -> newBoundSql;
+        }
+    }
+}
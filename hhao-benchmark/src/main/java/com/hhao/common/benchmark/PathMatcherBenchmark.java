@@ -0,0 +1,176 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.benchmark;
+
+import com.hhao.common.springboot.web.config.filter.MatchProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 过滤器路径匹配基准测试:MatchProperties与逐个模式调用AntPathMatcher的循环
+ * exclude为patternCount个模式,include为其中的十分之一;请求路径包括命中include、命中exclude及都不命中的路径
+ * compiled关闭LRU,只比较编译后的匹配器;cached为默认配置,路径重复出现时直接命中缓存
+ * 运行:java -jar hhao-benchmark/target/benchmarks.jar PathMatcherBenchmark
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PathMatcherBenchmark {
+    /**
+     * 模式数
+     */
+    @Param({"10", "50", "100"})
+    public int patternCount;
+
+    private MatchProperties compiled;
+    private MatchProperties cached;
+    private LoopMatcher loop;
+    private String[] paths;
+    private int index;
+
+    /**
+     * Sets up.
+     */
+    @Setup
+    public void setUp() {
+        StringBuilder include = new StringBuilder();
+        StringBuilder exclude = new StringBuilder();
+        for (int i = 0; i < patternCount; i++) {
+            String pattern;
+            switch (i % 4) {
+                case 0:
+                    pattern = "/api/v1/module" + i + "/**";
+                    break;
+                case 1:
+                    pattern = "/static/res" + i + "/*.js";
+                    break;
+                case 2:
+                    pattern = "/page/" + i + "/*/detail";
+                    break;
+                default:
+                    pattern = "/**/file" + i + ".png";
+                    break;
+            }
+            exclude.append(exclude.length() > 0 ? "," : "").append(pattern);
+            if (i % 10 == 0) {
+                include.append(include.length() > 0 ? "," : "").append(pattern.replace("/api/v1/", "/api/v2/"));
+            }
+        }
+        compiled = new MatchProperties();
+        compiled.setCacheSize(0);
+        compiled.setInclude(include.toString());
+        compiled.setExclude(exclude.toString());
+        cached = new MatchProperties();
+        cached.setInclude(include.toString());
+        cached.setExclude(exclude.toString());
+        loop = new LoopMatcher(include.toString(), exclude.toString());
+
+        paths = new String[64];
+        for (int i = 0; i < paths.length; i++) {
+            int n = i % patternCount;
+            switch (i % 6) {
+                case 0:
+                    paths[i] = "/api/v1/module" + (n - n % 4) + "/user/" + i;
+                    break;
+                case 1:
+                    paths[i] = "/api/v2/module0/order/" + i;
+                    break;
+                case 2:
+                    paths[i] = "/page/" + (n - n % 4 + 2) + "/" + i + "/detail";
+                    break;
+                case 3:
+                    paths[i] = "/img/a/b/file" + (n - n % 4 + 3) + ".png";
+                    break;
+                default:
+                    paths[i] = "/order/list/" + i;
+                    break;
+            }
+        }
+    }
+
+    private String nextPath() {
+        return paths[index++ & (paths.length - 1)];
+    }
+
+    /**
+     * Compiled boolean.
+     *
+     * @return the boolean
+     */
+    @Benchmark
+    public boolean compiled() {
+        return compiled.match(nextPath());
+    }
+
+    /**
+     * Cached boolean.
+     *
+     * @return the boolean
+     */
+    @Benchmark
+    public boolean cached() {
+        return cached.match(nextPath());
+    }
+
+    /**
+     * Loop boolean.
+     *
+     * @return the boolean
+     */
+    @Benchmark
+    public boolean loop() {
+        return loop.match(nextPath());
+    }
+
+    /**
+     * 原MatchProperties的匹配方式,逐个模式调用AntPathMatcher,分隔符为File.pathSeparator
+     */
+    static final class LoopMatcher {
+        private final AntPathMatcher pathMatch = new AntPathMatcher(File.pathSeparator);
+        private final String[] includes;
+        private final String[] excludes;
+
+        LoopMatcher(String include, String exclude) {
+            this.includes = StringUtils.tokenizeToStringArray(include, ",");
+            this.excludes = StringUtils.tokenizeToStringArray(exclude, ",");
+        }
+
+        boolean match(String path) {
+            for (String s : includes) {
+                if (pathMatch.match(s, path)) {
+                    return true;
+                }
+            }
+            for (String s : excludes) {
+                if (pathMatch.match(s, path)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
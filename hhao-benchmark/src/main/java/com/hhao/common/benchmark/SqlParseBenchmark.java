@@ -0,0 +1,98 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.benchmark;
+
+import com.hhao.common.mybatis.page.executor.sql.parse.DefaultSqlParse;
+import com.hhao.common.mybatis.page.executor.sql.parse.FastSqlParse;
+import com.hhao.common.mybatis.page.executor.sql.parse.SqlParse;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页sql解析器基准测试:DefaultSqlParse与FastSqlParse
+ * 语句取自DefaultSqlParse#main中的示例,解析后读取cleanSql及参数,与分页执行器的使用方式一致
+ * DefaultSqlParse非线程安全,每次解析新建实例;FastSqlParse无状态,共享一个实例
+ * 运行:java -jar hhao-benchmark/target/benchmarks.jar SqlParseBenchmark -prof gc
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SqlParseBenchmark {
+    private static final String[] SQLS = new String[]{
+            "select book1.id as id, book1.name as name, book1.price as price, book1.priceCurrencyCode as priceCurrencyCode, book1.publicDate as publicDate, book1.recordDateTime as recordDateTime, book1.type as type , bookType.id as bookType_id, bookType.name as bookType_name from book as book1 inner join( select id from book where recordDateTime between ? and ? order by id limit ? offset ? ) as book2 on book1.id = book2.id inner join `book-type` as bookType on book1.type=bookType.id order by recordDateTime ASC",
+            "select sum(book1.id) as id from book as book1 inner join( select id from book where recordDateTime between ? and ? order by id limit ? offset ? ) as book2 on book1.id = book2.id inner join `book-type` as bookType on book1.type=bookType.id order by recordDateTime ASC",
+            "select (select max(id) as m from book) as max from book as book1 inner join( select id from book where recordDateTime between ? and ? order by id limit ? offset ? ) as book2 on book1.id = book2.id inner join `book-type` as bookType on book1.type=bookType.id order by recordDateTime ASC",
+            "select (select max(id) as m from book) as max,(select max(id) as m from book) as max from book as book1 inner join( select id from book where recordDateTime between ? and ? order by id limit ? offset ? ) as book2 on book1.id = book2.id inner join `book-type` as bookType on book1.type=bookType.id order by recordDateTime ASC",
+            "select (select max(id) as m from book) id from book as book1 inner join( select id from book where recordDateTime between ? and ? order by id limit ? offset ? ) as book2 on book1.id = book2.id inner join `book-type` as bookType on book1.type=bookType.id where id=(select max(id) from book where pp=?) and name=? order by recordDateTime ASC",
+            "select (select max(id) as m from book) id from book as book1 inner join( select id from book where recordDateTime between ? and ? order by id limit ? offset ? ) as book2 on book1.id = book2.id inner join `book-type` as bookType on book1.type=bookType.id where id=(select max(id) from book where pp=?) and name=? order by recordDateTime ASC union select id,name from book order by id;select count(*) from book limit ? offset ?",
+            "select id from book union select id,name from book order by id"
+    };
+
+    /**
+     * 示例语句的序号
+     */
+    @Param({"0", "1", "2", "3", "4", "5", "6"})
+    public int sqlIndex;
+
+    private final SqlParse fastSqlParse = new FastSqlParse();
+    private String sql;
+
+    /**
+     * Sets up.
+     */
+    @Setup
+    public void setUp() {
+        sql = SQLS[sqlIndex];
+    }
+
+    /**
+     * Default sql parse.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void defaultSqlParse(Blackhole blackhole) {
+        consume(new DefaultSqlParse().parseSql(sql), blackhole);
+    }
+
+    /**
+     * Fast sql parse.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void fastSqlParse(Blackhole blackhole) {
+        consume(fastSqlParse.parseSql(sql), blackhole);
+    }
+
+    private void consume(Iterable<TokenInfo> tokenInfos, Blackhole blackhole) {
+        for (TokenInfo tokenInfo : tokenInfos) {
+            blackhole.consume(tokenInfo.getCleanSql());
+            blackhole.consume(tokenInfo.getParamTokens());
+            blackhole.consume(tokenInfo.isContainLimit());
+        }
+    }
+}
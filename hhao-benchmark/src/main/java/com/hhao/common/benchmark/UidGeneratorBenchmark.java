@@ -0,0 +1,90 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.benchmark;
+
+import com.hhao.common.utils.uid.BitsAllocator;
+import com.hhao.common.utils.uid.CachedUidGenerator;
+import com.hhao.common.utils.uid.DefaultUidGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UID生成器基准测试:多线程竞争下DefaultUidGenerator与CachedUidGenerator的吞吐量
+ * 生成器在所有线程间共享,位分配与UidConfig的默认值相同(29/21/13),CachedUidGenerator使用默认的boostPower及paddingFactor
+ * prefetchSize为CachedUidGenerator每个线程一次预取的ID数量,0为不预取,只作用于cachedUid
+ * 默认8个线程,可通过-t调整,如-t 1为无竞争的情况
+ * 运行:java -jar hhao-benchmark/target/benchmarks.jar UidGeneratorBenchmark
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(8)
+@State(Scope.Benchmark)
+public class UidGeneratorBenchmark {
+    /**
+     * 每个线程一次预取的ID数量
+     */
+    @Param({"0", "64"})
+    public int prefetchSize;
+
+    private DefaultUidGenerator defaultUidGenerator;
+    private CachedUidGenerator cachedUidGenerator;
+
+    /**
+     * Sets up.
+     */
+    @Setup
+    public void setUp() {
+        defaultUidGenerator = new DefaultUidGenerator(new BitsAllocator(29, 21, 13), () -> 1L);
+        cachedUidGenerator = new CachedUidGenerator(new BitsAllocator(29, 21, 13), () -> 2L, DefaultUidGenerator.DEFAULT_EPOCH,
+                CachedUidGenerator.DEFAULT_BOOST_POWER, CachedUidGenerator.DEFAULT_PADDING_FACTOR, 0L, prefetchSize);
+    }
+
+    /**
+     * Tear down.
+     */
+    @TearDown
+    public void tearDown() {
+        cachedUidGenerator.shutdown();
+    }
+
+    /**
+     * 同步生成,每秒最多生成2^sequenceBits个ID,超出时等待下一秒
+     *
+     * @return the long
+     */
+    @Benchmark
+    public long defaultUid() {
+        return defaultUidGenerator.getUid();
+    }
+
+    /**
+     * 从RingBuffer中取ID
+     *
+     * @return the long
+     */
+    @Benchmark
+    public long cachedUid() {
+        return cachedUidGenerator.getUid();
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.extension.aspect;
+
+import com.hhao.common.extension.BizScenario;
+import com.hhao.common.extension.annotation.Extension;
+import com.hhao.common.extension.annotation.ExtensionPointAutowired;
+import com.hhao.common.extension.executor.AbstractComponentExecutor;
+import com.hhao.common.extension.executor.DefaultExtensionExecutor;
+import com.hhao.common.extension.executor.ExtensionExecutorUtil;
+import com.hhao.common.extension.model.CombinedReturnBuilder;
+import com.hhao.common.extension.model.ExtensionPoint;
+import com.hhao.common.extension.register.ExtensionRegister;
+import com.hhao.common.extension.register.ExtensionRepository;
+import com.hhao.common.log.Logger;
+import com.hhao.common.log.LoggerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扩展点代理的方法调度基准测试:直接调用、原反射调度的代理及ExtensionPointInvocationHandler的代理
+ * 扩展点通过ExtensionRegister注册到ExtensionRepository,两种代理都经由DefaultExtensionExecutor定位扩展点
+ * ExtensionPointInvocationHandler的代理由ExtensionPointAutowiredBean创建,按@ExtensionPointAutowired字段的属性初始化
+ * 运行:java -jar hhao-benchmark/target/benchmarks.jar ExtensionDispatchBenchmark
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ExtensionDispatchBenchmark {
+    private final BizScenario bizScenario = BizScenario.valueOf("biz", "useCase", "scenario");
+    private final String sku = "sku-0001";
+    private GenericApplicationContext applicationContext;
+    private PriceExtension direct;
+    private PriceExtension legacyProxy;
+    @ExtensionPointAutowired
+    private PriceExtension extensionProxy;
+
+    /**
+     * Sets up.
+     *
+     * @throws Exception the exception
+     */
+    @Setup
+    public void setUp() throws Exception {
+        direct = new DefaultPriceExtension();
+        ExtensionRepository extensionRepository = new ExtensionRepository();
+        new ExtensionRegister(extensionRepository).doRegistration(direct);
+        ExtensionExecutorUtil.setExecutor(new DefaultExtensionExecutor(extensionRepository, true));
+
+        applicationContext = new GenericApplicationContext();
+        applicationContext.registerBean(CombinedReturnBuilder.class, CombinedReturnBuilder.DefaultCombinedReturnBuilder::new);
+        applicationContext.refresh();
+        AnnotationAttributes annotationAttributes = AnnotationUtils.getAnnotationAttributes(
+                ExtensionDispatchBenchmark.class.getDeclaredField("extensionProxy").getAnnotation(ExtensionPointAutowired.class), false, false);
+
+        ExtensionPointAutowiredBean<PriceExtension> factoryBean = new ExtensionPointAutowiredBean<>(PriceExtension.class);
+        factoryBean.setBeanClassLoader(PriceExtension.class.getClassLoader());
+        factoryBean.setApplicationContext(applicationContext);
+        extensionProxy = factoryBean.getObject();
+        ((ExtensionPointInvocationHandler) Proxy.getInvocationHandler(extensionProxy)).initProperty(annotationAttributes);
+
+        legacyProxy = (PriceExtension) Proxy.newProxyInstance(PriceExtension.class.getClassLoader(),
+                new Class<?>[]{PriceExtension.class}, new LegacyInvocationHandler(PriceExtension.class));
+    }
+
+    /**
+     * Tear down.
+     */
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    /**
+     * Direct long.
+     *
+     * @return the long
+     */
+    @Benchmark
+    public long direct() {
+        return direct.price(sku, 100L, bizScenario);
+    }
+
+    /**
+     * Legacy proxy long.
+     *
+     * @return the long
+     */
+    @Benchmark
+    public long legacyProxy() {
+        return legacyProxy.price(sku, 100L, bizScenario);
+    }
+
+    /**
+     * Extension proxy long.
+     *
+     * @return the long
+     */
+    @Benchmark
+    public long extensionProxy() {
+        return extensionProxy.price(sku, 100L, bizScenario);
+    }
+
+    /**
+     * 测试用扩展点
+     */
+    public interface PriceExtension extends ExtensionPoint<Object, Object> {
+        /**
+         * Price long.
+         *
+         * @param sku         the sku
+         * @param base        the base
+         * @param bizScenario the biz scenario
+         * @return the long
+         */
+        long price(String sku, long base, BizScenario bizScenario);
+    }
+
+    /**
+     * The type Default price extension.
+     */
+    @Extension(bizId = "biz", useCase = "useCase", scenario = "scenario")
+    public static class DefaultPriceExtension implements PriceExtension {
+        @Override
+        public long price(String sku, long base, BizScenario bizScenario) {
+            return base + sku.length();
+        }
+    }
+
+    /**
+     * 引入MethodDispatcher之前ExtensionPointInvocationHandler的SIMPLE模式调度,作为基线保留在基准测试中:
+     * 按方法名判断Object方法,遍历参数查找BizScenario,ReflectionUtils反射调用
+     */
+    static final class LegacyInvocationHandler implements InvocationHandler {
+        private final Logger logger = LoggerFactory.getLogger(LegacyInvocationHandler.class);
+        private final Class<?> interfaceClass;
+
+        LegacyInvocationHandler(Class<?> interfaceClass) {
+            this.interfaceClass = interfaceClass;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            AbstractComponentExecutor executor = ExtensionExecutorUtil.getExecutor();
+
+            String methodName = method.getName();
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length == 0) {
+                if ("toString".equals(methodName)) {
+                    return this.toString();
+                } else if ("hashCode".equals(methodName)) {
+                    return this.hashCode();
+                }
+            } else if (parameterTypes.length == 1 && "equals".equals(methodName)) {
+                return this.equals(args[0]);
+            }
+
+            BizScenario bizScenario = getBizScenario(args);
+            ExtensionPoint exp = executor.locateComponent((Class<ExtensionPoint>) interfaceClass, bizScenario, args);
+            if (exp != null) {
+                try {
+                    return ReflectionUtils.invokeMethod(method, exp, args);
+                } catch (Exception e) {
+                    exp.onError(e, args);
+                }
+            }
+            return null;
+        }
+
+        private BizScenario getBizScenario(Object[] args) {
+            for (Object obj : args) {
+                if (obj instanceof BizScenario) {
+                    return (BizScenario) obj;
+                }
+            }
+            logger.info("use default BizScenario");
+            return BizScenario.newDefault();
+        }
+    }
+}
@@ -40,6 +40,8 @@ public class PageQuery extends Query implements Page {
     private OrderDirection orderDirection=OrderDirection.ASC;
     // 排序列
     private String [] orderColumns;
+    // 游标分页的游标,取自上一页返回的PageResponse#getCursor
+    private String cursor;
 
     @Override
     public long getPageNum() {
@@ -104,4 +106,12 @@ public class PageQuery extends Query implements Page {
         this.orderColumns = orderColumns;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
 }
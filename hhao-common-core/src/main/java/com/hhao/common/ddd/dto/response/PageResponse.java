@@ -38,9 +38,11 @@ public class PageResponse<T> extends Response implements Page {
     private long preCachedPage;
     private long postCachedPage;
     private long totalRow;
+    private TotalRowType totalRowType=TotalRowType.EXACT;
     private boolean includeTotalRows=true;
     private OrderDirection orderDirection=OrderDirection.ASC;
     private String [] orderColumns;
+    private String cursor;
 
     private Map<Integer, List<T>> data= Collections.EMPTY_MAP;
 
@@ -118,6 +120,24 @@ public class PageResponse<T> extends Response implements Page {
         this.totalRow = totalRow;
     }
 
+    /**
+     * 总行数的来源:准确、缓存或估算
+     *
+     * @return the total row type
+     */
+    public TotalRowType getTotalRowType() {
+        return totalRowType;
+    }
+
+    /**
+     * Sets total row type.
+     *
+     * @param totalRowType the total row type
+     */
+    public void setTotalRowType(TotalRowType totalRowType) {
+        this.totalRowType = totalRowType;
+    }
+
     /**
      * Gets total page.
      *
@@ -179,6 +199,24 @@ public class PageResponse<T> extends Response implements Page {
         this.orderColumns = orderColumns;
     }
 
+    /**
+     * 游标分页的下一页游标,没有下一页时为null
+     *
+     * @return the cursor
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Sets cursor.
+     *
+     * @param cursor the cursor
+     */
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
     /**
      * Gets data.
      *
@@ -17,6 +17,8 @@
 
 package com.hhao.common.extension;
 
+import java.util.Objects;
+
 /**
  * 扩展点的业务座标
  * 从特殊到一般进行匹配:scenario.useCase.bizId
@@ -136,4 +138,23 @@ public class BizScenario {
     public String getIdentityWithDefaultUseCase() {
         return bizId + DOT_SEPARATOR + DEFAULT_USE_CASE + DOT_SEPARATOR + DEFAULT_SCENARIO;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BizScenario)) {
+            return false;
+        }
+        BizScenario other = (BizScenario) o;
+        return Objects.equals(bizId, other.bizId)
+                && Objects.equals(useCase, other.useCase)
+                && Objects.equals(scenario, other.scenario);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Objects.hashCode(bizId) + Objects.hashCode(useCase)) + Objects.hashCode(scenario);
+    }
 }
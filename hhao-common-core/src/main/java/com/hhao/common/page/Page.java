@@ -117,4 +117,22 @@ public interface Page {
          */
         NO
     }
+
+    /**
+     * 总行数的来源
+     */
+    enum TotalRowType{
+        /**
+         * 执行count语句得到的准确行数
+         */
+        EXACT,
+        /**
+         * 缓存的count结果,在缓存有效期内可能与当前数据不一致
+         */
+        CACHED,
+        /**
+         * 数据库执行计划估算的行数
+         */
+        ESTIMATED
+    }
 }
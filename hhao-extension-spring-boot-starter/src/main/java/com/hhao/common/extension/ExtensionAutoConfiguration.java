@@ -20,6 +20,7 @@ import com.hhao.common.extension.annotation.Extension;
 import com.hhao.common.extension.aspect.ExtensionPointAutowiredAnnotationBeanPostProcessorRegister;
 import com.hhao.common.extension.executor.DefaultExtensionExecutor;
 import com.hhao.common.extension.executor.ExtensionExecutorUtil;
+import com.hhao.common.extension.executor.ParallelExtensionExecutor;
 import com.hhao.common.extension.model.CombinedReturnBuilder;
 import com.hhao.common.extension.model.ExtensionPoint;
 import com.hhao.common.extension.register.ExtensionRegister;
@@ -36,6 +37,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.Ordered;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -53,6 +56,12 @@ public class ExtensionAutoConfiguration implements ApplicationContextAware, Appl
     @Value("${com.hhao.config.extension.isNotFoundThrowError:false}")
     private boolean isNotFoundThrowError=false;
 
+    @Value("${com.hhao.config.extension.parallelThreads:0}")
+    private int parallelThreads=0;
+
+    @Value("${com.hhao.config.extension.parallelVirtualThreads:false}")
+    private boolean parallelVirtualThreads=false;
+
     /**
      * Repository extension repository.
      *
@@ -75,6 +84,9 @@ public class ExtensionAutoConfiguration implements ApplicationContextAware, Appl
     public DefaultExtensionExecutor executor(ExtensionRepository repository) {
         DefaultExtensionExecutor executor=new DefaultExtensionExecutor(repository,isNotFoundThrowError);
         ExtensionExecutorUtil.setExecutor(executor);
+        //并行组合扩展点的默认线程池
+        ParallelExtensionExecutor.setDefaultThreads(parallelThreads);
+        ParallelExtensionExecutor.setVirtualThreads(parallelVirtualThreads);
         return executor;
     }
 
@@ -111,9 +123,10 @@ public class ExtensionAutoConfiguration implements ApplicationContextAware, Appl
     @Override
     public void run(ApplicationArguments args) throws Exception {
         Map<String, Object> extensionBeans = applicationContext.getBeansWithAnnotation(Extension.class);
-        extensionBeans.values().forEach(
-                extension -> extensionRegister.doRegistration((ExtensionPoint) extension)
-        );
+        List<ExtensionPoint> extensions = new ArrayList<>(extensionBeans.size());
+        extensionBeans.values().forEach(extension -> extensions.add((ExtensionPoint) extension));
+        //批量注册,只排序、发布一次
+        extensionRegister.doRegistration(extensions);
     }
 
     @Override
@@ -48,6 +48,20 @@ public @interface ExtensionPointAutowired {
      */
     Class<? extends InterruptionStrategy> interruptionStrategy() default DefaultInterruptionStrategy.class;
 
+    /**
+     * 并行组合扩展点时，执行扩展点的java.util.concurrent.Executor的Bean名称，为空时使用默认线程池
+     *
+     * @return the string
+     */
+    String executor() default "";
+
+    /**
+     * 并行组合扩展点时，每次调用的超时毫秒数，小于等于0时不限制
+     *
+     * @return the long
+     */
+    long timeout() default 0;
+
     /**
      * The enum Model.
      */
@@ -59,6 +73,10 @@ public @interface ExtensionPointAutowired {
         /**
          * 组合扩展点
          */
-        MULTI
+        MULTI,
+        /**
+         * 并行组合扩展点，扩展点同时执行，结果按扩展点的顺序组合
+         */
+        PARALLEL
     }
 }
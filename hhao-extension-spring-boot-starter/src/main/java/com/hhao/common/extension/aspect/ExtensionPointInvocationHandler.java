@@ -21,18 +21,21 @@ import com.hhao.common.extension.BizScenario;
 import com.hhao.common.extension.annotation.ExtensionPointAutowired;
 import com.hhao.common.extension.executor.AbstractComponentExecutor;
 import com.hhao.common.extension.executor.ExtensionExecutorUtil;
+import com.hhao.common.extension.executor.ParallelExtensionExecutor;
 import com.hhao.common.extension.model.*;
 import com.hhao.common.extension.strategy.InterruptionStrategy;
 import com.hhao.common.log.Logger;
 import com.hhao.common.log.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.annotation.AnnotationAttributes;
-import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * 代理方法调用
@@ -44,13 +47,21 @@ public class ExtensionPointInvocationHandler implements InvocationHandler {
     private Logger logger = LoggerFactory.getLogger(ExtensionPointInvocationHandler.class);
     private final String MODEL_PARAMETER_NAME="model";
     private final String INTERRUPTION_STRATEGY_CLZ_PARAMETER_NAME="interruptionStrategy";
+    private final String EXECUTOR_PARAMETER_NAME="executor";
+    private final String TIMEOUT_PARAMETER_NAME="timeout";
 
     private final Class<?> interfaceClass;
     private AnnotationAttributes annotationAttributes;
     private ExtensionPointAutowired.Model model;
     private InterruptionStrategy interruptionStrategy;
     private CombinedReturnBuilder combinedReturnBuilder;
+    private Executor parallelExecutor;
+    private long timeout;
     private ApplicationContext applicationContext;
+    /**
+     * 按方法预先生成的调度信息
+     */
+    private final Map<Method, MethodDispatcher> dispatchers = new ConcurrentHashMap<>();
 
     /**
      * Instantiates a new Extension point invocation handler.
@@ -60,46 +71,62 @@ public class ExtensionPointInvocationHandler implements InvocationHandler {
     public ExtensionPointInvocationHandler(Class<?> interfaceClass,ApplicationContext applicationContext) {
         this.interfaceClass = interfaceClass;
         this.applicationContext=applicationContext;
+        for (Method method : interfaceClass.getMethods()) {
+            dispatchers.put(method, MethodDispatcher.of(method));
+        }
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) {
-        AbstractComponentExecutor executor = ExtensionExecutorUtil.getExecutor();
-
-        String methodName = method.getName();
-        Class<?>[] parameterTypes = method.getParameterTypes();
-        if (parameterTypes.length == 0) {
-            if ("toString".equals(methodName)) {
+        MethodDispatcher dispatcher = dispatchers.get(method);
+        if (dispatcher == null) {
+            dispatcher = dispatchers.computeIfAbsent(method, MethodDispatcher::of);
+        }
+        switch (dispatcher.getKind()) {
+            case TO_STRING:
                 return this.toString();
-            } else if ("hashCode".equals(methodName)) {
+            case HASH_CODE:
                 return this.hashCode();
-            }
-        } else if (parameterTypes.length == 1 && "equals".equals(methodName)) {
-            return this.equals(args[0]);
+            case EQUALS:
+                return this.equals(args[0]);
+            default:
+                break;
         }
 
-        BizScenario bizScenario = getBizScenario(args);
+        AbstractComponentExecutor executor = ExtensionExecutorUtil.getExecutor();
+        BizScenario bizScenario = getBizScenario(dispatcher, args);
 
         if (model.equals(ExtensionPointAutowired.Model.SIMPLE)) {
             ExtensionPoint exp = executor.locateComponent((Class<ExtensionPoint>) interfaceClass, bizScenario, args);
             if (exp != null) {
                 try {
-                    return ReflectionUtils.invokeMethod(method, exp, args);
+                    return dispatcher.invoke(exp, args);
                 } catch (Exception e) {
                     exp.onError(e,args);
                 }
             }
         } else {
-            checkMultiReturnType(method);
+            checkMultiReturnType(dispatcher);
             List<ExtensionPoint> exps = executor.locateComponents((Class<ExtensionPoint>) interfaceClass, bizScenario, args);
             if (exps!=null) {
                 CombinedReturn combinedReturn = combinedReturnBuilder.combinedReturnInstance(exps.size());
+                if (model.equals(ExtensionPointAutowired.Model.PARALLEL)) {
+                    MethodDispatcher parallelDispatcher = dispatcher;
+                    List<Object> results = ParallelExtensionExecutor.invokeAll(exps, args,
+                            exp -> parallelDispatcher.invoke(exp, args), interruptionStrategy, parallelExecutor, timeout);
+                    for (Object result : results) {
+                        if (result != null) {
+                            combinedReturn.combineReturnValue((SimpleReturn) result);
+                        }
+                    }
+                    return combinedReturn;
+                }
                 Object result = null;
 
                 for (ExtensionPoint exp : exps) {
                     try {
-                        result = ReflectionUtils.invokeMethod(method, exp, args);
+                        result = dispatcher.invoke(exp, args);
                         if (result!=null) {
                             combinedReturn.combineReturnValue((SimpleReturn) result);
                         }
@@ -116,13 +143,12 @@ public class ExtensionPointInvocationHandler implements InvocationHandler {
         return null;
     }
 
-    private BizScenario getBizScenario(Object[] args) {
-        for (Object obj : args) {
-            if (obj instanceof BizScenario) {
-                return (BizScenario) obj;
-            }
+    private BizScenario getBizScenario(MethodDispatcher dispatcher, Object[] args) {
+        BizScenario bizScenario = dispatcher.getBizScenario(args);
+        if (bizScenario != null) {
+            return bizScenario;
         }
-        logger.info("use default BizScenario");
+        logger.debug("use default BizScenario");
         return BizScenario.newDefault();
     }
 
@@ -132,6 +158,11 @@ public class ExtensionPointInvocationHandler implements InvocationHandler {
         this.interruptionStrategy=getInterruptionStrategy(annotationAttributes);
         this.model=getModel(annotationAttributes);
         this.combinedReturnBuilder=applicationContext.getBean(CombinedReturnBuilder.class);
+        String executorName=annotationAttributes.getString(EXECUTOR_PARAMETER_NAME);
+        if (executorName!=null && !executorName.isEmpty()){
+            this.parallelExecutor=applicationContext.getBean(executorName, Executor.class);
+        }
+        this.timeout=annotationAttributes.getNumber(TIMEOUT_PARAMETER_NAME).longValue();
     }
 
     private ExtensionPointAutowired.Model getModel(AnnotationAttributes annotationAttributes) {
@@ -156,11 +187,10 @@ public class ExtensionPointInvocationHandler implements InvocationHandler {
 
     /**
      * 扩展点组合且有返回值的情况下，只支持MultiValues返回值类型
-     * @param method
+     * @param dispatcher
      */
-    private void checkMultiReturnType(Method method){
-        if (!method.getReturnType().getName().equals("void") &&
-        !method.getReturnType().isAssignableFrom(SimpleReturn.class)){
+    private void checkMultiReturnType(MethodDispatcher dispatcher){
+        if (!dispatcher.isMultiReturnSupported()){
             throw new RuntimeException("The return value of the composite extension point with ExtensionPointAutowired only supports MultiValues type");
         }
     }
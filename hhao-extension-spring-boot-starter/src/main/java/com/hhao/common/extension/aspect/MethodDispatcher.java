@@ -0,0 +1,190 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.extension.aspect;
+
+import com.hhao.common.extension.BizScenario;
+import com.hhao.common.extension.model.SimpleReturn;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * 代理方法的调度信息,在创建代理时按方法预先生成
+ * 包括方法类型(toString、hashCode、equals或扩展点方法)、BizScenario参数的位置、
+ * 基于MethodHandle的调用器及组合扩展点的返回值类型检查结果
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+final class MethodDispatcher {
+    /**
+     * 方法类型
+     */
+    enum Kind {
+        /**
+         * Object#toString
+         */
+        TO_STRING,
+        /**
+         * Object#hashCode
+         */
+        HASH_CODE,
+        /**
+         * Object#equals
+         */
+        EQUALS,
+        /**
+         * 扩展点方法
+         */
+        EXTENSION
+    }
+
+    private final Kind kind;
+    private final Method method;
+    /**
+     * 声明为BizScenario的参数位置,不存在时为-1
+     */
+    private final int bizScenarioIndex;
+    /**
+     * 类型为(Object,Object[])Object的调用器,无法生成时为null,使用反射调用
+     */
+    private final MethodHandle invoker;
+    /**
+     * 返回值是否支持组合扩展点
+     */
+    private final boolean multiReturnSupported;
+
+    private MethodDispatcher(Kind kind, Method method, int bizScenarioIndex, MethodHandle invoker, boolean multiReturnSupported) {
+        this.kind = kind;
+        this.method = method;
+        this.bizScenarioIndex = bizScenarioIndex;
+        this.invoker = invoker;
+        this.multiReturnSupported = multiReturnSupported;
+    }
+
+    /**
+     * 生成方法的调度信息
+     *
+     * @param method the method
+     * @return the method dispatcher
+     */
+    static MethodDispatcher of(Method method) {
+        String methodName = method.getName();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Kind kind = Kind.EXTENSION;
+        if (parameterTypes.length == 0 && "toString".equals(methodName)) {
+            kind = Kind.TO_STRING;
+        } else if (parameterTypes.length == 0 && "hashCode".equals(methodName)) {
+            kind = Kind.HASH_CODE;
+        } else if (parameterTypes.length == 1 && "equals".equals(methodName)) {
+            kind = Kind.EQUALS;
+        }
+        int bizScenarioIndex = -1;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (BizScenario.class.isAssignableFrom(parameterTypes[i])) {
+                bizScenarioIndex = i;
+                break;
+            }
+        }
+        boolean multiReturnSupported = void.class.equals(method.getReturnType())
+                || method.getReturnType().isAssignableFrom(SimpleReturn.class);
+        return new MethodDispatcher(kind, method, bizScenarioIndex,
+                kind == Kind.EXTENSION ? createInvoker(method) : null, multiReturnSupported);
+    }
+
+    private static MethodHandle createInvoker(Method method) {
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            return handle.asType(handle.type().generic()).asSpreader(Object[].class, method.getParameterCount());
+        } catch (RuntimeException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets kind.
+     *
+     * @return the kind
+     */
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * 返回值是否支持组合扩展点
+     *
+     * @return the boolean
+     */
+    boolean isMultiReturnSupported() {
+        return multiReturnSupported;
+    }
+
+    /**
+     * 返回参数中的BizScenario,优先取声明为BizScenario的参数,不存在时返回null
+     *
+     * @param args the args
+     * @return the biz scenario
+     */
+    BizScenario getBizScenario(Object[] args) {
+        if (bizScenarioIndex >= 0 && args[bizScenarioIndex] != null) {
+            return (BizScenario) args[bizScenarioIndex];
+        }
+        if (args != null) {
+            for (Object obj : args) {
+                if (obj instanceof BizScenario) {
+                    return (BizScenario) obj;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在扩展点上调用方法,抛出方法本身的异常
+     *
+     * @param target the target
+     * @param args   the args
+     * @return the object
+     * @throws Exception the exception
+     */
+    Object invoke(Object target, Object[] args) throws Exception {
+        try {
+            if (invoker != null) {
+                return (Object) invoker.invokeExact(target, args);
+            }
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            return rethrow(e.getTargetException());
+        } catch (Throwable e) {
+            return rethrow(e);
+        }
+    }
+
+    private static Object rethrow(Throwable e) throws Exception {
+        if (e instanceof Exception) {
+            throw (Exception) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        throw new UndeclaredThrowableException(e);
+    }
+}
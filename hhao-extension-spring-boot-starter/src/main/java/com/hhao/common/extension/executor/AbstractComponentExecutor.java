@@ -25,6 +25,7 @@ import com.hhao.common.extension.strategy.InterruptionStrategy;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -201,6 +202,65 @@ public abstract class AbstractComponentExecutor {
         return combinationResult;
     }
 
+    /**
+     * 组合扩展器并行执行接口，带返回值
+     * 使用默认线程池，结果按扩展点的顺序返回
+     *
+     * @param <R>           the type parameter
+     * @param <C>           the type parameter
+     * @param targetClz     the target clz
+     * @param bizScenario   the biz scenario
+     * @param context       the context
+     * @param timeoutMillis 超时毫秒数，小于等于0时不限制
+     * @return the list
+     */
+    public <R, C> List<R> parallelMultiExecute(Class<? extends ExtensionPoint<R,C>> targetClz,BizScenario bizScenario, C context, long timeoutMillis) {
+        return parallelMultiExecute(targetClz, bizScenario, context, new DefaultInterruptionStrategy<R>(), null, timeoutMillis);
+    }
+
+    /**
+     * 组合扩展器并行执行接口，带返回值
+     *
+     * @param <R>                  the type parameter
+     * @param <C>                  the type parameter
+     * @param extensionCoordinate  the extension coordinate
+     * @param context              the context
+     * @param interruptionStrategy the interruption strategy
+     * @param executor             执行扩展点的线程池，为null时使用默认线程池
+     * @param timeoutMillis        超时毫秒数，小于等于0时不限制
+     * @return the list
+     */
+    public <R, C> List<R> parallelMultiExecute(ExtensionCoordinate extensionCoordinate, C context, InterruptionStrategy<R> interruptionStrategy,
+                                               Executor executor, long timeoutMillis) {
+        return parallelMultiExecute(extensionCoordinate.getExtensionPointClass(), extensionCoordinate.getBizScenario(), context,
+                interruptionStrategy, executor, timeoutMillis);
+    }
+
+    /**
+     * 组合扩展器并行执行接口，带返回值
+     * 扩展点在线程池中同时执行，结果按扩展点的顺序合并；
+     * 按顺序对结果应用interruptionStrategy，中断时取消尚未完成的扩展点，见ParallelExtensionExecutor
+     *
+     * @param <R>                  the type parameter
+     * @param <C>                  the type parameter
+     * @param targetClz            the target clz
+     * @param bizScenario          the biz scenario
+     * @param context              the context
+     * @param interruptionStrategy the interruption strategy
+     * @param executor             执行扩展点的线程池，为null时使用默认线程池
+     * @param timeoutMillis        超时毫秒数，小于等于0时不限制
+     * @return the list
+     */
+    public <R, C> List<R> parallelMultiExecute(Class<? extends ExtensionPoint<R,C>> targetClz,BizScenario bizScenario, C context,
+                                               InterruptionStrategy<R> interruptionStrategy, Executor executor, long timeoutMillis) {
+        List<ExtensionPoint> extensionPoints = locateComponents(targetClz,bizScenario, context);
+        if (extensionPoints==null){
+            return Collections.emptyList();
+        }
+        return ParallelExtensionExecutor.invokeAll(extensionPoints, context, exp -> (R) exp.execute(context),
+                interruptionStrategy, executor, timeoutMillis);
+    }
+
     /**
      * 组合扩展器代理执行接口，不带返回值
      *
@@ -22,10 +22,11 @@ import com.hhao.common.extension.model.ExtensionPoint;
 import com.hhao.common.extension.register.ExtensionRepository;
 import com.hhao.common.log.Logger;
 import com.hhao.common.log.LoggerFactory;
-import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 执行器
@@ -34,6 +35,8 @@ import java.util.List;
  * 1、biz1.useCase1.scenario1
  * 2、biz1.useCase1
  * 3、biz1
+ * 按(扩展点类型,BizScenario)缓存上述三级匹配的结果，查找时只需一次map访问；
+ * ExtensionRepository注册新的扩展点后缓存失效。
  *
  * @author Wang
  * @since 1.0.0
@@ -43,6 +46,11 @@ public class DefaultExtensionExecutor extends AbstractComponentExecutor{
 
     private ExtensionRepository extensionRepository;
 
+    /**
+     * 匹配结果缓存，与ExtensionRepository的版本对应
+     */
+    private volatile ResolutionCache resolutionCache;
+
     /**
      * Instantiates a new Extension executor.
      *
@@ -51,88 +59,64 @@ public class DefaultExtensionExecutor extends AbstractComponentExecutor{
     public DefaultExtensionExecutor(ExtensionRepository extensionRepository, boolean isNotFoundThrowError){
         this.extensionRepository=extensionRepository;
         this.setNotFoundThrowError(isNotFoundThrowError);
+        this.resolutionCache=new ResolutionCache(extensionRepository.getVersion());
     }
 
     /**
-     * first try with full namespace
-     *
-     * example:  biz1.useCase1.scenario1
-     */
-    private ExtensionPoint firstTry(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario, Object context) {
-        logger.debug("First trying with " + bizScenario.getUniqueIdentity());
-        return findFirstExtensionPoint(locates(targetClz.getName(), bizScenario.getUniqueIdentity()),context);
-    }
-
-    /**
-     * second try with default scenario
-     *
-     * example:  biz1.useCase1.#defaultScenario#
+     * 返回缓存的匹配结果，不存在时按三级BizScenario解析
      */
-    private ExtensionPoint secondTry(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario,Object context){
-        logger.debug("Second trying with " + bizScenario.getIdentityWithDefaultScenario());
-        return findFirstExtensionPoint(locates(targetClz.getName(), bizScenario.getIdentityWithDefaultScenario()),context);
+    private Resolution resolve(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario) {
+        ResolutionCache cache = resolutionCache;
+        long version = extensionRepository.getVersion();
+        if (cache.version != version) {
+            cache = new ResolutionCache(version);
+            resolutionCache = cache;
+        }
+        ConcurrentMap<BizScenario, Resolution> resolutions = cache.resolutions.get(targetClz);
+        if (resolutions == null) {
+            resolutions = cache.resolutions.computeIfAbsent(targetClz, k -> new ConcurrentHashMap<>(8));
+        }
+        Resolution resolution = resolutions.get(bizScenario);
+        if (resolution == null) {
+            resolution = buildResolution(targetClz, bizScenario);
+            resolutions.putIfAbsent(bizScenario, resolution);
+        }
+        return resolution;
     }
 
     /**
-     * third try with default use case + default scenario
-     *
-     * example:  biz1.#defaultUseCase#.#defaultScenario#
+     * 依次按以下BizScenario查找，相同的BizScenario只查找一次：
+     * 1、full namespace，example:  biz1.useCase1.scenario1
+     * 2、default scenario，example:  biz1.useCase1.#defaultScenario#
+     * 3、default use case + default scenario，example:  biz1.#defaultUseCase#.#defaultScenario#
      */
-    private ExtensionPoint defaultUseCaseTry(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario,Object context){
-        logger.debug("Third trying with " + bizScenario.getIdentityWithDefaultUseCase());
-        return findFirstExtensionPoint(locates(targetClz.getName(), bizScenario.getIdentityWithDefaultUseCase()),context);
-    }
-
-    private List<ExtensionPoint> multiFirstTry(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario,Object context) {
-        logger.debug("First trying with " + bizScenario.getUniqueIdentity());
-        return findExtensionPoints(locates(targetClz.getName(), bizScenario.getUniqueIdentity()),context);
-    }
-
-    private List<ExtensionPoint> multiSecondTry(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario,Object context){
-        logger.debug("Second trying with " + bizScenario.getIdentityWithDefaultScenario());
-        return findExtensionPoints(locates(targetClz.getName(), bizScenario.getIdentityWithDefaultScenario()),context);
-    }
-
-    private List<ExtensionPoint> multiDefaultUseCaseTry(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario,Object context){
-        logger.debug("Third trying with " + bizScenario.getIdentityWithDefaultUseCase());
-        return findExtensionPoints(locates(targetClz.getName(), bizScenario.getIdentityWithDefaultUseCase()),context);
-    }
-
-    private List<ExtensionPoint> locates(String name, String uniqueIdentity) {
-        return extensionRepository.getExtensionPoints(new ExtensionCoordinate(name, uniqueIdentity));
-    }
-
-    private ExtensionPoint findFirstExtensionPoint(List<ExtensionPoint> extensionPoints,Object context) {
-        if (CollectionUtils.isEmpty(extensionPoints)){
-            return null;
-        }
-        if (context!=null){
-            for(ExtensionPoint ext:extensionPoints){
-                if (ext.support(context)){
-                    return ext;
-                }
+    private Resolution buildResolution(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario) {
+        String[] identities = new String[]{
+                bizScenario.getUniqueIdentity(),
+                bizScenario.getIdentityWithDefaultScenario(),
+                bizScenario.getIdentityWithDefaultUseCase()};
+        List<ExtensionPoint> chain = new ArrayList<>();
+        List<ExtensionPoint> firstLevel = null;
+        for (int i = 0; i < identities.length; i++) {
+            if (i > 0 && identities[i].equals(identities[i - 1])) {
+                continue;
+            }
+            logger.debug("Resolving {} with {}", targetClz.getName(), identities[i]);
+            List<ExtensionPoint> extensionPoints = locates(targetClz.getName(), identities[i]);
+            if (extensionPoints == null || extensionPoints.isEmpty()) {
+                continue;
+            }
+            if (firstLevel == null) {
+                //ExtensionRepository返回的列表不可修改,可直接缓存
+                firstLevel = extensionPoints;
             }
-        }else{
-            return extensionPoints.get(0);
+            chain.addAll(extensionPoints);
         }
-        return null;
+        return new Resolution(chain.toArray(new ExtensionPoint[0]), firstLevel);
     }
 
-    private List<ExtensionPoint> findExtensionPoints(List<ExtensionPoint> extensionPoints,Object context) {
-        if (CollectionUtils.isEmpty(extensionPoints)){
-            return null;
-        }
-        List<ExtensionPoint> results=new ArrayList<>();
-        if (context!=null){
-            for(ExtensionPoint ext:extensionPoints){
-                if (ext.support(context)){
-                    results.add(ext);
-                }
-            }
-        }else{
-            return extensionPoints;
-        }
-        return results;
+    private List<ExtensionPoint> locates(String name, String uniqueIdentity) {
+        return extensionRepository.getExtensionPoints(new ExtensionCoordinate(name, uniqueIdentity));
     }
 
     private void checkNull(BizScenario bizScenario){
@@ -143,6 +127,7 @@ public class DefaultExtensionExecutor extends AbstractComponentExecutor{
 
     /**
      * 加载扩展实现
+     * 按BizScenario从特殊到一般，返回第一个support的扩展点，context为null时不检查support
      *
      * @param targetClz   the target clz
      * @param bizScenario the biz scenario
@@ -153,37 +138,24 @@ public class DefaultExtensionExecutor extends AbstractComponentExecutor{
     @Override
     public <C> ExtensionPoint locateComponent(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario, C context) {
         checkNull(bizScenario);
-        ExtensionPoint extension=null;
-        logger.debug("BizScenario in locateExtension is : " + bizScenario.getUniqueIdentity());
-
-        // first try with full namespace
-        extension = firstTry(targetClz, bizScenario,context);
-        if (extension != null) {
-            return extension;
-        }
-
-        // second try with default scenario
-        extension = secondTry(targetClz, bizScenario,context);
-        if (extension != null) {
-            return extension;
-        }
-
-        // third try with default use case + default scenario
-        extension = defaultUseCaseTry(targetClz, bizScenario,context);
-        if (extension != null) {
-            return extension;
-        }
-
-        logger.info("Can not find extension with ExtensionPoint: "+targetClz+" BizScenario:"+bizScenario.getUniqueIdentity());
-
-        if (this.isNotFoundThrowError()){
-            throw new RuntimeException("Can not find extension with ExtensionPoint: "+targetClz+" BizScenario:"+bizScenario.getUniqueIdentity());
+        ExtensionPoint[] chain = resolve(targetClz, bizScenario).chain;
+        if (context == null) {
+            if (chain.length > 0) {
+                return chain[0];
+            }
+        } else {
+            for (ExtensionPoint ext : chain) {
+                if (ext.support(context)) {
+                    return ext;
+                }
+            }
         }
-        return null;
+        return notFound(targetClz, bizScenario);
     }
 
     /**
      * 加载多个扩展点实现
+     * 返回第一个存在扩展点的BizScenario下所有support的扩展点，context为null时不检查support
      *
      * @param targetClz   the target clz
      * @param bizScenario the biz scenario
@@ -194,31 +166,58 @@ public class DefaultExtensionExecutor extends AbstractComponentExecutor{
     @Override
     public <C> List<ExtensionPoint> locateComponents(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario, C context) {
         checkNull(bizScenario);
-        List<ExtensionPoint> extensions=null;
-        logger.debug("BizScenario in locateExtension is : " + bizScenario.getUniqueIdentity());
-
-        // first try with full namespace
-        extensions = multiFirstTry(targetClz, bizScenario,context);
-        if (extensions != null) {
-            return extensions;
+        List<ExtensionPoint> firstLevel = resolve(targetClz, bizScenario).firstLevel;
+        if (firstLevel == null) {
+            return notFound(targetClz, bizScenario);
         }
-
-        // second try with default scenario
-        extensions = multiSecondTry(targetClz, bizScenario,context);
-        if (extensions != null) {
-            return extensions;
+        if (context == null) {
+            return firstLevel;
         }
-
-        // third try with default use case + default scenario
-        extensions = multiDefaultUseCaseTry(targetClz, bizScenario,context);
-        if (extensions != null) {
-            return extensions;
+        List<ExtensionPoint> results = new ArrayList<>(firstLevel.size());
+        for (ExtensionPoint ext : firstLevel) {
+            if (ext.support(context)) {
+                results.add(ext);
+            }
         }
+        return results;
+    }
 
+    private <T> T notFound(Class<? extends ExtensionPoint> targetClz, BizScenario bizScenario) {
         logger.info("Can not find extension with ExtensionPoint: "+targetClz+" BizScenario:"+bizScenario.getUniqueIdentity());
         if (this.isNotFoundThrowError()){
             throw new RuntimeException("Can not find extension with ExtensionPoint: "+targetClz+" BizScenario:"+bizScenario.getUniqueIdentity());
         }
         return null;
     }
+
+    /**
+     * 某一版本ExtensionRepository的匹配结果
+     */
+    private static final class ResolutionCache {
+        private final long version;
+        private final ConcurrentMap<Class<?>, ConcurrentMap<BizScenario, Resolution>> resolutions = new ConcurrentHashMap<>(64);
+
+        private ResolutionCache(long version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * 扩展点类型+BizScenario的匹配结果
+     */
+    private static final class Resolution {
+        /**
+         * 按BizScenario从特殊到一般合并的扩展点
+         */
+        private final ExtensionPoint[] chain;
+        /**
+         * 第一个存在扩展点的BizScenario下的扩展点，都不存在时为null
+         */
+        private final List<ExtensionPoint> firstLevel;
+
+        private Resolution(ExtensionPoint[] chain, List<ExtensionPoint> firstLevel) {
+            this.chain = chain;
+            this.firstLevel = firstLevel;
+        }
+    }
 }
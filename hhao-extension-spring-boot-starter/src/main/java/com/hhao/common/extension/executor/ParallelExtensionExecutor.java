@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018-2022 WangSheng.
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        https://www.gnu.org/licenses/gpl-3.0.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.hhao.common.extension.executor;
+
+import com.hhao.common.extension.model.ExtensionPoint;
+import com.hhao.common.extension.strategy.InterruptionStrategy;
+import com.hhao.common.log.Logger;
+import com.hhao.common.log.LoggerFactory;
+import com.hhao.common.utils.NamingThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 组合扩展点并行执行器
+ * 所有扩展点同时提交到线程池执行,调用线程按声明顺序收集结果:
+ * 1、结果按扩展点的顺序合并,与串行执行的结果顺序一致
+ * 2、按声明顺序对每个结果应用InterruptionStrategy,中断时取消尚未完成的扩展点
+ * 3、扩展点执行异常时,在调用线程中调用该扩展点的onError
+ * 4、超时(毫秒,小于等于0时不限制)为整个调用的时限,超时的扩展点被取消,并以TimeoutException调用onError
+ * 线程池队列已满时由调用线程直接执行扩展点
+ * 注意:扩展点在其它线程中执行,ThreadLocal中的上下文(如事务、请求上下文)不会传递
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class ParallelExtensionExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelExtensionExecutor.class);
+    private static volatile Executor defaultExecutor;
+    private static volatile int defaultThreads = Runtime.getRuntime().availableProcessors() * 2;
+    private static volatile boolean virtualThreads = false;
+
+    private ParallelExtensionExecutor() {
+    }
+
+    /**
+     * 并行执行扩展点,按声明顺序返回结果
+     *
+     * @param <R>                  the type parameter
+     * @param extensionPoints      the extension points
+     * @param context              传给onError的上下文
+     * @param call                 执行扩展点
+     * @param interruptionStrategy the interruption strategy
+     * @param executor             执行扩展点的线程池,为null时使用默认线程池
+     * @param timeoutMillis        超时毫秒数,小于等于0时不限制
+     * @return the list
+     */
+    public static <R> List<R> invokeAll(List<? extends ExtensionPoint> extensionPoints, Object context, ExtensionCall<R> call,
+                                        InterruptionStrategy<R> interruptionStrategy, Executor executor, long timeoutMillis) {
+        if (executor == null) {
+            executor = getDefaultExecutor();
+        }
+        int size = extensionPoints.size();
+        List<FutureTask<R>> tasks = new ArrayList<>(size);
+        for (ExtensionPoint exp : extensionPoints) {
+            FutureTask<R> task = new FutureTask<>(() -> call.call(exp));
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+
+        long deadline = timeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0L;
+        List<R> results = new ArrayList<>(size);
+        int i = 0;
+        try {
+            for (; i < size; i++) {
+                FutureTask<R> task = tasks.get(i);
+                ExtensionPoint exp = extensionPoints.get(i);
+                R result;
+                try {
+                    result = deadline == 0L ? task.get() : task.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException e) {
+                    exp.onError(e.getCause() != null ? e.getCause() : e, context);
+                    continue;
+                } catch (TimeoutException e) {
+                    task.cancel(true);
+                    exp.onError(new TimeoutException("Extension point " + exp.getClass().getName() + " timed out after " + timeoutMillis + "ms"), context);
+                    continue;
+                }
+                results.add(result);
+                if (interruptionStrategy.interrupt(result)) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for extension points", e);
+        } finally {
+            //中断、超时或异常时取消尚未完成的扩展点
+            for (int j = i; j < size; j++) {
+                tasks.get(j).cancel(true);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 返回默认线程池
+     * 开启虚拟线程且运行环境支持时,每个扩展点使用一个虚拟线程,否则使用有界的平台线程池
+     *
+     * @return the default executor
+     */
+    public static Executor getDefaultExecutor() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (ParallelExtensionExecutor.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = virtualThreads ? newVirtualThreadExecutor() : null;
+                    if (executor == null) {
+                        int threads = Math.max(1, defaultThreads);
+                        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                                new ArrayBlockingQueue<>(threads * 64),
+                                new NamingThreadFactory("extension-parallel", true),
+                                new ThreadPoolExecutor.CallerRunsPolicy());
+                        pool.allowCoreThreadTimeOut(true);
+                        executor = pool;
+                    }
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 设置默认线程池
+     *
+     * @param executor the executor
+     */
+    public static void setDefaultExecutor(Executor executor) {
+        defaultExecutor = executor;
+    }
+
+    /**
+     * 设置默认线程池的线程数,在默认线程池创建前设置有效
+     *
+     * @param threads the threads
+     */
+    public static void setDefaultThreads(int threads) {
+        if (threads > 0) {
+            defaultThreads = threads;
+        }
+    }
+
+    /**
+     * 默认线程池是否使用虚拟线程,在默认线程池创建前设置有效
+     *
+     * @param virtual the virtual
+     */
+    public static void setVirtualThreads(boolean virtual) {
+        virtualThreads = virtual;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池,运行环境不支持虚拟线程时返回null
+     *
+     * @return the executor
+     */
+    public static Executor newVirtualThreadExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads are not supported by the current JVM, use platform threads instead");
+            return null;
+        }
+    }
+
+    /**
+     * 执行单个扩展点
+     *
+     * @param <R> the type parameter
+     */
+    @FunctionalInterface
+    public interface ExtensionCall<R> {
+        /**
+         * 执行扩展点
+         *
+         * @param extensionPoint the extension point
+         * @return the r
+         * @throws Exception the exception
+         */
+        R call(ExtensionPoint extensionPoint) throws Exception;
+    }
+}
@@ -24,6 +24,12 @@ import org.springframework.aop.support.AopUtils;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.ClassUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 
 /**
  * 扩展点注册
@@ -49,14 +55,30 @@ public class ExtensionRegister {
      * @param extensionObject the extension object
      */
     public void doRegistration(ExtensionPoint extensionObject){
+        extensionRepository.putExtensionPoint(extensionCoordinate(extensionObject),extensionObject);
+    }
+
+    /**
+     * 批量注册,按坐标分组后一次写入ExtensionRepository
+     *
+     * @param extensionObjects the extension objects
+     */
+    public void doRegistration(Collection<ExtensionPoint> extensionObjects){
+        Map<ExtensionCoordinate, List<ExtensionPoint>> extensionPoints=new HashMap<>(extensionObjects.size()*2);
+        for(ExtensionPoint extensionObject:extensionObjects){
+            extensionPoints.computeIfAbsent(extensionCoordinate(extensionObject),k->new ArrayList<>()).add(extensionObject);
+        }
+        extensionRepository.putExtensionPoints(extensionPoints);
+    }
+
+    private ExtensionCoordinate extensionCoordinate(ExtensionPoint extensionObject){
         Class<?>  extensionClz = extensionObject.getClass();
         if (AopUtils.isAopProxy(extensionObject)) {
             extensionClz = ClassUtils.getUserClass(extensionObject);
         }
         Extension extensionAnn = AnnotationUtils.findAnnotation(extensionClz, Extension.class);
         BizScenario bizScenario = BizScenario.valueOf(extensionAnn.bizId(), extensionAnn.useCase(), extensionAnn.scenario());
-        ExtensionCoordinate extensionCoordinate = new ExtensionCoordinate(calculateExtensionPoint(extensionClz), bizScenario.getUniqueIdentity());
-        extensionRepository.putExtensionPoint(extensionCoordinate,extensionObject);
+        return new ExtensionCoordinate(calculateExtensionPoint(extensionClz), bizScenario.getUniqueIdentity());
     }
 
     private String calculateExtensionPoint(Class<?> targetClz) {
@@ -25,29 +25,41 @@ import java.util.*;
 /**
  * 扩展点存储器
  * 按扩展点类型+ExtensionCoordinate进行存储
+ * 存储内容为不可变的快照:注册时复制当前快照,合并、查重、排序后整体替换,
+ * 读取时无锁且总是看到一致的快照,运行期注册或替换扩展点也不影响正在进行的读取
+ * 同一坐标下的扩展点在注册时已排好序,读取时不再排序
  *
  * @author Wang
  * @since 1.0.0
  */
 public class ExtensionRepository {
-    private Map<ExtensionCoordinate, List<ExtensionPoint>> extensionRepo = new HashMap<>(32);
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), 0);
 
     /**
-     * Gets extension repo.
+     * 返回当前快照,快照不可修改
      *
      * @return the extension repo
      */
     public Map<ExtensionCoordinate, List<ExtensionPoint>> getExtensionRepo() {
-        return extensionRepo;
+        return snapshot.extensionRepo;
     }
 
     /**
-     * Sets extension repo.
+     * 用extensionRepo替换全部扩展点
      *
      * @param extensionRepo the extension repo
      */
-    public void setExtensionRepo(Map<ExtensionCoordinate, List<ExtensionPoint>> extensionRepo) {
-        this.extensionRepo = extensionRepo;
+    public synchronized void setExtensionRepo(Map<ExtensionCoordinate, List<ExtensionPoint>> extensionRepo) {
+        publish(merge(new HashMap<>(extensionRepo.size() * 2), extensionRepo));
+    }
+
+    /**
+     * 返回存储器的版本,每次注册扩展点后递增
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return snapshot.version;
     }
 
     /**
@@ -57,33 +69,86 @@ public class ExtensionRepository {
      * @param extensionPoint      the extension point
      */
     public synchronized void putExtensionPoint(ExtensionCoordinate extensionCoordinate ,ExtensionPoint extensionPoint){
-        List<ExtensionPoint> extensionPoints=extensionRepo.get(extensionCoordinate);
-        if (extensionPoints==null){
-            extensionPoints=new ArrayList<>();
-            extensionRepo.put(extensionCoordinate,extensionPoints);
+        putExtensionPoints(Collections.singletonMap(extensionCoordinate, Collections.singletonList(extensionPoint)));
+    }
+
+    /**
+     * 批量注册扩展点,所有扩展点合并后只排序、发布一次
+     * 有重复的扩展点时抛出异常,已有的快照不变
+     *
+     * @param extensionPoints the extension points
+     */
+    public synchronized void putExtensionPoints(Map<ExtensionCoordinate, ? extends Collection<ExtensionPoint>> extensionPoints){
+        if (extensionPoints.isEmpty()) {
+            return;
         }
-        if (isDuplicate(extensionPoints,extensionPoint)){
-            throw new IllegalArgumentException("ExtensionPoints is repeated " + extensionPoint.getClass());
+        publish(merge(new HashMap<>(snapshot.extensionRepo), extensionPoints));
+    }
+
+    /**
+     * 移除扩展点,与putExtensionPoint配合可在运行期替换扩展点
+     *
+     * @param extensionCoordinate the extension coordinate
+     * @param extensionPoint      the extension point
+     * @return 是否存在并已移除
+     */
+    public synchronized boolean removeExtensionPoint(ExtensionCoordinate extensionCoordinate, ExtensionPoint extensionPoint){
+        List<ExtensionPoint> current = snapshot.extensionRepo.get(extensionCoordinate);
+        if (current == null || !current.contains(extensionPoint)) {
+            return false;
+        }
+        Map<ExtensionCoordinate, List<ExtensionPoint>> repo = new HashMap<>(snapshot.extensionRepo);
+        List<ExtensionPoint> remains = new ArrayList<>(current);
+        remains.remove(extensionPoint);
+        if (remains.isEmpty()) {
+            repo.remove(extensionCoordinate);
+        } else {
+            repo.put(extensionCoordinate, List.copyOf(remains));
         }
-        extensionPoints.add(extensionPoint);
-        //排序
-        OrderComparator.sort(extensionPoints);
+        publish(repo);
+        return true;
     }
 
     /**
      * Get extension points list.
+     * 返回的列表不可修改
      *
      * @param extensionCoordinate the extension coordinate
      * @return the list
      */
     public List<ExtensionPoint> getExtensionPoints(ExtensionCoordinate extensionCoordinate){
-        List<ExtensionPoint> extensionPoints=extensionRepo.get(extensionCoordinate);
+        List<ExtensionPoint> extensionPoints=snapshot.extensionRepo.get(extensionCoordinate);
         if (extensionPoints==null){
             return Collections.emptyList();
         }
         return extensionPoints;
     }
 
+    /**
+     * 将extensionPoints合并到repo中,查重并排序
+     */
+    private Map<ExtensionCoordinate, List<ExtensionPoint>> merge(Map<ExtensionCoordinate, List<ExtensionPoint>> repo,
+                                                                 Map<ExtensionCoordinate, ? extends Collection<ExtensionPoint>> extensionPoints){
+        for (Map.Entry<ExtensionCoordinate, ? extends Collection<ExtensionPoint>> entry : extensionPoints.entrySet()) {
+            List<ExtensionPoint> current = repo.get(entry.getKey());
+            List<ExtensionPoint> merged = current == null ? new ArrayList<>(entry.getValue().size()) : new ArrayList<>(current);
+            for (ExtensionPoint extensionPoint : entry.getValue()) {
+                if (isDuplicate(merged, extensionPoint)){
+                    throw new IllegalArgumentException("ExtensionPoints is repeated " + extensionPoint.getClass());
+                }
+                merged.add(extensionPoint);
+            }
+            //排序
+            OrderComparator.sort(merged);
+            repo.put(entry.getKey(), List.copyOf(merged));
+        }
+        return repo;
+    }
+
+    private void publish(Map<ExtensionCoordinate, List<ExtensionPoint>> repo){
+        snapshot = new Snapshot(Map.copyOf(repo), snapshot.version + 1);
+    }
+
     /**
      * 查重，同一个key下，同一类型的Bean只能有一个
      *
@@ -99,4 +164,17 @@ public class ExtensionRepository {
         }
         return false;
     }
+
+    /**
+     * 不可变的存储快照
+     */
+    private static final class Snapshot {
+        private final Map<ExtensionCoordinate, List<ExtensionPoint>> extensionRepo;
+        private final long version;
+
+        private Snapshot(Map<ExtensionCoordinate, List<ExtensionPoint>> extensionRepo, long version) {
+            this.extensionRepo = extensionRepo;
+            this.version = version;
+        }
+    }
 }
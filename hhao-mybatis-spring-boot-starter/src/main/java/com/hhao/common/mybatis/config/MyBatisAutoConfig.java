@@ -21,7 +21,11 @@ import com.hhao.common.mybatis.page.PageMetaData;
 import com.hhao.common.mybatis.page.executor.sql.dialect.DefaultDialect;
 import com.hhao.common.mybatis.page.executor.sql.dialect.Dialect;
 import com.hhao.common.mybatis.page.executor.sql.dialect.DialectFactory;
+import com.hhao.common.mybatis.page.executor.sql.dialect.H2Dialect;
 import com.hhao.common.mybatis.page.executor.sql.dialect.MySqlDialect;
+import com.hhao.common.mybatis.page.executor.sql.dialect.OracleDialect;
+import com.hhao.common.mybatis.page.executor.sql.dialect.PostgreSqlDialect;
+import com.hhao.common.mybatis.page.executor.sql.dialect.SqlServerDialect;
 import com.hhao.common.mybatis.page.interceptor.PageInterceptor;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -95,6 +99,20 @@ public class MyBatisAutoConfig implements ApplicationContextAware {
         PageMetaData.PAGE_SIZE_LIMIT=myBatisProperties.getPageSizeLimit();
         PageMetaData.SUPPORT_MULTI_QUERIES=myBatisProperties.getSupportMultiQueries();
         PageMetaData.DEFAULT_COUNT_MAPPED_STATEMENT_ID_SUFFIX=myBatisProperties.getDefaultCountMappedStatementIdSuffix();
+        PageMetaData.SQL_PAGE_MODEL_CACHE_SIZE=myBatisProperties.getSqlPageModelCacheSize();
+        PageMetaData.ASYNC_COUNT=myBatisProperties.getAsyncCount();
+        PageMetaData.ASYNC_COUNT_THREADS=myBatisProperties.getAsyncCountThreads();
+        PageMetaData.ASYNC_COUNT_QUEUE_SIZE=myBatisProperties.getAsyncCountQueueSize();
+        PageMetaData.COUNT_CACHE=myBatisProperties.getCountCache();
+        PageMetaData.COUNT_CACHE_SIZE=myBatisProperties.getCountCacheSize();
+        PageMetaData.COUNT_CACHE_TTL=myBatisProperties.getCountCacheTtl();
+        PageMetaData.ESTIMATED_COUNT=myBatisProperties.getEstimatedCount();
+        PageMetaData.ESTIMATED_COUNT_THRESHOLD=myBatisProperties.getEstimatedCountThreshold();
+        PageMetaData.COUNT_REMOVE_LEFT_JOIN=myBatisProperties.getCountRemoveLeftJoin();
+        PageMetaData.PAGE_CACHE=myBatisProperties.getPageCache();
+        PageMetaData.PAGE_CACHE_SIZE=myBatisProperties.getPageCacheSize();
+        PageMetaData.PAGE_CACHE_TTL=myBatisProperties.getPageCacheTtl();
+        PageMetaData.STREAM_FETCH_SIZE=myBatisProperties.getStreamFetchSize();
 
         //注册sql方言
         if (myBatisProperties.getSqlDialects()!=null){
@@ -110,6 +128,10 @@ public class MyBatisAutoConfig implements ApplicationContextAware {
             }
         }
         DialectFactory.register(new MySqlDialect());
+        DialectFactory.register(new PostgreSqlDialect());
+        DialectFactory.register(new OracleDialect());
+        DialectFactory.register(new SqlServerDialect());
+        DialectFactory.register(new H2Dialect());
         if (myBatisProperties.getSupportDefaultDialect()) {
             DialectFactory.register(new DefaultDialect());
         }
@@ -117,21 +139,26 @@ public class MyBatisAutoConfig implements ApplicationContextAware {
 
     /**
      * Add interceptor.
+     * 每个Configuration使用各自的PageInterceptor,派生的MappedStatement缓存随Configuration释放
      */
     public void addInterceptor() {
-        PageInterceptor pageInterceptor = new PageInterceptor();
         for (SqlSessionFactory sqlSessionFactory : sqlSessionFactoryList) {
             org.apache.ibatis.session.Configuration configuration = sqlSessionFactory.getConfiguration();
-            if (!containsInterceptor(configuration, pageInterceptor)) {
-                configuration.addInterceptor(pageInterceptor);
+            if (!containsPageInterceptor(configuration)) {
+                configuration.addInterceptor(new PageInterceptor());
             }
         }
     }
 
-    private boolean containsInterceptor(org.apache.ibatis.session.Configuration configuration, Interceptor interceptor) {
+    private boolean containsPageInterceptor(org.apache.ibatis.session.Configuration configuration) {
         try {
             // getInterceptors since 3.2.2
-            return configuration.getInterceptors().contains(interceptor);
+            for (Interceptor interceptor : configuration.getInterceptors()) {
+                if (interceptor instanceof PageInterceptor) {
+                    return true;
+                }
+            }
+            return false;
         } catch (Exception e) {
             return false;
         }
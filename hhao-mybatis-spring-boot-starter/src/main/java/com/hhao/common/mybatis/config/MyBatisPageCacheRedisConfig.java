@@ -0,0 +1,61 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.config;
+
+import com.hhao.common.mybatis.page.executor.PageCache;
+import com.hhao.common.mybatis.page.executor.PageCacheStore;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * 使用Redis存储页面缓存
+ * 需引入spring-boot-starter-data-redis并设置com.hhao.config.mybatis.pageCacheRedis=true
+ * 页面缓存默认不启用,需同时设置pageCacheTtl
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(RedisConnectionFactory.class)
+@ConditionalOnBean(RedisConnectionFactory.class)
+@AutoConfigureAfter({RedisAutoConfiguration.class, MyBatisAutoConfig.class})
+@ConditionalOnProperty(prefix = "com.hhao.config.mybatis", name = "pageCacheRedis", havingValue = "true")
+@EnableConfigurationProperties(MyBatisProperties.class)
+public class MyBatisPageCacheRedisConfig {
+
+    /**
+     * Redis page cache store.
+     *
+     * @param connectionFactory the connection factory
+     * @param myBatisProperties the my batis properties
+     * @return the page cache store
+     */
+    @Bean
+    @ConditionalOnMissingBean(PageCacheStore.class)
+    public PageCacheStore redisPageCacheStore(RedisConnectionFactory connectionFactory, MyBatisProperties myBatisProperties) {
+        PageCacheStore store = new RedisPageCacheStore(connectionFactory, myBatisProperties.getPageCacheTtl());
+        PageCache.setStore(store);
+        return store;
+    }
+}
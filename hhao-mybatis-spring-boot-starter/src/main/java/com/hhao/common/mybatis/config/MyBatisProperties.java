@@ -42,6 +42,36 @@ public class MyBatisProperties {
     private String defaultCountMappedStatementIdSuffix="-count";
     // 支持的数据库方言
     private String [] sqlDialects;
+    // 解析后的分页sql模板缓存大小,小于等于0时不缓存
+    private Integer sqlPageModelCacheSize=256;
+    // 是否与分页查询并行执行count语句
+    private Boolean asyncCount=false;
+    // 并行执行count语句的线程数
+    private Integer asyncCountThreads=8;
+    // 并行执行count语句的等待队列大小
+    private Integer asyncCountQueueSize=256;
+    // 是否缓存count结果
+    private Boolean countCache=false;
+    // count缓存的最大条目数
+    private Integer countCacheSize=1024;
+    // count缓存的有效期(秒)
+    private Long countCacheTtl=60L;
+    // 是否使用数据库执行计划估算总行数
+    private Boolean estimatedCount=false;
+    // 使用估算总行数的阈值
+    private Long estimatedCountThreshold=100000L;
+    // 生成count语句时是否移除未被引用的left join,只适用于多对一的left join
+    private Boolean countRemoveLeftJoin=false;
+    // 是否缓存查询到的页面
+    private Boolean pageCache=false;
+    // 页面缓存的最大页数
+    private Integer pageCacheSize=1024;
+    // 页面缓存的有效期(秒),大于0时才启用页面缓存
+    private Long pageCacheTtl=0L;
+    // 是否使用Redis存储页面缓存,需引入spring-boot-starter-data-redis
+    private Boolean pageCacheRedis=false;
+    // 流式查询时JDBC每次读取的行数
+    private Integer streamFetchSize=1000;
 
 
     /**
@@ -187,4 +217,272 @@ public class MyBatisProperties {
     public void setSqlDialects(String[] sqlDialects) {
         this.sqlDialects = sqlDialects;
     }
+
+    /**
+     * Gets sql page model cache size.
+     *
+     * @return the sql page model cache size
+     */
+    public Integer getSqlPageModelCacheSize() {
+        return sqlPageModelCacheSize;
+    }
+
+    /**
+     * Sets sql page model cache size.
+     *
+     * @param sqlPageModelCacheSize the sql page model cache size
+     */
+    public void setSqlPageModelCacheSize(Integer sqlPageModelCacheSize) {
+        this.sqlPageModelCacheSize = sqlPageModelCacheSize;
+    }
+    /**
+     * Gets async count.
+     *
+     * @return the async count
+     */
+    public Boolean getAsyncCount() {
+        return asyncCount;
+    }
+
+    /**
+     * Sets async count.
+     *
+     * @param asyncCount the async count
+     */
+    public void setAsyncCount(Boolean asyncCount) {
+        this.asyncCount = asyncCount;
+    }
+
+    /**
+     * Gets async count threads.
+     *
+     * @return the async count threads
+     */
+    public Integer getAsyncCountThreads() {
+        return asyncCountThreads;
+    }
+
+    /**
+     * Sets async count threads.
+     *
+     * @param asyncCountThreads the async count threads
+     */
+    public void setAsyncCountThreads(Integer asyncCountThreads) {
+        this.asyncCountThreads = asyncCountThreads;
+    }
+
+    /**
+     * Gets async count queue size.
+     *
+     * @return the async count queue size
+     */
+    public Integer getAsyncCountQueueSize() {
+        return asyncCountQueueSize;
+    }
+
+    /**
+     * Sets async count queue size.
+     *
+     * @param asyncCountQueueSize the async count queue size
+     */
+    public void setAsyncCountQueueSize(Integer asyncCountQueueSize) {
+        this.asyncCountQueueSize = asyncCountQueueSize;
+    }
+    /**
+     * Gets count cache.
+     *
+     * @return the count cache
+     */
+    public Boolean getCountCache() {
+        return countCache;
+    }
+
+    /**
+     * Sets count cache.
+     *
+     * @param countCache the count cache
+     */
+    public void setCountCache(Boolean countCache) {
+        this.countCache = countCache;
+    }
+
+    /**
+     * Gets count cache size.
+     *
+     * @return the count cache size
+     */
+    public Integer getCountCacheSize() {
+        return countCacheSize;
+    }
+
+    /**
+     * Sets count cache size.
+     *
+     * @param countCacheSize the count cache size
+     */
+    public void setCountCacheSize(Integer countCacheSize) {
+        this.countCacheSize = countCacheSize;
+    }
+
+    /**
+     * Gets count cache ttl.
+     *
+     * @return the count cache ttl
+     */
+    public Long getCountCacheTtl() {
+        return countCacheTtl;
+    }
+
+    /**
+     * Sets count cache ttl.
+     *
+     * @param countCacheTtl the count cache ttl
+     */
+    public void setCountCacheTtl(Long countCacheTtl) {
+        this.countCacheTtl = countCacheTtl;
+    }
+
+    /**
+     * Gets estimated count.
+     *
+     * @return the estimated count
+     */
+    public Boolean getEstimatedCount() {
+        return estimatedCount;
+    }
+
+    /**
+     * Sets estimated count.
+     *
+     * @param estimatedCount the estimated count
+     */
+    public void setEstimatedCount(Boolean estimatedCount) {
+        this.estimatedCount = estimatedCount;
+    }
+
+    /**
+     * Gets estimated count threshold.
+     *
+     * @return the estimated count threshold
+     */
+    public Long getEstimatedCountThreshold() {
+        return estimatedCountThreshold;
+    }
+
+    /**
+     * Sets estimated count threshold.
+     *
+     * @param estimatedCountThreshold the estimated count threshold
+     */
+    public void setEstimatedCountThreshold(Long estimatedCountThreshold) {
+        this.estimatedCountThreshold = estimatedCountThreshold;
+    }
+
+    /**
+     * Gets count remove left join.
+     *
+     * @return the count remove left join
+     */
+    public Boolean getCountRemoveLeftJoin() {
+        return countRemoveLeftJoin;
+    }
+
+    /**
+     * Sets count remove left join.
+     *
+     * @param countRemoveLeftJoin the count remove left join
+     */
+    public void setCountRemoveLeftJoin(Boolean countRemoveLeftJoin) {
+        this.countRemoveLeftJoin = countRemoveLeftJoin;
+    }
+
+    /**
+     * Gets page cache.
+     *
+     * @return the page cache
+     */
+    public Boolean getPageCache() {
+        return pageCache;
+    }
+
+    /**
+     * Sets page cache.
+     *
+     * @param pageCache the page cache
+     */
+    public void setPageCache(Boolean pageCache) {
+        this.pageCache = pageCache;
+    }
+
+    /**
+     * Gets page cache size.
+     *
+     * @return the page cache size
+     */
+    public Integer getPageCacheSize() {
+        return pageCacheSize;
+    }
+
+    /**
+     * Sets page cache size.
+     *
+     * @param pageCacheSize the page cache size
+     */
+    public void setPageCacheSize(Integer pageCacheSize) {
+        this.pageCacheSize = pageCacheSize;
+    }
+
+    /**
+     * Gets page cache ttl.
+     *
+     * @return the page cache ttl
+     */
+    public Long getPageCacheTtl() {
+        return pageCacheTtl;
+    }
+
+    /**
+     * Sets page cache ttl.
+     *
+     * @param pageCacheTtl the page cache ttl
+     */
+    public void setPageCacheTtl(Long pageCacheTtl) {
+        this.pageCacheTtl = pageCacheTtl;
+    }
+
+    /**
+     * Gets page cache redis.
+     *
+     * @return the page cache redis
+     */
+    public Boolean getPageCacheRedis() {
+        return pageCacheRedis;
+    }
+
+    /**
+     * Sets page cache redis.
+     *
+     * @param pageCacheRedis the page cache redis
+     */
+    public void setPageCacheRedis(Boolean pageCacheRedis) {
+        this.pageCacheRedis = pageCacheRedis;
+    }
+
+    /**
+     * Gets stream fetch size.
+     *
+     * @return the stream fetch size
+     */
+    public Integer getStreamFetchSize() {
+        return streamFetchSize;
+    }
+
+    /**
+     * Sets stream fetch size.
+     *
+     * @param streamFetchSize the stream fetch size
+     */
+    public void setStreamFetchSize(Integer streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.config;
+
+import com.hhao.common.mybatis.page.executor.PageCacheStore;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Redis的页面缓存存储
+ * 页面及namespace版本号保存在Redis中,多实例部署时任一实例的写语句都会使其它实例的页面缓存失效
+ * 页面数据使用JDK序列化,查询结果的对象需实现Serializable;旧版本的页面不主动删除,到期后由Redis清除
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class RedisPageCacheStore implements PageCacheStore {
+    private static final String KEY_PREFIX = "hhao:mybatis:page:";
+    private static final String VERSION_KEY_PREFIX = "hhao:mybatis:page-version:";
+    private static final String GLOBAL_VERSION_KEY = "hhao:mybatis:page-version";
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate versionTemplate;
+    private final long ttlSeconds;
+
+    /**
+     * Instantiates a new Redis page cache store.
+     *
+     * @param connectionFactory the connection factory
+     * @param ttlSeconds        有效期(秒)
+     */
+    public RedisPageCacheStore(RedisConnectionFactory connectionFactory, long ttlSeconds) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.java());
+        template.afterPropertiesSet();
+        this.redisTemplate = template;
+        this.versionTemplate = new StringRedisTemplate(connectionFactory);
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    @Override
+    public Object get(String key) {
+        return redisTemplate.opsForValue().get(KEY_PREFIX + key);
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        redisTemplate.opsForValue().set(KEY_PREFIX + key, value, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 版本号为namespace版本号与全局版本号之和,任一版本号递增都会使版本号改变
+     *
+     * @param namespace the namespace
+     * @return the version
+     */
+    @Override
+    public long getVersion(String namespace) {
+        List<String> versions = versionTemplate.opsForValue().multiGet(Arrays.asList(VERSION_KEY_PREFIX + namespace, GLOBAL_VERSION_KEY));
+        long version = 0L;
+        if (versions != null) {
+            for (String v : versions) {
+                if (v != null) {
+                    version += Long.parseLong(v);
+                }
+            }
+        }
+        return version;
+    }
+
+    @Override
+    public void incrementVersion(String namespace) {
+        versionTemplate.opsForValue().increment(VERSION_KEY_PREFIX + namespace);
+    }
+
+    /**
+     * 递增全局版本号,使所有页面缓存失效
+     */
+    @Override
+    public void clear() {
+        versionTemplate.opsForValue().increment(GLOBAL_VERSION_KEY);
+    }
+}
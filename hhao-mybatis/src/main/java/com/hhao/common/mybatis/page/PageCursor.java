@@ -0,0 +1,197 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page;
+
+import com.hhao.common.mybatis.page.exception.MyBatisException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * 游标分页的游标编解码
+ * 将最后一行排序列的值按类型标记写入字节,再以URL安全的Base64输出,对调用方不透明
+ * 只支持常用的排序列类型,不使用Java序列化,解码时不会实例化任意类
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class PageCursor {
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_INTEGER = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_BIG_DECIMAL = 5;
+    private static final byte TYPE_BIG_INTEGER = 6;
+    private static final byte TYPE_DOUBLE = 7;
+    private static final byte TYPE_BOOLEAN = 8;
+    private static final byte TYPE_LOCAL_DATE_TIME = 9;
+    private static final byte TYPE_LOCAL_DATE = 10;
+    private static final byte TYPE_TIMESTAMP = 11;
+
+    /**
+     * 游标最多包含的值个数
+     */
+    private static final int MAX_VALUES = 16;
+
+    private PageCursor() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param values 排序列的值
+     * @return the string
+     */
+    public static String encode(Object[] values) {
+        if (values.length > MAX_VALUES) {
+            throw new MyBatisException("Too many seek columns:" + values.length);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(values.length);
+            for (Object value : values) {
+                writeValue(out, value);
+            }
+        } catch (IOException e) {
+            throw new MyBatisException("Encode page cursor wrong:" + e.getMessage());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor the cursor
+     * @return 排序列的值
+     */
+    public static Object[] decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION) {
+                throw new MyBatisException("Unsupported page cursor version");
+            }
+            int length = in.readUnsignedByte();
+            if (length > MAX_VALUES) {
+                throw new MyBatisException("Too many seek columns in page cursor:" + length);
+            }
+            Object[] values = new Object[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = readValue(in);
+            }
+            if (in.available() > 0) {
+                throw new MyBatisException("Invalid page cursor");
+            }
+            return values;
+        } catch (IOException | IllegalArgumentException | DateTimeException e) {
+            throw new MyBatisException("Invalid page cursor");
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TYPE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(TYPE_BIG_DECIMAL);
+            out.writeUTF(value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(TYPE_BIG_INTEGER);
+            out.writeUTF(value.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof LocalDateTime) {
+            out.writeByte(TYPE_LOCAL_DATE_TIME);
+            out.writeUTF(value.toString());
+        } else if (value instanceof LocalDate) {
+            out.writeByte(TYPE_LOCAL_DATE);
+            out.writeUTF(value.toString());
+        } else if (value instanceof Date) {
+            //java.sql.Timestamp保留纳秒
+            out.writeByte(TYPE_TIMESTAMP);
+            out.writeLong(((Date) value).getTime());
+            out.writeInt(value instanceof Timestamp ? ((Timestamp) value).getNanos() : -1);
+        } else {
+            throw new MyBatisException("Unsupported seek column type:" + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return in.readUTF();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_SHORT:
+                return in.readShort();
+            case TYPE_BIG_DECIMAL:
+                return new BigDecimal(in.readUTF());
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(in.readUTF());
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_LOCAL_DATE_TIME:
+                return LocalDateTime.parse(in.readUTF());
+            case TYPE_LOCAL_DATE:
+                return LocalDate.parse(in.readUTF());
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                int nanos = in.readInt();
+                if (nanos >= 0) {
+                    timestamp.setNanos(nanos);
+                }
+                return timestamp;
+            default:
+                throw new MyBatisException("Invalid page cursor");
+        }
+    }
+}
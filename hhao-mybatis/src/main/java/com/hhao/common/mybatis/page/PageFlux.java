@@ -0,0 +1,71 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page;
+
+import org.apache.ibatis.cursor.Cursor;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * 以Flux发布逐页查询的结果,用于WebFlux下的大数据量导出
+ * 查询是阻塞的JDBC调用,在boundedElastic线程池中执行;按下游的请求逐页查询,内存中只持有一页数据
+ * 需引入reactor-core
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class PageFlux {
+
+    private PageFlux() {
+    }
+
+    /**
+     * 逐页查询,见PageStreams#iterator
+     *
+     * @param <T>       the type parameter
+     * @param pageInfo  the page info
+     * @param pageQuery 查询一页数据的Mapper方法
+     * @return the flux
+     */
+    public static <T> Flux<T> flux(PageInfo pageInfo, Function<PageInfo, List<T>> pageQuery) {
+        return Flux.fromIterable(() -> PageStreams.iterator(pageInfo, pageQuery))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 读取Cursor,完成、出错或取消时关闭Cursor
+     * cursorSupplier需打开Cursor所在的SqlSession,并在Cursor关闭前保持打开
+     *
+     * @param <T>            the type parameter
+     * @param cursorSupplier the cursor supplier
+     * @return the flux
+     */
+    public static <T> Flux<T> flux(Callable<Cursor<T>> cursorSupplier) {
+        return Flux.using(cursorSupplier, Flux::fromIterable, cursor -> {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -52,8 +52,20 @@ public class PageInfo<T> implements Page {
     private long postCachedPage = PageMetaData.POST_CACHED_PAGE;
     // 总行数
     private long totalRow=-1L;
+    // 总行数的来源
+    private TotalRowType totalRowType=TotalRowType.EXACT;
+    // 是否缓存count结果
+    private boolean countCache=PageMetaData.COUNT_CACHE;
+    // 是否使用估算的总行数
+    private boolean estimatedCount=PageMetaData.ESTIMATED_COUNT;
+    // 是否缓存查询到的页面
+    private boolean pageCache=PageMetaData.PAGE_CACHE;
     // 是否包含总行数
     private boolean includeTotalRows=true;
+    // 是否与分页查询并行执行count语句
+    private boolean asyncCount=PageMetaData.ASYNC_COUNT;
+    // 流式查询时JDBC每次读取的行数
+    private int fetchSize=PageMetaData.STREAM_FETCH_SIZE;
     // 排序方向
     private OrderDirection orderDirection=OrderDirection.ASC;
     // 排序列
@@ -64,6 +76,14 @@ public class PageInfo<T> implements Page {
     private String limitParamName=PageMetaData.LIMIT_PARAM_NAME;
     // select语句中的offset参数的名称
     private String offsetParamName=PageMetaData.OFFSET_PARAM_NAME;
+    // 游标分页的请求游标,即上一页最后一行排序列的值
+    private String cursor;
+    // 游标分页返回的下一页游标,没有下一页时为null
+    private String nextCursor;
+    // 游标分页的排序列,用于生成seek条件
+    private String [] seekColumns;
+    // 游标分页从结果对象中读取排序列值的属性名
+    private String [] seekProperties;
 
     @Override
     public String[] getOrderColumns() {
@@ -125,6 +145,113 @@ public class PageInfo<T> implements Page {
         this.includeTotalRows = includeTotalRows;
     }
 
+    /**
+     * Is async count boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isAsyncCount() {
+        return asyncCount;
+    }
+
+    /**
+     * Sets async count.
+     *
+     * @param asyncCount the async count
+     */
+    public void setAsyncCount(boolean asyncCount) {
+        this.asyncCount = asyncCount;
+    }
+
+    /**
+     * Gets fetch size.
+     *
+     * @return the fetch size
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets fetch size.
+     *
+     * @param fetchSize the fetch size
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Gets total row type.
+     *
+     * @return the total row type
+     */
+    public TotalRowType getTotalRowType() {
+        return totalRowType;
+    }
+
+    /**
+     * Sets total row type.
+     *
+     * @param totalRowType the total row type
+     */
+    public void setTotalRowType(TotalRowType totalRowType) {
+        this.totalRowType = totalRowType;
+    }
+
+    /**
+     * Is count cache boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isCountCache() {
+        return countCache;
+    }
+
+    /**
+     * Sets count cache.
+     *
+     * @param countCache the count cache
+     */
+    public void setCountCache(boolean countCache) {
+        this.countCache = countCache;
+    }
+
+    /**
+     * Is page cache boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isPageCache() {
+        return pageCache;
+    }
+
+    /**
+     * Sets page cache.
+     *
+     * @param pageCache the page cache
+     */
+    public void setPageCache(boolean pageCache) {
+        this.pageCache = pageCache;
+    }
+
+    /**
+     * Is estimated count boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isEstimatedCount() {
+        return estimatedCount;
+    }
+
+    /**
+     * Sets estimated count.
+     *
+     * @param estimatedCount the estimated count
+     */
+    public void setEstimatedCount(boolean estimatedCount) {
+        this.estimatedCount = estimatedCount;
+    }
 
     /**
      * Instantiates a new Page info.
@@ -209,6 +336,78 @@ public class PageInfo<T> implements Page {
         this.offsetParamName = offsetParamName;
     }
 
+    /**
+     * Gets cursor.
+     *
+     * @return the cursor
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Sets cursor.
+     *
+     * @param cursor the cursor
+     */
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Gets next cursor.
+     *
+     * @return the next cursor
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets next cursor.
+     *
+     * @param nextCursor the next cursor
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Get seek columns string [ ].
+     *
+     * @return the string [ ]
+     */
+    public String[] getSeekColumns() {
+        return seekColumns;
+    }
+
+    /**
+     * Sets seek columns.
+     *
+     * @param seekColumns the seek columns
+     */
+    public void setSeekColumns(String[] seekColumns) {
+        this.seekColumns = seekColumns;
+    }
+
+    /**
+     * Get seek properties string [ ].
+     *
+     * @return the string [ ]
+     */
+    public String[] getSeekProperties() {
+        return seekProperties;
+    }
+
+    /**
+     * Sets seek properties.
+     *
+     * @param seekProperties the seek properties
+     */
+    public void setSeekProperties(String[] seekProperties) {
+        this.seekProperties = seekProperties;
+    }
+
     /**
      * Sets page num.
      *
@@ -311,6 +510,13 @@ public class PageInfo<T> implements Page {
         if (beginPage <= 0) {
             beginPage = 1;
         }
+        //只有一页时直接使用结果集,不再复制
+        if (beginPage == endPage && data.size() <= getPageSize()) {
+            if (!data.isEmpty()) {
+                this.data.put(Integer.valueOf((int) beginPage), data);
+            }
+            return;
+        }
 
         int pageCount = 0;
         boolean isFinish = false;
@@ -337,7 +543,10 @@ public class PageInfo<T> implements Page {
      * @return the page result
      */
     public PageResponse<T> of(){
-        return PageResponse.ok(data,pageNum,pageSize,preCachedPage,postCachedPage,totalRow,includeTotalRows,orderDirection,orderColumns);
+        PageResponse<T> pageResponse=PageResponse.ok(data,pageNum,pageSize,preCachedPage,postCachedPage,totalRow,includeTotalRows,orderDirection,orderColumns);
+        pageResponse.setCursor(nextCursor);
+        pageResponse.setTotalRowType(totalRowType);
+        return pageResponse;
     }
 
     /**
@@ -346,7 +555,9 @@ public class PageInfo<T> implements Page {
      * @return the page response
      */
     public PageResponse<T> empty(){
-        return PageResponse.ok(new HashMap<>(),pageNum,pageSize,preCachedPage,postCachedPage,totalRow,includeTotalRows,orderDirection,orderColumns);
+        PageResponse<T> pageResponse=PageResponse.ok(new HashMap<>(),pageNum,pageSize,preCachedPage,postCachedPage,totalRow,includeTotalRows,orderDirection,orderColumns);
+        pageResponse.setTotalRowType(totalRowType);
+        return pageResponse;
     }
 
     /**
@@ -568,6 +779,63 @@ public class PageInfo<T> implements Page {
             return this;
         }
 
+        /**
+         * 设置是否与分页查询并行执行count语句,只作用于SingleQueryDynamicPageExecutor
+         *
+         * @param asyncCount the async count
+         * @return the async count
+         */
+        public Builder setAsyncCount(boolean asyncCount) {
+            pageInfo.setAsyncCount(asyncCount);
+            return this;
+        }
+
+        /**
+         * 设置流式查询时JDBC每次读取的行数,作用于StreamPageExecutor及返回Cursor的查询
+         * MySQL需在连接串中开启useCursorFetch=true,或设置为Integer.MIN_VALUE逐行读取
+         *
+         * @param fetchSize the fetch size
+         * @return the fetch size
+         */
+        public Builder setFetchSize(int fetchSize) {
+            pageInfo.setFetchSize(fetchSize);
+            return this;
+        }
+
+        /**
+         * 设置是否缓存count结果,只作用于单独执行count语句的SingleQuery执行器
+         *
+         * @param countCache the count cache
+         * @return the count cache
+         */
+        public Builder setCountCache(boolean countCache) {
+            pageInfo.setCountCache(countCache);
+            return this;
+        }
+
+        /**
+         * 设置是否在服务端缓存查询到的页面(含preCachedPage、postCachedPage预取的页面)
+         * 后续请求的页面已缓存时不再查询数据库,同一namespace执行写语句后缓存失效
+         *
+         * @param pageCache the page cache
+         * @return the page cache
+         */
+        public Builder setPageCache(boolean pageCache) {
+            pageInfo.setPageCache(pageCache);
+            return this;
+        }
+
+        /**
+         * 设置是否使用数据库执行计划估算总行数,只作用于单独执行count语句的SingleQuery执行器
+         *
+         * @param estimatedCount the estimated count
+         * @return the estimated count
+         */
+        public Builder setEstimatedCount(boolean estimatedCount) {
+            pageInfo.setEstimatedCount(estimatedCount);
+            return this;
+        }
+
         /**
          * Sets page executor.
          *
@@ -635,6 +903,29 @@ public class PageInfo<T> implements Page {
             return this;
         }
 
+        /**
+         * Sets cursor.
+         *
+         * @param cursor the cursor
+         * @return the cursor
+         */
+        public Builder setCursor(String cursor) {
+            pageInfo.setCursor(cursor);
+            return this;
+        }
+
+        /**
+         * 设置游标分页从结果对象中读取排序列值的属性名,与orderColumns一一对应
+         * 默认按结果映射中列对应的属性,没有映射时按列名查找属性(开启mapUnderscoreToCamelCase时按驼峰命名),结果为Map时为列名
+         *
+         * @param seekProperties the seek properties
+         * @return the seek properties
+         */
+        public Builder setSeekProperties(String [] seekProperties) {
+            pageInfo.setSeekProperties(seekProperties);
+            return this;
+        }
+
         /**
          * With multi queries dynamic page executor builder.
          *
@@ -676,6 +967,26 @@ public class PageInfo<T> implements Page {
             return this;
         }
 
+        /**
+         * With seek page executor builder.
+         *
+         * @return the builder
+         */
+        public Builder withSeekPageExecutor(){
+            pageInfo.setPageExecutor(new SeekPageExecutor());
+            return this;
+        }
+
+        /**
+         * With stream page executor builder.
+         *
+         * @return the builder
+         */
+        public Builder withStreamPageExecutor(){
+            pageInfo.setPageExecutor(new StreamPageExecutor());
+            return this;
+        }
+
         /**
          * With page query builder.
          *
@@ -690,6 +1001,7 @@ public class PageInfo<T> implements Page {
             this.setOrderDirection(pageQuery.getOrderDirection());
             this.setPreCachedPage(pageQuery.getPreCachedPage());
             this.setPostCachedPage(pageQuery.getPostCachedPage());
+            this.setCursor(pageQuery.getCursor());
             return this;
         }
 
@@ -713,6 +1025,8 @@ public class PageInfo<T> implements Page {
             //动态order sql处理
             if (pageInfo.getOrderColumns()!=null && this.orderTables!=null && !pageInfo.getOrderDirection().equals(OrderDirection.NO)){
                 StringBuffer orderSql=new StringBuffer();
+                String [] seekColumns=new String[pageInfo.getOrderColumns().length];
+                int index=0;
                 boolean isSet=false;
                 for(String orderColumn: pageInfo.getOrderColumns()){
                     isSet=false;
@@ -735,9 +1049,12 @@ public class PageInfo<T> implements Page {
                                 }
                                 if (table.getTableAlias()!=null && !table.getTableAlias().isBlank()){
                                     orderSql.append(table.getTableAlias() + "." +  sqlColumn.orderByName());
+                                    seekColumns[index]=table.getTableAlias() + "." + sqlColumn.name();
                                 }else {
                                     orderSql.append(sqlColumn.orderByName());
+                                    seekColumns[index]=sqlColumn.name();
                                 }
+                                index++;
                                 isSet=true;
                                 break;
                             }
@@ -754,6 +1071,8 @@ public class PageInfo<T> implements Page {
                 if (orderSql.length()>0){
                     pageInfo.setOrderBySql(" order by " + orderSql.toString() + " " + pageInfo.getOrderDirection().name() + " ");
                 }
+                //游标分页的seek列
+                pageInfo.setSeekColumns(seekColumns);
             }
 
             return (M)pageInfo;
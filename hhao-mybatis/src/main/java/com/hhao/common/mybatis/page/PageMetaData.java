@@ -68,4 +68,66 @@ public class PageMetaData {
      * 默认的count查询的mappedStatementId后缀
      */
     public static String DEFAULT_COUNT_MAPPED_STATEMENT_ID_SUFFIX="_count";
+
+    /**
+     * 解析后的SqlPageModel模板缓存大小,小于等于0时不缓存
+     */
+    public static Integer SQL_PAGE_MODEL_CACHE_SIZE=256;
+
+    /**
+     * 默认情况下SingleQueryDynamicPageExecutor是否与分页查询并行执行count语句
+     * count语句使用独立的连接执行,不在当前事务中
+     */
+    public static Boolean ASYNC_COUNT=false;
+    /**
+     * 并行执行count语句的线程数
+     */
+    public static Integer ASYNC_COUNT_THREADS=8;
+    /**
+     * 并行执行count语句的等待队列大小,队列已满时由调用线程执行count语句
+     */
+    public static Integer ASYNC_COUNT_QUEUE_SIZE=256;
+
+    /**
+     * 默认情况下是否缓存count结果
+     */
+    public static Boolean COUNT_CACHE=false;
+    /**
+     * count缓存的最大条目数
+     */
+    public static Integer COUNT_CACHE_SIZE=1024;
+    /**
+     * count缓存的有效期(秒)
+     */
+    public static Long COUNT_CACHE_TTL=60L;
+    /**
+     * 默认情况下是否使用数据库执行计划估算总行数
+     * 估算行数大于等于ESTIMATED_COUNT_THRESHOLD时使用估算值,否则执行count语句
+     */
+    public static Boolean ESTIMATED_COUNT=false;
+    /**
+     * 使用估算总行数的阈值
+     */
+    public static Long ESTIMATED_COUNT_THRESHOLD=100000L;
+    /**
+     * 生成count语句时是否移除最外层查询中未被引用的left join
+     * 只有left join按唯一键关联(多对一)时才不影响总行数
+     */
+    public static Boolean COUNT_REMOVE_LEFT_JOIN=false;
+    /**
+     * 默认情况下是否缓存查询到的页面
+     */
+    public static Boolean PAGE_CACHE=false;
+    /**
+     * 页面缓存的最大页数
+     */
+    public static Integer PAGE_CACHE_SIZE=1024;
+    /**
+     * 页面缓存的有效期(秒),默认为0,不启用页面缓存
+     */
+    public static Long PAGE_CACHE_TTL=0L;
+    /**
+     * 流式查询时JDBC每次读取的行数
+     */
+    public static Integer STREAM_FETCH_SIZE=1000;
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page;
+
+import com.hhao.common.mybatis.page.executor.SeekPageExecutor;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 逐页迭代分页查询的结果,用于大数据量导出
+ * 每次只查询并持有一页数据,内存占用与导出的总行数无关:
+ * 1、按页迭代:pageQuery为带PageInfo参数的Mapper方法,从PageInfo的当前页开始逐页查询,直到某页不满
+ * 使用SeekPageExecutor时按游标翻页,否则按offset翻页,深分页时建议使用SeekPageExecutor
+ * 2、Cursor:将MyBatis的Cursor转换为Stream,关闭Stream时关闭Cursor
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class PageStreams {
+
+    private PageStreams() {
+    }
+
+    /**
+     * 返回逐页查询的迭代器
+     * 迭代时关闭总行数统计、前后页缓存及页面缓存
+     *
+     * @param <T>       the type parameter
+     * @param pageInfo  the page info
+     * @param pageQuery 查询一页数据的Mapper方法
+     * @return the iterator
+     */
+    public static <T> Iterator<T> iterator(PageInfo pageInfo, Function<PageInfo, List<T>> pageQuery) {
+        return new PageIterator<>(pageInfo, pageQuery);
+    }
+
+    /**
+     * 返回逐页查询的Stream
+     *
+     * @param <T>       the type parameter
+     * @param pageInfo  the page info
+     * @param pageQuery 查询一页数据的Mapper方法
+     * @return the stream
+     */
+    public static <T> Stream<T> stream(PageInfo pageInfo, Function<PageInfo, List<T>> pageQuery) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(pageInfo, pageQuery), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * 将Cursor转换为Stream,关闭Stream时关闭Cursor
+     * Cursor需在SqlSession(事务)内读取
+     *
+     * @param <T>    the type parameter
+     * @param cursor the cursor
+     * @return the stream
+     */
+    public static <T> Stream<T> stream(Cursor<T> cursor) {
+        return StreamSupport.stream(cursor.spliterator(), false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 逐页查询的迭代器
+     */
+    private static final class PageIterator<T> implements Iterator<T> {
+        private final PageInfo pageInfo;
+        private final Function<PageInfo, List<T>> pageQuery;
+        private final boolean seek;
+        private Iterator<T> page = Collections.emptyIterator();
+        private boolean last;
+
+        private PageIterator(PageInfo pageInfo, Function<PageInfo, List<T>> pageQuery) {
+            this.pageInfo = pageInfo;
+            this.pageQuery = pageQuery;
+            this.seek = pageInfo.getPageExecutor() instanceof SeekPageExecutor;
+            pageInfo.setIncludeTotalRows(false);
+            pageInfo.setPreCachedPage(0);
+            pageInfo.setPostCachedPage(0);
+            pageInfo.setPageCache(false);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !last) {
+                fetch();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        /**
+         * 查询下一页,并将PageInfo移到再下一页
+         */
+        private void fetch() {
+            List<T> rows = pageQuery.apply(pageInfo);
+            if (rows == null) {
+                rows = Collections.emptyList();
+            }
+            if (seek) {
+                last = pageInfo.getNextCursor() == null;
+                pageInfo.setCursor(pageInfo.getNextCursor());
+            } else {
+                last = rows.size() < pageInfo.getPageSize();
+                pageInfo.setPageNum(pageInfo.getPageNum() + 1);
+            }
+            page = rows.iterator();
+        }
+    }
+}
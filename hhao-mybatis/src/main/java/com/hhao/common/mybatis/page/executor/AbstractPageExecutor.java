@@ -23,17 +23,23 @@ import com.hhao.common.mybatis.page.PageMetaData;
 import com.hhao.common.mybatis.page.exception.MyBatisException;
 import com.hhao.common.mybatis.page.executor.sql.SqlExecutor;
 import com.hhao.common.mybatis.page.executor.sql.SqlExecutorFactory;
+import com.hhao.common.mybatis.page.executor.sql.dialect.Dialect;
+import com.hhao.common.mybatis.page.executor.sql.dialect.DialectFactory;
+import com.hhao.common.page.Page;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.plugin.Invocation;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import javax.sql.DataSource;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,6 +55,25 @@ public abstract class AbstractPageExecutor implements PageExecutor {
      * The Logger.
      */
     private static final Logger log = LoggerFactory.getLogger(AbstractPageExecutor.class);
+    /**
+     * 当前线程正在执行的派生MappedStatement的BoundSql,见proceed
+     */
+    private static final ThreadLocal<BoundSql> DERIVED_BOUND_SQL = new ThreadLocal<>();
+    /**
+     * 派生MappedStatement的SqlSource
+     * 通过proceed执行时返回当前调用的BoundSql,其它情况下BoundSql需显式传入Executor#query
+     */
+    protected static final SqlSource DERIVED_SQL_SOURCE = parameterObject -> {
+        BoundSql boundSql = DERIVED_BOUND_SQL.get();
+        if (boundSql == null) {
+            throw new MyBatisException("The BoundSql of a derived MappedStatement must be passed to Executor#query");
+        }
+        return boundSql;
+    };
+    /**
+     * count结果集映射,所有count语句共用
+     */
+    private static final ResultMap COUNT_RESULT_MAP = new ResultMap.Builder(null, "_count_resultMap", Long.class, new ArrayList<>()).build();
 
     @Override
     public SqlExecutor getSqlExecutor(PageInfo pageInfo,String dbName){
@@ -75,6 +100,35 @@ public abstract class AbstractPageExecutor implements PageExecutor {
         invocation.getArgs()[0] = mappedStatement;
     }
 
+    /**
+     * 用派生的MappedStatement继续执行拦截链,后续插件仍可拦截该查询
+     * 执行期间派生语句的SqlSource返回boundSql,执行后恢复原来的MappedStatement
+     *
+     * @param invocation      the invocation
+     * @param mappedStatement SqlSource为DERIVED_SQL_SOURCE的派生语句
+     * @param boundSql        本次调用的BoundSql
+     * @return the object
+     * @throws Throwable the throwable
+     */
+    protected Object proceed(Invocation invocation, MappedStatement mappedStatement, BoundSql boundSql) throws Throwable {
+        Object[] args = invocation.getArgs();
+        Object original = args[0];
+        //嵌套查询时恢复外层的BoundSql
+        BoundSql outer = DERIVED_BOUND_SQL.get();
+        args[0] = mappedStatement;
+        DERIVED_BOUND_SQL.set(boundSql);
+        try {
+            return invocation.proceed();
+        } finally {
+            if (outer == null) {
+                DERIVED_BOUND_SQL.remove();
+            } else {
+                DERIVED_BOUND_SQL.set(outer);
+            }
+            args[0] = original;
+        }
+    }
+
     /**
      * 返回输入参数
      *
@@ -176,9 +230,131 @@ public abstract class AbstractPageExecutor implements PageExecutor {
             }
         }
         pageInfo.setTotalRow(total);
+        pageInfo.setTotalRowType(Page.TotalRowType.EXACT);
+        return total;
+    }
+
+    /**
+     * 返回在当前连接上执行count语句的CountQuery
+     *
+     * @param executor      the executor
+     * @param parameter     the parameter
+     * @param rowBounds     the row bounds
+     * @param resultHandler the result handler
+     * @return the count query
+     */
+    protected CountQuery countQuery(Executor executor, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) {
+        return (ms, boundSql) -> executor.query(ms, parameter, rowBounds, resultHandler, executor.createCacheKey(ms, parameter, rowBounds, boundSql), boundSql);
+    }
+
+    /**
+     * 返回count缓存的key,未启用count缓存时返回null
+     *
+     * @param pageInfo             the page info
+     * @param countMappedStatement the count mapped statement
+     * @param countBoundSql        the count bound sql
+     * @return the count key
+     */
+    protected CountCache.CountKey countCacheKey(PageInfo pageInfo, MappedStatement countMappedStatement, BoundSql countBoundSql) {
+        if (!pageInfo.isCountCache() || !CountCache.isEnabled()) {
+            return null;
+        }
+        return CountCache.createKey(countMappedStatement, countBoundSql);
+    }
+
+    /**
+     * 从count缓存中设置总行数
+     *
+     * @param pageInfo the page info
+     * @param countKey the count key
+     * @return 是否命中缓存
+     */
+    protected boolean setCachedCount(PageInfo pageInfo, CountCache.CountKey countKey) {
+        if (countKey == null) {
+            return false;
+        }
+        Long total = CountCache.get(countKey);
+        if (total == null) {
+            return false;
+        }
+        pageInfo.setTotalRow(total);
+        pageInfo.setTotalRowType(Page.TotalRowType.CACHED);
+        return true;
+    }
+
+    /**
+     * 查询总行数
+     * 开启估算时先估算,估算行数达到阈值时使用估算值,否则执行count语句并放入count缓存
+     *
+     * @param pageInfo             the page info
+     * @param countKey             count缓存的key,为null时不缓存
+     * @param countMappedStatement the count mapped statement
+     * @param countBoundSql        the count bound sql
+     * @param countQuery           the count query
+     * @return the long
+     * @throws SQLException the sql exception
+     */
+    protected long queryCount(PageInfo pageInfo, CountCache.CountKey countKey, MappedStatement countMappedStatement,
+                              BoundSql countBoundSql, CountQuery countQuery) throws SQLException {
+        if (pageInfo.isEstimatedCount()) {
+            long estimated = estimateCount(pageInfo, countMappedStatement, countBoundSql, countQuery);
+            if (estimated >= PageMetaData.ESTIMATED_COUNT_THRESHOLD) {
+                pageInfo.setTotalRow(estimated);
+                pageInfo.setTotalRowType(Page.TotalRowType.ESTIMATED);
+                return estimated;
+            }
+        }
+        long total = setCountResult(pageInfo, countQuery.query(countMappedStatement, countBoundSql));
+        if (countKey != null) {
+            CountCache.put(countKey, total);
+        }
         return total;
     }
 
+    /**
+     * 通过Dialect执行估算语句,不支持估算时返回-1
+     *
+     * @param pageInfo             the page info
+     * @param countMappedStatement the count mapped statement
+     * @param countBoundSql        the count bound sql
+     * @param countQuery           the count query
+     * @return the long
+     * @throws SQLException the sql exception
+     */
+    protected long estimateCount(PageInfo pageInfo, MappedStatement countMappedStatement, BoundSql countBoundSql, CountQuery countQuery) throws SQLException {
+        Dialect dialect = DialectFactory.getDialect(pageInfo, getDatabaseId(countMappedStatement));
+        String sql = dialect.buildEstimatedCountSql(pageInfo, countBoundSql.getSql());
+        if (sql == null) {
+            return -1L;
+        }
+        Configuration configuration = countMappedStatement.getConfiguration();
+        BoundSql estimatedBoundSql = new BoundSql(configuration, sql, countBoundSql.getParameterMappings(), countBoundSql.getParameterObject());
+        copyAdditionalParameters(countBoundSql, estimatedBoundSql);
+        MappedStatement estimatedMappedStatement = DerivedMappedStatements.get(countMappedStatement, DerivedMappedStatements.ESTIMATE);
+        if (estimatedMappedStatement == null) {
+            List<ResultMap> resultMaps = new ArrayList<>();
+            resultMaps.add(new ResultMap.Builder(configuration, "_estimated_count_resultMap", HashMap.class, new ArrayList<>()).build());
+            estimatedMappedStatement = DerivedMappedStatements.put(countMappedStatement, DerivedMappedStatements.ESTIMATE,
+                    buildMappedStatement(countMappedStatement, DERIVED_SQL_SOURCE, resultMaps));
+        }
+        return dialect.getEstimatedCount(pageInfo, countQuery.query(estimatedMappedStatement, estimatedBoundSql));
+    }
+
+    /**
+     * 复制原语句的附加参数,如foreach生成的参数
+     *
+     * @param source the source
+     * @param target the target
+     */
+    protected void copyAdditionalParameters(BoundSql source, BoundSql target) {
+        for (ParameterMapping parameterMapping : source.getParameterMappings()) {
+            String name = new PropertyTokenizer(parameterMapping.getProperty()).getName();
+            if (source.hasAdditionalParameter(name)) {
+                target.setAdditionalParameter(name, source.getAdditionalParameter(name));
+            }
+        }
+    }
+
 
     private String arrayToString(String [] arrays){
         String result="";
@@ -203,8 +379,20 @@ public abstract class AbstractPageExecutor implements PageExecutor {
      * @return the mapped statement
      */
     protected MappedStatement buildMappedStatement(MappedStatement ms, SqlSource sqlSource,List<ResultMap> resultMaps){
+        return mappedStatementBuilder(ms, sqlSource, resultMaps).build();
+    }
+
+    /**
+     * 返回复制了原MappedStatement属性的Builder,用于修改个别属性后构建新的MappedStatement
+     *
+     * @param ms         the ms
+     * @param sqlSource  the sql source
+     * @param resultMaps the result maps
+     * @return the mapped statement builder
+     */
+    protected MappedStatement.Builder mappedStatementBuilder(MappedStatement ms, SqlSource sqlSource,List<ResultMap> resultMaps){
         //构建新的MappedStatement
-        MappedStatement.Builder statementBuilder = new MappedStatement.Builder(ms.getConfiguration(), ms.getId(), sqlSource, ms.getSqlCommandType())
+        return new MappedStatement.Builder(ms.getConfiguration(), ms.getId(), sqlSource, ms.getSqlCommandType())
                 .resource(ms.getResource())
                 .fetchSize(ms.getFetchSize())
                 .timeout(ms.getTimeout())
@@ -222,8 +410,6 @@ public abstract class AbstractPageExecutor implements PageExecutor {
                 .useCache(ms.isUseCache())
                 .cache(ms.getCache())
                 .parameterMap(ms.getParameterMap());
-
-        return statementBuilder.build();
     }
 
 
@@ -265,12 +451,59 @@ public abstract class AbstractPageExecutor implements PageExecutor {
      * @return the list
      */
     protected List<ResultMap> addCountResultMap(List<ResultMap> resultMaps) {
-        String id="_count_resultMap";
-        ResultMap resultMap = new ResultMap.Builder(null, id, Long.class, new ArrayList()).build();
-        resultMaps.add(resultMap);
+        resultMaps.add(COUNT_RESULT_MAP);
         return resultMaps;
     }
 
+    /**
+     * 返回缓存的分页MappedStatement
+     * SqlSource为DERIVED_SQL_SOURCE,通过proceed传入分页语句的BoundSql执行
+     *
+     * @param ms       the ms
+     * @param pageInfo the page info
+     * @return the mapped statement
+     */
+    protected MappedStatement pageMappedStatement(MappedStatement ms, PageInfo pageInfo) {
+        MappedStatement pageMs = DerivedMappedStatements.get(ms, DerivedMappedStatements.PAGE);
+        if (pageMs == null) {
+            pageMs = DerivedMappedStatements.put(ms, DerivedMappedStatements.PAGE,
+                    buildMappedStatement(ms, DERIVED_SQL_SOURCE, ms.getResultMaps()));
+        }
+        return pageMs;
+    }
+
+    /**
+     * 返回缓存的count MappedStatement
+     * SqlSource为DERIVED_SQL_SOURCE,执行时需显式传入count语句的BoundSql
+     *
+     * @param ms the ms
+     * @return the mapped statement
+     */
+    protected MappedStatement countMappedStatement(MappedStatement ms) {
+        MappedStatement countMs = DerivedMappedStatements.get(ms, DerivedMappedStatements.COUNT);
+        if (countMs == null) {
+            countMs = DerivedMappedStatements.put(ms, DerivedMappedStatements.COUNT,
+                    buildMappedStatement(ms, DERIVED_SQL_SOURCE, addCountResultMap(new ArrayList<>())));
+        }
+        return countMs;
+    }
+
+    /**
+     * 执行count语句
+     */
+    @FunctionalInterface
+    public interface CountQuery {
+        /**
+         * 执行查询
+         *
+         * @param mappedStatement the mapped statement
+         * @param boundSql        the bound sql
+         * @return the list
+         * @throws SQLException the sql exception
+         */
+        List<Object> query(MappedStatement mappedStatement, BoundSql boundSql) throws SQLException;
+    }
+
     /**
      * 根据数据源返回数据库标记
      *
@@ -318,7 +551,7 @@ public abstract class AbstractPageExecutor implements PageExecutor {
                 boolean containLimitParam=false;
                 boolean containOffsetParam=false;
                 for(ParameterMapping p:parameterMappings){
-                    log.info("params:"+p.toString());
+                    log.debug("params:{}", p);
                     if(p.getProperty().equalsIgnoreCase(pageInfo.getLimitParamName())){
                         containLimitParam=true;
                     }else if(p.getProperty().equalsIgnoreCase(pageInfo.getOffsetParamName())){
@@ -326,7 +559,7 @@ public abstract class AbstractPageExecutor implements PageExecutor {
                     }
                 }
                 if (!containLimitParam || !containOffsetParam){
-                    log.info("can't find limit or offset param name");
+                    log.debug("can't find limit or offset param name");
                     return false;
 
                 }
@@ -335,9 +568,8 @@ public abstract class AbstractPageExecutor implements PageExecutor {
                 pageBoundSql.setAdditionalParameter(pageInfo.getLimitParamName(), pageInfo.getLimit());
                 pageBoundSql.setAdditionalParameter(pageInfo.getOffsetParamName(),pageInfo.getOffset());
 
-                log.info(pageBoundSql.getSql());
-                log.info(pageBoundSql.getAdditionalParameter(pageInfo.getLimitParamName()).toString());
-                log.info(pageBoundSql.getAdditionalParameter(pageInfo.getOffsetParamName()).toString());
+                log.debug("page overflow to last:{}, limit:{}, offset:{}", pageBoundSql.getSql(),
+                        pageInfo.getLimit(), pageInfo.getOffset());
 
                 return true;
             }
@@ -376,7 +608,7 @@ public abstract class AbstractPageExecutor implements PageExecutor {
                         value = metaObject.getValue(propertyName);
                     }
                     boundSql.setAdditionalParameter(propertyName,value);
-                    log.info(propertyName + ":" + value);
+                    log.debug("{}:{}", propertyName, value);
                 }
             }
         }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page.executor;
+
+import com.hhao.common.mybatis.page.PageMetaData;
+import com.hhao.common.mybatis.page.exception.MyBatisException;
+import com.hhao.common.utils.NamingThreadFactory;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并行执行count语句
+ * count语句在有界线程池中使用独立的连接执行,与分页查询同时进行
+ * 线程池队列已满时由调用线程直接执行count语句,退化为串行执行
+ * 注意:count语句不在当前事务中执行,看不到当前事务未提交的修改
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class AsyncCountExecutor {
+    private static volatile ThreadPoolExecutor threadPool;
+
+    private AsyncCountExecutor() {
+    }
+
+    /**
+     * 提交count任务
+     * 任务在新的连接上执行,CountQuery使用该连接执行语句,任务完成后关闭连接
+     *
+     * @param <T>                  the type parameter
+     * @param countMappedStatement the count mapped statement
+     * @param parameter            the parameter
+     * @param task                 the task
+     * @return the future
+     */
+    public static <T> Future<T> submit(MappedStatement countMappedStatement, Object parameter, CountTask<T> task) {
+        return getThreadPool().submit(() -> execute(countMappedStatement, parameter, task));
+    }
+
+    /**
+     * 等待count任务的结果
+     *
+     * @param <T>    the type parameter
+     * @param future the future
+     * @return the t
+     * @throws Throwable count任务的异常
+     */
+    public static <T> T get(Future<T> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new MyBatisException("Interrupted while waiting for count query");
+        }
+    }
+
+    /**
+     * 使用新的连接执行count任务,执行完成后关闭连接
+     */
+    private static <T> T execute(MappedStatement countMappedStatement, Object parameter, CountTask<T> task) throws Exception {
+        Configuration configuration = countMappedStatement.getConfiguration();
+        Environment environment = configuration.getEnvironment();
+        Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, true);
+        Executor executor = configuration.newExecutor(transaction, ExecutorType.SIMPLE);
+        try {
+            return task.execute((ms, boundSql) -> executor.query(ms, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER,
+                    executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, boundSql), boundSql));
+        } finally {
+            executor.close(false);
+        }
+    }
+
+    private static ThreadPoolExecutor getThreadPool() {
+        ThreadPoolExecutor pool = threadPool;
+        if (pool == null) {
+            synchronized (AsyncCountExecutor.class) {
+                pool = threadPool;
+                if (pool == null) {
+                    int threads = Math.max(1, PageMetaData.ASYNC_COUNT_THREADS);
+                    pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(Math.max(1, PageMetaData.ASYNC_COUNT_QUEUE_SIZE)),
+                            new NamingThreadFactory("page-count", true),
+                            new ThreadPoolExecutor.CallerRunsPolicy());
+                    pool.allowCoreThreadTimeOut(true);
+                    threadPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 在新的连接上执行的count任务
+     *
+     * @param <T> the type parameter
+     */
+    @FunctionalInterface
+    public interface CountTask<T> {
+        /**
+         * 执行任务
+         *
+         * @param countQuery 使用新连接执行语句
+         * @return the t
+         * @throws SQLException the sql exception
+         */
+        T execute(AbstractPageExecutor.CountQuery countQuery) throws SQLException;
+    }
+}
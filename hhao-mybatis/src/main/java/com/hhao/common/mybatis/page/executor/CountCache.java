@@ -0,0 +1,197 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page.executor;
+
+import com.hhao.common.mybatis.page.PageMetaData;
+import com.hhao.common.utils.collections.cache.ConcurrentLruCache;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * count结果缓存
+ * 以数据源、count语句及绑定的参数值为key,缓存在有效期内的总行数
+ * 缓存只按有效期失效,有效期内的数据修改不会反映到总行数中
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class CountCache {
+    private static volatile ConcurrentLruCache<CountKey, Long> cache;
+
+    private CountCache() {
+    }
+
+    /**
+     * 是否启用count缓存
+     *
+     * @return the boolean
+     */
+    public static boolean isEnabled() {
+        return PageMetaData.COUNT_CACHE_SIZE > 0 && PageMetaData.COUNT_CACHE_TTL > 0;
+    }
+
+    /**
+     * 生成count缓存的key
+     * 参数值按DefaultParameterHandler的规则读取
+     *
+     * @param countMappedStatement the count mapped statement
+     * @param countBoundSql        the count bound sql
+     * @return the count key
+     */
+    public static CountKey createKey(MappedStatement countMappedStatement, BoundSql countBoundSql) {
+        Configuration configuration = countMappedStatement.getConfiguration();
+        Object[] values = parameterValues(configuration, countBoundSql, null, null);
+        String environmentId = configuration.getEnvironment() != null ? configuration.getEnvironment().getId() : null;
+        return new CountKey(environmentId, countBoundSql.getSql(), values);
+    }
+
+    /**
+     * 按DefaultParameterHandler的规则读取BoundSql的参数值
+     * 属性名等于excludeProperty1、excludeProperty2的参数不读取,值为null
+     *
+     * @param configuration    the configuration
+     * @param boundSql         the bound sql
+     * @param excludeProperty1 不读取的参数,可为null
+     * @param excludeProperty2 不读取的参数,可为null
+     * @return the object [ ]
+     */
+    static Object[] parameterValues(Configuration configuration, BoundSql boundSql, String excludeProperty1, String excludeProperty2) {
+        Object parameterObject = boundSql.getParameterObject();
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        Object[] values = new Object[parameterMappings.size()];
+        MetaObject metaObject = null;
+        for (int i = 0; i < values.length; i++) {
+            ParameterMapping parameterMapping = parameterMappings.get(i);
+            String propertyName = parameterMapping.getProperty();
+            if (parameterMapping.getMode() == ParameterMode.OUT
+                    || propertyName.equals(excludeProperty1) || propertyName.equals(excludeProperty2)) {
+                continue;
+            }
+            if (boundSql.hasAdditionalParameter(propertyName)) {
+                values[i] = boundSql.getAdditionalParameter(propertyName);
+            } else if (parameterObject == null) {
+                values[i] = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                values[i] = parameterObject;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                values[i] = metaObject.getValue(propertyName);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 返回缓存的总行数,不存在或已过期时返回null
+     *
+     * @param key the key
+     * @return the long
+     */
+    public static Long get(CountKey key) {
+        return getCache().get(key);
+    }
+
+    /**
+     * 缓存总行数
+     *
+     * @param key      the key
+     * @param totalRow the total row
+     */
+    public static void put(CountKey key, long totalRow) {
+        getCache().put(key, totalRow);
+    }
+
+    /**
+     * 清空count缓存
+     */
+    public static void clear() {
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * 返回缓存统计
+     *
+     * @return the cache stats
+     */
+    public static ConcurrentLruCache.CacheStats stats() {
+        return getCache().stats();
+    }
+
+    private static ConcurrentLruCache<CountKey, Long> getCache() {
+        ConcurrentLruCache<CountKey, Long> c = cache;
+        if (c == null) {
+            synchronized (CountCache.class) {
+                c = cache;
+                if (c == null) {
+                    c = new ConcurrentLruCache<>(Math.max(1, PageMetaData.COUNT_CACHE_SIZE), PageMetaData.COUNT_CACHE_TTL, TimeUnit.SECONDS);
+                    cache = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * count缓存的key
+     */
+    public static final class CountKey {
+        private final String environmentId;
+        private final String sql;
+        private final Object[] values;
+        private final int hash;
+
+        private CountKey(String environmentId, String sql, Object[] values) {
+            this.environmentId = environmentId;
+            this.sql = sql;
+            this.values = values;
+            this.hash = 31 * (31 * Objects.hashCode(environmentId) + sql.hashCode()) + Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CountKey)) {
+                return false;
+            }
+            CountKey other = (CountKey) o;
+            return hash == other.hash
+                    && sql.equals(other.sql)
+                    && Objects.equals(environmentId, other.environmentId)
+                    && Arrays.deepEquals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
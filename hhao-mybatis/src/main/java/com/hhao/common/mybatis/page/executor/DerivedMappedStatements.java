@@ -0,0 +1,140 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page.executor;
+
+import com.hhao.common.mybatis.page.interceptor.PageInterceptor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 派生MappedStatement缓存
+ * 分页执行器由原语句派生的分页、count等MappedStatement只与原语句有关,按原语句缓存后不再每次调用都重新构建
+ * 原语句以实例为key,同一语句id在不同Configuration中的语句互不影响,重新加载Mapper后按新的实例重新派生
+ * 缓存由Configuration中注册的PageInterceptor持有,随Configuration一起释放(容器刷新、devtools重新加载);未注册PageInterceptor时不缓存
+ * 派生的MappedStatement通常不含可用的SqlSource,执行时需通过AbstractPageExecutor#proceed或Executor#query传入BoundSql
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class DerivedMappedStatements {
+    /**
+     * 分页语句
+     */
+    static final String PAGE = "page";
+    /**
+     * count语句
+     */
+    static final String COUNT = "count";
+    /**
+     * 估算总行数的语句
+     */
+    static final String ESTIMATE = "estimate";
+    /**
+     * 多语句执行器的结果集映射
+     */
+    static final String MULTI = "multi";
+    /**
+     * 多语句执行器带count结果集映射
+     */
+    static final String MULTI_COUNT = "multiCount";
+    /**
+     * 流式查询语句
+     */
+    static final String STREAM = "stream";
+    /**
+     * 流式分页语句
+     */
+    static final String STREAM_PAGE = "streamPage";
+
+    private final Map<MappedStatement, Map<String, MappedStatement>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Derived mapped statements.
+     */
+    public DerivedMappedStatements() {
+    }
+
+    /**
+     * 返回Configuration中PageInterceptor持有的缓存,未注册PageInterceptor时返回null
+     *
+     * @param configuration the configuration
+     * @return the derived mapped statements
+     */
+    static DerivedMappedStatements of(Configuration configuration) {
+        for (Interceptor interceptor : configuration.getInterceptors()) {
+            if (interceptor instanceof PageInterceptor) {
+                return ((PageInterceptor) interceptor).getDerivedMappedStatements();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 返回缓存的派生语句,不存在时返回null
+     *
+     * @param source 原语句
+     * @param kind   派生语句的类型
+     * @return the mapped statement
+     */
+    static MappedStatement get(MappedStatement source, String kind) {
+        DerivedMappedStatements statements = of(source.getConfiguration());
+        if (statements == null) {
+            return null;
+        }
+        Map<String, MappedStatement> derived = statements.cache.get(source);
+        return derived != null ? derived.get(kind) : null;
+    }
+
+    /**
+     * 缓存派生语句
+     *
+     * @param source  原语句
+     * @param kind    派生语句的类型
+     * @param derived 派生语句
+     * @return the mapped statement
+     */
+    static MappedStatement put(MappedStatement source, String kind, MappedStatement derived) {
+        DerivedMappedStatements statements = of(source.getConfiguration());
+        if (statements != null) {
+            statements.cache.computeIfAbsent(source, k -> new ConcurrentHashMap<>(8)).put(kind, derived);
+        }
+        return derived;
+    }
+
+    /**
+     * 清空缓存,同一Configuration中重新加载Mapper后可调用以释放旧的语句
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 清空Configuration的缓存
+     *
+     * @param configuration the configuration
+     */
+    public static void clear(Configuration configuration) {
+        DerivedMappedStatements statements = of(configuration);
+        if (statements != null) {
+            statements.clear();
+        }
+    }
+}
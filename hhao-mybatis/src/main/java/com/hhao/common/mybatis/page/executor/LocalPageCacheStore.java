@@ -0,0 +1,81 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page.executor;
+
+import com.hhao.common.utils.collections.cache.ConcurrentLruCache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地页面缓存存储
+ * 基于ConcurrentLruCache,按页计数,超出容量时淘汰最近最少使用的页面
+ * 只在当前进程内有效,多实例部署时其它实例的写语句不会使本地缓存失效,需要时使用共享存储
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class LocalPageCacheStore implements PageCacheStore {
+    private final ConcurrentLruCache<String, Object> cache;
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Local page cache store.
+     *
+     * @param capacity    最大页数
+     * @param ttlSeconds  有效期(秒)
+     */
+    public LocalPageCacheStore(int capacity, long ttlSeconds) {
+        this.cache = new ConcurrentLruCache<>(capacity, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Object get(String key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public long getVersion(String namespace) {
+        AtomicLong version = versions.get(namespace);
+        return version != null ? version.get() : 0L;
+    }
+
+    @Override
+    public void incrementVersion(String namespace) {
+        versions.computeIfAbsent(namespace, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 返回缓存统计
+     *
+     * @return the cache stats
+     */
+    public ConcurrentLruCache.CacheStats stats() {
+        return cache.stats();
+    }
+}
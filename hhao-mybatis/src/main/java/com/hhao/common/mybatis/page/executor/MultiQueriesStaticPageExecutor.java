@@ -46,8 +46,13 @@ public class MultiQueriesStaticPageExecutor extends AbstractPageExecutor {
     @Override
     public Object execute(Invocation invocation,PageInfo pageInfo) throws Throwable {
         MappedStatement mappedStatement=this.getMappedStatement(invocation);
-        //用新的SqlSource构建MappedStatement
-        MappedStatement newMappedStatement=buildMappedStatement(mappedStatement,mappedStatement.getSqlSource(),this.buildResultMap(pageInfo,mappedStatement));
+        //加入count结果集映射的MappedStatement,按原语句缓存
+        String kind=pageInfo.isIncludeTotalRows()?DerivedMappedStatements.MULTI_COUNT:DerivedMappedStatements.MULTI;
+        MappedStatement newMappedStatement=DerivedMappedStatements.get(mappedStatement,kind);
+        if (newMappedStatement==null){
+            newMappedStatement=DerivedMappedStatements.put(mappedStatement,kind,
+                    buildMappedStatement(mappedStatement,mappedStatement.getSqlSource(),this.buildResultMap(pageInfo,mappedStatement)));
+        }
         //用新的MappedStatement替换原来的MappedStatement
         resetMappedStatement(invocation,newMappedStatement);
         //继续向下执行,返回查询结果集和行数结果集
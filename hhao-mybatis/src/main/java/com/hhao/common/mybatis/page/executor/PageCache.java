@@ -0,0 +1,238 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page.executor;
+
+import com.hhao.common.mybatis.page.PageInfo;
+import com.hhao.common.mybatis.page.PageMetaData;
+import com.hhao.common.page.Page;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 页面缓存
+ * 分页查询按preCachedPage、postCachedPage多查询的页面逐页缓存,后续请求的页面已缓存时不再查询数据库
+ * 缓存key由namespace版本号、mapped statement id、sql、参数值(不含limit、offset参数)、页大小及页码组成
+ * 同一namespace执行insert、update、delete语句后递增版本号,该namespace已缓存的页面全部失效
+ * 缓存的页面数据在请求之间共享,不应修改返回的对象;使用共享存储时页面数据需可序列化
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class PageCache {
+    private static volatile PageCacheStore store;
+
+    private PageCache() {
+    }
+
+    /**
+     * 是否启用页面缓存,PAGE_CACHE_TTL默认为0,设置有效期后才启用
+     *
+     * @return the boolean
+     */
+    public static boolean isEnabled() {
+        return PageMetaData.PAGE_CACHE_SIZE > 0 && PageMetaData.PAGE_CACHE_TTL > 0;
+    }
+
+    /**
+     * 设置页面缓存的存储,默认为LocalPageCacheStore
+     *
+     * @param pageCacheStore the page cache store
+     */
+    public static void setStore(PageCacheStore pageCacheStore) {
+        store = pageCacheStore;
+    }
+
+    /**
+     * 返回页面缓存的存储
+     *
+     * @return the store
+     */
+    public static PageCacheStore getStore() {
+        PageCacheStore s = store;
+        if (s == null) {
+            synchronized (PageCache.class) {
+                s = store;
+                if (s == null) {
+                    s = new LocalPageCacheStore(Math.max(1, PageMetaData.PAGE_CACHE_SIZE), PageMetaData.PAGE_CACHE_TTL);
+                    store = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * 生成不含页码的缓存key
+     *
+     * @param mappedStatement the mapped statement
+     * @param boundSql        the bound sql
+     * @param pageInfo        the page info
+     * @return the string
+     */
+    public static String createKey(MappedStatement mappedStatement, BoundSql boundSql, PageInfo pageInfo) {
+        Configuration configuration = mappedStatement.getConfiguration();
+        Object[] values = CountCache.parameterValues(configuration, boundSql, pageInfo.getLimitParamName(), pageInfo.getOffsetParamName());
+        String namespace = namespace(mappedStatement);
+        String environmentId = configuration.getEnvironment() != null ? configuration.getEnvironment().getId() : "";
+        return namespace + ':' + getStore().getVersion(namespace) + ':' + mappedStatement.getId()
+                + ':' + pageInfo.getPageSize() + ':' + pageInfo.isIncludeTotalRows()
+                + ':' + digest(environmentId + '\n' + boundSql.getSql() + '\n' + Arrays.deepToString(values));
+    }
+
+    /**
+     * 从缓存中读取页面
+     * 请求的页面已缓存时,取预取范围内与之相邻的已缓存页面设置到pageInfo,返回各页数据按页码顺序合并的结果
+     * 请求的页面未缓存时返回null
+     *
+     * @param pageInfo the page info
+     * @param key      the key
+     * @return the list
+     */
+    public static List<Object> get(PageInfo pageInfo, String key) {
+        PageCacheStore cacheStore = getStore();
+        long pageNum = pageInfo.getPageNum();
+        CachedPage page = (CachedPage) cacheStore.get(pageKey(key, pageNum));
+        if (page == null || (pageInfo.isIncludeTotalRows() && page.totalRow < 0)) {
+            return null;
+        }
+        List<CachedPage> pages = new ArrayList<>();
+        //向前取已缓存的连续页面
+        long beginPage = pageNum;
+        for (long i = pageNum - 1; i >= 1 && i >= pageNum - pageInfo.getPreCachedPage(); i--) {
+            CachedPage pre = (CachedPage) cacheStore.get(pageKey(key, i));
+            if (pre == null) {
+                break;
+            }
+            pages.add(0, pre);
+            beginPage = i;
+        }
+        pages.add(page);
+        //向后取已缓存的连续页面
+        long endPage = pageNum;
+        if (page.data.size() >= pageInfo.getPageSize()) {
+            for (long i = pageNum + 1; i <= pageNum + pageInfo.getPostCachedPage(); i++) {
+                CachedPage post = (CachedPage) cacheStore.get(pageKey(key, i));
+                if (post == null) {
+                    break;
+                }
+                pages.add(post);
+                endPage = i;
+                if (post.data.size() < pageInfo.getPageSize()) {
+                    break;
+                }
+            }
+        }
+        List<Object> result = new ArrayList<>();
+        for (CachedPage cachedPage : pages) {
+            result.addAll(cachedPage.data);
+        }
+        pageInfo.setPreCachedPage(pageNum - beginPage);
+        pageInfo.setPostCachedPage(endPage - pageNum);
+        pageInfo.setTotalRow(page.totalRow);
+        pageInfo.setTotalRowType(page.totalRowType);
+        pageInfo.setData(result);
+        return result;
+    }
+
+    /**
+     * 按页缓存pageInfo中的查询结果
+     *
+     * @param pageInfo the page info
+     * @param key      the key
+     */
+    public static void put(PageInfo pageInfo, String key) {
+        Map<Integer, List<Object>> data = pageInfo.getData();
+        if (data == null) {
+            return;
+        }
+        PageCacheStore cacheStore = getStore();
+        for (Map.Entry<Integer, List<Object>> entry : data.entrySet()) {
+            cacheStore.put(pageKey(key, entry.getKey()),
+                    new CachedPage(new ArrayList<>(entry.getValue()), pageInfo.getTotalRow(), pageInfo.getTotalRowType()));
+        }
+    }
+
+    /**
+     * 使mapped statement所在namespace的缓存失效
+     * 存储尚未创建时没有可失效的页面,不创建存储
+     *
+     * @param mappedStatement the mapped statement
+     */
+    public static void invalidate(MappedStatement mappedStatement) {
+        PageCacheStore s = store;
+        if (s != null) {
+            s.incrementVersion(namespace(mappedStatement));
+        }
+    }
+
+    /**
+     * 清空页面缓存
+     */
+    public static void clear() {
+        if (store != null) {
+            store.clear();
+        }
+    }
+
+    private static String namespace(MappedStatement mappedStatement) {
+        String id = mappedStatement.getId();
+        int index = id.lastIndexOf('.');
+        return index > 0 ? id.substring(0, index) : id;
+    }
+
+    private static String pageKey(String key, long pageNum) {
+        return key + ':' + pageNum;
+    }
+
+    private static String digest(String value) {
+        try {
+            byte[] bytes = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder buf = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                buf.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return buf.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存的页面
+     */
+    public static final class CachedPage implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final List<Object> data;
+        private final long totalRow;
+        private final Page.TotalRowType totalRowType;
+
+        private CachedPage(List<Object> data, long totalRow, Page.TotalRowType totalRowType) {
+            this.data = data;
+            this.totalRow = totalRow;
+            this.totalRowType = totalRowType;
+        }
+    }
+}
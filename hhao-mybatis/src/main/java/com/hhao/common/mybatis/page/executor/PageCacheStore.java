@@ -0,0 +1,62 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page.executor;
+
+/**
+ * 页面缓存的存储
+ * 默认使用LocalPageCacheStore,可通过PageCache#setStore替换为Redis等共享存储
+ * 每个namespace维护一个版本号,版本号是缓存key的一部分,递增版本号即可使该namespace的缓存全部失效
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public interface PageCacheStore {
+    /**
+     * 返回缓存的值,不存在或已过期时返回null
+     *
+     * @param key the key
+     * @return the object
+     */
+    Object get(String key);
+
+    /**
+     * 缓存值,有效期由存储自行决定
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    void put(String key, Object value);
+
+    /**
+     * 返回namespace当前的版本号
+     *
+     * @param namespace the namespace
+     * @return the version
+     */
+    long getVersion(String namespace);
+
+    /**
+     * 递增namespace的版本号,使该namespace已缓存的页面失效
+     *
+     * @param namespace the namespace
+     */
+    void incrementVersion(String namespace);
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page.executor;
+
+import com.hhao.common.mybatis.page.PageCursor;
+import com.hhao.common.mybatis.page.PageInfo;
+import com.hhao.common.mybatis.page.exception.MyBatisException;
+import com.hhao.common.mybatis.page.executor.sql.parse.FastSqlParse;
+import com.hhao.common.mybatis.page.executor.sql.parse.FastTokenInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenKind;
+import com.hhao.common.page.Page;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 游标(keyset)分页执行器
+ * 不使用offset,以上一页最后一行排序列的值作为seek条件,翻页耗时与页码无关
+ * 执行器对select语句进行以下改写:
+ * 1、原where条件加括号后追加 (c1, c2) &gt; (?, ?),降序时为 &lt;,第一页(没有游标)时不追加
+ * 2、原order by替换为按PageInfo排序列生成的order by
+ * 3、原limit、offset替换为limit ?,取pageSize+1行用于判断是否存在下一页
+ * 不执行count语句,也不支持union语句
+ * seek条件使用行值比较,适用于MySQL、PostgreSQL、H2等支持行值比较及limit的数据库
+ * 排序列需唯一确定一行(通常以主键作为最后一个排序列),否则翻页时可能遗漏数据
+ * 排序列必须为NOT NULL列,值为NULL时行值比较的结果为UNKNOWN,该行会被遗漏,因此游标或查询结果中出现NULL时抛出异常
+ * 下一页游标从当前页最后一行读取,读取的属性在查询前确定并检查(见PageInfo.Builder#setSeekProperties)
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class SeekPageExecutor extends AbstractPageExecutor {
+    private static final FastSqlParse SQL_PARSE = new FastSqlParse();
+    private static final String SEEK_PARAM_PREFIX = "_seek_";
+    private static final String SEEK_LIMIT_PARAM_NAME = "_seek_limit";
+
+    @Override
+    public Object execute(Invocation invocation, PageInfo pageInfo) throws Throwable {
+        String[] seekColumns = pageInfo.getSeekColumns();
+        if (seekColumns == null || seekColumns.length == 0 || Page.OrderDirection.NO.equals(pageInfo.getOrderDirection())) {
+            throw new MyBatisException("SeekPageExecutor need order columns and order direction");
+        }
+        MappedStatement mappedStatement = this.getMappedStatement(invocation);
+        String[] seekProperties = resolveSeekProperties(pageInfo, mappedStatement, seekColumns);
+        Object parameter = this.getParameter(invocation);
+        BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+
+        Object[] seekValues = null;
+        if (pageInfo.getCursor() != null && !pageInfo.getCursor().isEmpty()) {
+            seekValues = PageCursor.decode(pageInfo.getCursor());
+            if (seekValues.length != seekColumns.length) {
+                throw new MyBatisException("The page cursor does not match the order columns");
+            }
+            for (int i = 0; i < seekValues.length; i++) {
+                if (seekValues[i] == null) {
+                    throw nullSeekValue(seekColumns[i]);
+                }
+            }
+        }
+        //游标分页没有页码,不缓存前后页,也不统计总行数
+        pageInfo.setPreCachedPage(0);
+        pageInfo.setPostCachedPage(0);
+        pageInfo.setIncludeTotalRows(false);
+        pageInfo.setTotalRow(-1);
+
+        BoundSql seekBoundSql = buildSeekBoundSql(pageInfo, mappedStatement, boundSql, seekColumns, seekValues);
+        SqlSource seekSqlSource = parameterObject -> seekBoundSql;
+        resetMappedStatement(invocation, buildMappedStatement(mappedStatement, seekSqlSource, mappedStatement.getResultMaps()));
+
+        List<Object> result = (List<Object>) invocation.proceed();
+        return setSeekResult(pageInfo, mappedStatement.getConfiguration(), seekColumns, seekProperties, result);
+    }
+
+    /**
+     * 确定从结果对象中读取排序列值的属性,并检查结果类型中存在对应的getter
+     * 未指定时按结果映射中列对应的属性,没有映射时按列名查找属性(开启mapUnderscoreToCamelCase时按驼峰命名),结果为Map时为列名
+     */
+    private String[] resolveSeekProperties(PageInfo pageInfo, MappedStatement mappedStatement, String[] seekColumns) {
+        Configuration configuration = mappedStatement.getConfiguration();
+        ResultMap resultMap = mappedStatement.getResultMaps().isEmpty() ? null : mappedStatement.getResultMaps().get(0);
+        Class<?> type = resultMap != null ? resultMap.getType() : null;
+        MetaClass metaClass = type == null || Map.class.isAssignableFrom(type) ? null : MetaClass.forClass(type, configuration.getReflectorFactory());
+
+        String[] seekProperties = pageInfo.getSeekProperties();
+        if (seekProperties == null) {
+            seekProperties = new String[seekColumns.length];
+            for (int i = 0; i < seekColumns.length; i++) {
+                String column = columnName(seekColumns[i]);
+                String property = metaClass == null ? column : findProperty(resultMap, metaClass, column, configuration.isMapUnderscoreToCamelCase());
+                if (property == null) {
+                    throw new MyBatisException("Can not find the seek property of column '" + column + "' in " + type.getName() + ", set it by PageInfo.Builder#setSeekProperties");
+                }
+                seekProperties[i] = property;
+            }
+        } else if (seekProperties.length != seekColumns.length) {
+            throw new MyBatisException("The seek properties do not match the order columns");
+        }
+        if (metaClass != null) {
+            for (String property : seekProperties) {
+                if (!metaClass.hasGetter(property)) {
+                    throw new MyBatisException("There is no getter for seek property '" + property + "' in " + type.getName());
+                }
+            }
+        }
+        return seekProperties;
+    }
+
+    /**
+     * 优先使用结果映射中列对应的属性,其次与自动映射一致按列名查找属性
+     */
+    private String findProperty(ResultMap resultMap, MetaClass metaClass, String column, boolean camelCase) {
+        for (ResultMapping mapping : resultMap.getResultMappings()) {
+            if (column.equalsIgnoreCase(mapping.getColumn()) && mapping.getProperty() != null) {
+                return mapping.getProperty();
+            }
+        }
+        return metaClass.findProperty(column, camelCase);
+    }
+
+    /**
+     * 去除列名前的表别名及列名两边的引号
+     */
+    private String columnName(String seekColumn) {
+        int index = seekColumn.lastIndexOf('.');
+        String column = index >= 0 ? seekColumn.substring(index + 1) : seekColumn;
+        if (column.length() > 1 && (column.charAt(0) == '`' || column.charAt(0) == '"')) {
+            column = column.substring(1, column.length() - 1);
+        }
+        return column;
+    }
+
+    /**
+     * 生成seek语句
+     */
+    private BoundSql buildSeekBoundSql(PageInfo pageInfo, MappedStatement mappedStatement, BoundSql boundSql,
+                                       String[] seekColumns, Object[] seekValues) {
+        List<TokenInfo> tokenInfos = SQL_PARSE.parseSql(boundSql.getSql());
+        if (tokenInfos.size() != 1) {
+            throw new MyBatisException("SeekPageExecutor only support single select statement");
+        }
+        FastTokenInfo tokenInfo = (FastTokenInfo) tokenInfos.get(0);
+        if (tokenInfo.isUnion()) {
+            throw new MyBatisException("SeekPageExecutor not support union statement");
+        }
+        int size = tokenInfo.size();
+        int whereIndex = tokenInfo.getRootKeywordIndex(TokenKind.WHERE);
+        //where条件之后的子句
+        int whereEnd = firstIndex(tokenInfo, size, TokenKind.GROUP, TokenKind.HAVING, TokenKind.ORDER, TokenKind.LIMIT, TokenKind.OFFSET, TokenKind.FOR);
+        //group by、having之后的子句,这些子句将被替换
+        int tailBegin = firstIndex(tokenInfo, size, TokenKind.ORDER, TokenKind.LIMIT, TokenKind.OFFSET, TokenKind.FOR);
+        int forIndex = tokenInfo.getRootKeywordIndex(TokenKind.FOR);
+
+        StringBuilder sql = new StringBuilder(boundSql.getSql().length() + 64);
+        List<Integer> params = new ArrayList<>(tokenInfo.paramCount());
+        List<ParamMapping> seekParams = new ArrayList<>(seekColumns.length + 1);
+        String operator = Page.OrderDirection.DESC.equals(pageInfo.getOrderDirection()) ? " < " : " > ";
+
+        //where条件
+        if (seekValues == null) {
+            tokenInfo.appendRange(sql, 0, whereEnd, params);
+        } else {
+            if (whereIndex >= 0) {
+                tokenInfo.appendRange(sql, 0, whereIndex + 1, params);
+                sql.append(" (");
+                tokenInfo.appendRange(sql, whereIndex + 1, whereEnd, params);
+                sql.append(") and ");
+            } else {
+                tokenInfo.appendRange(sql, 0, whereEnd, params);
+                sql.append(" where ");
+            }
+            appendRowValue(sql, seekColumns, false);
+            sql.append(operator);
+            appendRowValue(sql, seekColumns, true);
+            for (int i = 0; i < seekValues.length; i++) {
+                Object value = seekValues[i];
+                seekParams.add(ParamMapping.Builder.create(SEEK_PARAM_PREFIX + i, value != null ? value.getClass() : Object.class, value));
+            }
+        }
+        //group by、having
+        tokenInfo.appendRange(sql, whereEnd, tailBegin, params);
+        //order by、limit
+        sql.append(" order by ");
+        String direction = pageInfo.getOrderDirection().name();
+        for (int i = 0; i < seekColumns.length; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(seekColumns[i]).append(' ').append(direction);
+        }
+        sql.append(" limit ?");
+        seekParams.add(ParamMapping.Builder.create(SEEK_LIMIT_PARAM_NAME, Long.class, pageInfo.getPageSize() + 1));
+        //for update等
+        if (forIndex >= 0) {
+            tokenInfo.appendRange(sql, forIndex, size, params);
+        }
+
+        //按语句中的顺序生成参数:原where条件、seek条件、group by及having、limit、for子句
+        Configuration configuration = mappedStatement.getConfiguration();
+        List<ParameterMapping> originalMappings = boundSql.getParameterMappings();
+        List<ParameterMapping> parameterMappings = new ArrayList<>(params.size() + seekParams.size());
+        int whereParamCount = countParams(tokenInfo, whereEnd);
+        int groupParamCount = countParams(tokenInfo, tailBegin);
+        for (int i = 0; i <= params.size(); i++) {
+            if (i == whereParamCount) {
+                for (int j = 0; j < seekParams.size() - 1; j++) {
+                    parameterMappings.add(toParameterMapping(configuration, seekParams.get(j)));
+                }
+            }
+            if (i == groupParamCount) {
+                parameterMappings.add(toParameterMapping(configuration, seekParams.get(seekParams.size() - 1)));
+            }
+            if (i < params.size()) {
+                parameterMappings.add(originalMappings.get(params.get(i)));
+            }
+        }
+
+        BoundSql seekBoundSql = new BoundSql(configuration, sql.toString(), parameterMappings, boundSql.getParameterObject());
+        copyAdditionalParameters(boundSql, seekBoundSql);
+        for (ParamMapping param : seekParams) {
+            seekBoundSql.setAdditionalParameter(param.getProperty(), param.getValue());
+        }
+        return seekBoundSql;
+    }
+
+    /**
+     * 检查查询结果中的排序列值不为NULL,截取当前页数据并生成下一页游标
+     */
+    private List<Object> setSeekResult(PageInfo pageInfo, Configuration configuration, String[] seekColumns,
+                                       String[] seekProperties, List<Object> result) {
+        int pageSize = (int) pageInfo.getPageSize();
+        boolean hasNext = result.size() > pageSize;
+        List<Object> pageResult = hasNext ? new ArrayList<>(result.subList(0, pageSize)) : result;
+        Object[] values = new Object[seekProperties.length];
+        for (Object row : pageResult) {
+            MetaObject metaObject = configuration.newMetaObject(row);
+            for (int i = 0; i < seekProperties.length; i++) {
+                values[i] = metaObject.getValue(seekProperties[i]);
+                if (values[i] == null) {
+                    throw nullSeekValue(seekColumns[i]);
+                }
+            }
+        }
+        pageInfo.setNextCursor(hasNext ? PageCursor.encode(values) : null);
+        pageInfo.setData(pageResult);
+        return pageResult;
+    }
+
+    private MyBatisException nullSeekValue(String seekColumn) {
+        return new MyBatisException("The seek column '" + seekColumn + "' is null, SeekPageExecutor requires NOT NULL order columns");
+    }
+
+    private ParameterMapping toParameterMapping(Configuration configuration, ParamMapping param) {
+        return new ParameterMapping.Builder(configuration, param.getProperty(), param.getJavaType()).build();
+    }
+
+    private void appendRowValue(StringBuilder sql, String[] seekColumns, boolean param) {
+        if (seekColumns.length > 1) {
+            sql.append('(');
+        }
+        for (int i = 0; i < seekColumns.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(param ? "?" : seekColumns[i]);
+        }
+        if (seekColumns.length > 1) {
+            sql.append(')');
+        }
+    }
+
+    /**
+     * 返回最外层查询中最先出现的关键字位置,都不存在时返回defaultIndex
+     */
+    private int firstIndex(FastTokenInfo tokenInfo, int defaultIndex, byte... kinds) {
+        int index = defaultIndex;
+        for (byte kind : kinds) {
+            int i = tokenInfo.getRootKeywordIndex(kind);
+            if (i >= 0 && i < index) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 返回位置toIndex之前的参数个数
+     */
+    private int countParams(FastTokenInfo tokenInfo, int toIndex) {
+        int count = 0;
+        while (count < tokenInfo.paramCount() && tokenInfo.paramPositionAt(count) < toIndex) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -20,13 +20,12 @@ import com.hhao.common.log.Logger;
 import com.hhao.common.log.LoggerFactory;
 import com.hhao.common.mybatis.page.PageInfo;
 import com.hhao.common.mybatis.page.executor.sql.SqlExecutor;
+import com.hhao.common.mybatis.page.executor.sql.SqlModel;
 import com.hhao.common.mybatis.page.executor.sql.SqlPageModel;
-import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
-import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.plugin.Invocation;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -34,6 +33,7 @@ import org.apache.ibatis.session.RowBounds;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * 单语句动态分页执行器
@@ -41,8 +41,10 @@ import java.util.List;
  * 执行器对以下内容进行处理
  * 1、对select语句进行分析，如果未分页，则加入分页，并对查询参数进行检查、补齐
  * 2、对count语句进行分析，如果不存在，则自动生成，并对参数进行检查、删除或补齐
- * 构建一个新的MappedStatement执行count语句
+ * 每次调用只生成一次原语句的BoundSql,分页、count语句使用按原语句缓存的MappedStatement
+ * 分页查询替换MappedStatement后通过invocation.proceed()执行,后续插件仍可拦截;count语句显式传入BoundSql执行
  * 该执行器比较灵活，但受到不同数据库语言差异的影响，效率次于SingleQueryStaticPageExecutor
+ * PageInfo#isAsyncCount为true时,count语句在独立的连接上与分页查询并行执行,见AsyncCountExecutor
  *
  * @author Wang
  * @since 1.0.0
@@ -74,69 +76,59 @@ public class SingleQueryDynamicPageExecutor extends AbstractPageExecutor {
         //生成的SqlPageModel包含select语句、select语句的入参;count语句、count语句的入参
         String dbName=this.getDatabaseId(mappedStatement);
         SqlPageModel sqlPageModel=sqlExecutor.generalSqlPageModel(pageInfo,boundSql.getSql(),parameterMappings,dbName);
-        //select分页处理
-        SqlSource pageSqlSource=buildPageSqlSource(pageInfo,sqlPageModel,mappedStatement,parameter);
-        //用新的SqlSource构建MappedStatement
-        MappedStatement pageMappedStatement=buildMappedStatement(mappedStatement,pageSqlSource,mappedStatement.getResultMaps());
-        //用新的MappedStatement替换原来的MappedStatement
-        resetMappedStatement(invocation,pageMappedStatement);
+        //select分页处理,分页语句与count语句都由同一个BoundSql派生
+        BoundSql pageSql=buildBoundSql(sqlPageModel.getSelect(),mappedStatement,boundSql);
+        //缓存的MappedStatement,执行时绑定本次的BoundSql
+        MappedStatement pageMappedStatement=pageMappedStatement(mappedStatement,pageInfo);
         //count处理
         if (pageInfo.isIncludeTotalRows()) {
-            SqlSource countSqlSource = buildCountSqlSource(pageInfo, sqlPageModel, mappedStatement, parameter);
-            MappedStatement countMappedStatement = buildMappedStatement(mappedStatement, countSqlSource, addCountResultMap(new ArrayList<>()));
-            BoundSql countSql=countMappedStatement.getBoundSql(parameter);
-            CacheKey cacheKey = executor.createCacheKey(countMappedStatement, parameter, rowBounds, countSql);
-            List<Object> result = executor.query(countMappedStatement, parameter, rowBounds, resultHandler, cacheKey, countSql);
-            setCountResult(pageInfo, result);
+            BoundSql countSql=buildBoundSql(sqlPageModel.getCount(),mappedStatement,boundSql);
+            MappedStatement countMappedStatement = countMappedStatement(mappedStatement);
+            //count缓存命中时不再执行count语句
+            CountCache.CountKey countKey = countCacheKey(pageInfo, countMappedStatement, countSql);
+            if (!setCachedCount(pageInfo, countKey)) {
+                if (pageInfo.isAsyncCount()) {
+                    return executeWithAsyncCount(invocation, pageInfo, pageMappedStatement, pageSql, countKey, countMappedStatement, countSql, parameter);
+                }
+                queryCount(pageInfo, countKey, countMappedStatement, countSql, countQuery(executor, parameter, rowBounds, resultHandler));
+            }
             //分页溢出处理
-            pageOverflowToLast(pageInfo,pageMappedStatement,parameter,pageSqlSource.getBoundSql(parameter));
+            pageOverflowToLast(pageInfo,pageMappedStatement,parameter,pageSql);
         }
         //对结果集进行处理
-        return setPageResult(pageInfo, invocation.proceed());
+        return setPageResult(pageInfo, proceed(invocation, pageMappedStatement, pageSql));
     }
 
-    private SqlSource buildPageSqlSource(PageInfo pageInfo,SqlPageModel sqlPageModel,MappedStatement mappedStatement, Object parameter){
-        //原来select的BoundSql
-        BoundSql boundSql=mappedStatement.getBoundSql(parameter);
-        //将ParamMapping转成ParameterMapping
-        List<ParameterMapping> parameterMappings=new ArrayList<>();
-        for(Object param :sqlPageModel.getSelect().getParams()){
-            if (param instanceof  ParameterMapping){
-                parameterMappings.add((ParameterMapping)param);
-            }else if(param instanceof ParamMapping){
-                parameterMappings.add(new ParameterMapping.Builder(mappedStatement.getConfiguration(), ((ParamMapping) param).getProperty(),((ParamMapping) param).getJavaType()).build());
-            }else{
-                throw new RuntimeException("only support ParameterMapping or ParamMapping");
-            }
+    /**
+     * count语句在独立的连接上与分页查询并行执行,两者都完成后再处理结果
+     * 分页溢出时按修正后的分页参数重新执行分页查询
+     */
+    private Object executeWithAsyncCount(Invocation invocation, PageInfo pageInfo, MappedStatement pageMappedStatement, BoundSql pageSql,
+                                         CountCache.CountKey countKey, MappedStatement countMappedStatement, BoundSql countSql, Object parameter) throws Throwable {
+        Future<Long> countFuture = AsyncCountExecutor.submit(countMappedStatement, parameter,
+                countQuery -> queryCount(pageInfo, countKey, countMappedStatement, countSql, countQuery));
+        Object result;
+        try {
+            result = proceed(invocation, pageMappedStatement, pageSql);
+        } catch (Throwable e) {
+            countFuture.cancel(true);
+            throw e;
         }
-        //生成新的BoundSql
-        BoundSql pageBoundSql=new BoundSql(mappedStatement.getConfiguration(),
-                sqlPageModel.getSelect().getSql(), parameterMappings,
-                boundSql.getParameterObject());
-        //设置在修改select、count时新添加带值的参数
-        for(Object param :parameterMappings){
-            if(param instanceof ParamMapping){
-                pageBoundSql.setAdditionalParameter(((ParamMapping) param).getProperty(),((ParamMapping) param).getValue());
-            }
+        AsyncCountExecutor.get(countFuture);
+        //分页溢出处理
+        if (pageOverflowToLast(pageInfo, pageMappedStatement, parameter, pageSql)) {
+            result = proceed(invocation, pageMappedStatement, pageSql);
         }
-        //生成新的SqlSource
-        return new SqlSource() {
-            @Override
-            public BoundSql getBoundSql(Object parameterObject) {
-                return pageBoundSql;
-            }
-        };
+        return setPageResult(pageInfo, result);
     }
 
-    private SqlSource buildCountSqlSource(PageInfo pageInfo,SqlPageModel sqlPageModel,MappedStatement mappedStatement, Object parameter){
-        //原来select的BoundSql
-        if (sqlPageModel.getCount()==null){
-            return null;
-        }
-        BoundSql boundSql=mappedStatement.getBoundSql(parameter);
+    /**
+     * 由原来select的BoundSql生成分页语句或count语句的BoundSql
+     */
+    private BoundSql buildBoundSql(SqlModel sqlModel,MappedStatement mappedStatement,BoundSql boundSql){
         //将ParamMapping转成ParameterMapping
-        List<ParameterMapping> parameterMappings=new ArrayList<>();
-        for(Object param :sqlPageModel.getCount().getParams()){
+        List<ParameterMapping> parameterMappings=new ArrayList<>(sqlModel.getParams().size());
+        for(Object param :sqlModel.getParams()){
             if (param instanceof  ParameterMapping){
                 parameterMappings.add((ParameterMapping)param);
             }else if(param instanceof ParamMapping){
@@ -146,21 +138,15 @@ public class SingleQueryDynamicPageExecutor extends AbstractPageExecutor {
             }
         }
         //生成新的BoundSql
-        BoundSql countBoundSql=new BoundSql(mappedStatement.getConfiguration(),
-                sqlPageModel.getCount().getSql(), parameterMappings,
+        BoundSql newBoundSql=new BoundSql(mappedStatement.getConfiguration(),
+                sqlModel.getSql(), parameterMappings,
                 boundSql.getParameterObject());
         //设置在修改select、count时新添加带值的参数
-        for(Object param :parameterMappings){
+        for(Object param :sqlModel.getParams()){
             if(param instanceof ParamMapping){
-                countBoundSql.setAdditionalParameter(((ParamMapping) param).getProperty(),((ParamMapping) param).getValue());
+                newBoundSql.setAdditionalParameter(((ParamMapping) param).getProperty(),((ParamMapping) param).getValue());
             }
         }
-        //生成新的SqlSource
-        return new SqlSource() {
-            @Override
-            public BoundSql getBoundSql(Object parameterObject) {
-                return countBoundSql;
-            }
-        };
+        return newBoundSql;
     }
 }
@@ -22,7 +22,6 @@ import com.hhao.common.log.LoggerFactory;
 import com.hhao.common.mybatis.page.PageInfo;
 import com.hhao.common.mybatis.page.PageInfoWithCountMappedStatement;
 import com.hhao.common.mybatis.page.PageMetaData;
-import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -70,9 +69,10 @@ public class SingleQueryStaticPageExecutor extends AbstractPageExecutor {
             MappedStatement countMs = findCountMappedStatement(mappedStatement, pageInfo);
             if (countMs != null) {
                 BoundSql countSql = countMs.getBoundSql(parameter);
-                CacheKey cacheKey = executor.createCacheKey(countMs, parameter, rowBounds, countSql);
-                List<Object> result = executor.query(countMs, parameter, rowBounds, resultHandler, cacheKey, countSql);
-                setCountResult(pageInfo, result);
+                CountCache.CountKey countKey = countCacheKey(pageInfo, countMs, countSql);
+                if (!setCachedCount(pageInfo, countKey)) {
+                    queryCount(pageInfo, countKey, countMs, countSql, countQuery(executor, parameter, rowBounds, resultHandler));
+                }
                 //分页溢出处理
                 pageOverflowToLast(pageInfo,mappedStatement,parameter,boundSql);
             }
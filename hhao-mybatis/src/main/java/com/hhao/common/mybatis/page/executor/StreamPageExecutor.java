@@ -0,0 +1,92 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page.executor;
+
+import com.hhao.common.mybatis.page.PageInfo;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.plugin.Invocation;
+
+import java.util.Collections;
+
+/**
+ * 流式分页执行器,用于大数据量导出
+ * 查询使用PageInfo#getFetchSize指定的fetchSize及FORWARD_ONLY结果集,不执行count语句,也不缓存前后页:
+ * 1、Mapper方法带ResultHandler参数时,不分页,逐行交给ResultHandler处理,结果不在内存中累积
+ * 2、没有ResultHandler时,按SingleQueryDynamicPageExecutor查询当前页,配合PageStreams逐页迭代
+ * 返回Cursor的Mapper方法带PageInfo参数时,由PageInterceptor调用queryCursor设置fetchSize
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class StreamPageExecutor extends SingleQueryDynamicPageExecutor {
+
+    @Override
+    public Object execute(Invocation invocation, PageInfo pageInfo) throws Throwable {
+        pageInfo.setIncludeTotalRows(false);
+        pageInfo.setPreCachedPage(0);
+        pageInfo.setPostCachedPage(0);
+        pageInfo.setTotalRow(-1);
+        if (getResultHandler(invocation) == null) {
+            return super.execute(invocation, pageInfo);
+        }
+        MappedStatement ms = getMappedStatement(invocation);
+        resetMappedStatement(invocation, streamMappedStatement(ms, ms.getSqlSource(), DerivedMappedStatements.STREAM, pageInfo));
+        //结果已逐行交给ResultHandler
+        Object result = invocation.proceed();
+        pageInfo.setData(Collections.emptyList());
+        return result;
+    }
+
+    /**
+     * 执行返回Cursor的查询,只设置fetchSize,不分页
+     *
+     * @param invocation Executor#queryCursor的调用
+     * @param pageInfo   the page info
+     * @return the cursor
+     * @throws Throwable the throwable
+     */
+    public Object queryCursor(Invocation invocation, PageInfo pageInfo) throws Throwable {
+        MappedStatement ms = getMappedStatement(invocation);
+        resetMappedStatement(invocation, streamMappedStatement(ms, ms.getSqlSource(), DerivedMappedStatements.STREAM, pageInfo));
+        return invocation.proceed();
+    }
+
+    /**
+     * 分页查询使用流式查询的MappedStatement
+     */
+    @Override
+    protected MappedStatement pageMappedStatement(MappedStatement ms, PageInfo pageInfo) {
+        return streamMappedStatement(ms, DERIVED_SQL_SOURCE, DerivedMappedStatements.STREAM_PAGE, pageInfo);
+    }
+
+    /**
+     * 设置fetchSize、FORWARD_ONLY结果集,并且不使用二级缓存
+     * 按原语句缓存,fetchSize与缓存的不同时重新构建
+     */
+    private MappedStatement streamMappedStatement(MappedStatement ms, SqlSource sqlSource, String kind, PageInfo pageInfo) {
+        MappedStatement streamMs = DerivedMappedStatements.get(ms, kind);
+        if (streamMs != null && streamMs.getFetchSize() != null && streamMs.getFetchSize() == pageInfo.getFetchSize()) {
+            return streamMs;
+        }
+        return DerivedMappedStatements.put(ms, kind, mappedStatementBuilder(ms, sqlSource, ms.getResultMaps())
+                .fetchSize(pageInfo.getFetchSize())
+                .resultSetType(ResultSetType.FORWARD_ONLY)
+                .useCache(false)
+                .build());
+    }
+}
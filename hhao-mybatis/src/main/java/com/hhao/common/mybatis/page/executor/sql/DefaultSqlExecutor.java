@@ -18,18 +18,24 @@ package com.hhao.common.mybatis.page.executor.sql;
 import com.hhao.common.log.Logger;
 import com.hhao.common.log.LoggerFactory;
 import com.hhao.common.mybatis.page.PageInfo;
+import com.hhao.common.mybatis.page.PageMetaData;
+import com.hhao.common.mybatis.page.executor.ParamMapping;
 import com.hhao.common.mybatis.page.executor.sql.dialect.Dialect;
 import com.hhao.common.mybatis.page.executor.sql.dialect.DialectFactory;
 import com.hhao.common.mybatis.page.executor.sql.parse.SqlParse;
 import com.hhao.common.mybatis.page.executor.sql.parse.TokenInfo;
 import com.hhao.common.mybatis.page.executor.sql.token.ParamToken;
 import com.hhao.common.mybatis.page.executor.sql.token.Token;
+import com.hhao.common.utils.collections.cache.ConcurrentLruCache;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * sql执行器类
+ * 同一条sql语句每次解析的结果都相同,因此按sql语句、数据库标记、方言缓存解析后的SqlPageModel模板,
+ * 每次调用只需绑定原始参数及limit、offset参数
  *
  * @author Wang
  * @since 1.0.0
@@ -37,11 +43,100 @@ import java.util.List;
 public class DefaultSqlExecutor implements SqlExecutor {
     private static final Logger log = LoggerFactory.getLogger(DefaultSqlExecutor.class);
 
+    /**
+     * SqlPageModel模板缓存,为null时不缓存
+     */
+    private final ConcurrentLruCache<TemplateKey, SqlPageModel> templateCache;
+
+    /**
+     * Instantiates a new Default sql executor.
+     */
+    public DefaultSqlExecutor(){
+        this(PageMetaData.SQL_PAGE_MODEL_CACHE_SIZE);
+    }
+
+    /**
+     * Instantiates a new Default sql executor.
+     *
+     * @param cacheSize 模板缓存大小,小于等于0时不缓存
+     */
+    public DefaultSqlExecutor(int cacheSize){
+        this.templateCache=cacheSize>0?new ConcurrentLruCache<>(cacheSize):null;
+    }
+
     @Override
     public SqlPageModel generalSqlPageModel(PageInfo pageInfo, String sql, List<Object> paramMappings,String dbName){
         Dialect dialect=findDialect(pageInfo,dbName);
-        SqlParse parse=dialect.getSqlParse(pageInfo,dbName);
+        if (templateCache==null){
+            return buildSqlPageModel(pageInfo,dialect,sql,paramMappings,dbName);
+        }
+        TemplateKey key=new TemplateKey(sql,dbName,dialect,pageInfo);
+        SqlPageModel template=templateCache.computeIfAbsent(key,k->buildTemplate(pageInfo,dialect,sql,paramMappings.size(),dbName));
+        return bindTemplate(pageInfo,template,paramMappings);
+    }
+
+    /**
+     * 返回模板缓存的统计信息
+     *
+     * @return the cache stats,未开启缓存时返回null
+     */
+    public ConcurrentLruCache.CacheStats getTemplateCacheStats(){
+        return templateCache!=null?templateCache.stats():null;
+    }
+
+    /**
+     * 清空模板缓存
+     */
+    public void clearTemplateCache(){
+        if (templateCache!=null){
+            templateCache.clear();
+        }
+    }
+
+    /**
+     * 用参数占位符代替原始参数生成模板
+     */
+    private SqlPageModel buildTemplate(PageInfo pageInfo,Dialect dialect,String sql,int paramCount,String dbName){
+        List<Object> slots=new ArrayList<>(paramCount);
+        for(int i=0;i<paramCount;i++){
+            slots.add(new ParamSlot(i));
+        }
+        return buildSqlPageModel(pageInfo,dialect,sql,slots,dbName);
+    }
+
+    /**
+     * 将模板中的参数占位符替换成本次调用的参数,并重新绑定limit、offset参数的值
+     */
+    private SqlPageModel bindTemplate(PageInfo pageInfo,SqlPageModel template,List<Object> paramMappings){
+        SqlModel select=bindSqlModel(pageInfo,template.getSelect(),paramMappings);
+        SqlModel count=template.getCount()!=null?bindSqlModel(pageInfo,template.getCount(),paramMappings):null;
+        return new SqlPageModel(select,count);
+    }
+
+    private SqlModel bindSqlModel(PageInfo pageInfo,SqlModel template,List<Object> paramMappings){
+        List<Object> templateParams=template.getParams();
+        List<Object> params=new ArrayList<>(templateParams.size());
+        for(Object param:templateParams){
+            if (param instanceof ParamSlot){
+                params.add(paramMappings.get(((ParamSlot) param).index));
+            }else if(param instanceof ParamMapping){
+                ParamMapping paramMapping=(ParamMapping) param;
+                if (paramMapping.getProperty().equals(pageInfo.getLimitParamName())){
+                    params.add(ParamMapping.Builder.create(paramMapping.getProperty(),paramMapping.getJavaType(),pageInfo.getLimit()));
+                }else if(paramMapping.getProperty().equals(pageInfo.getOffsetParamName())){
+                    params.add(ParamMapping.Builder.create(paramMapping.getProperty(),paramMapping.getJavaType(),pageInfo.getOffset()));
+                }else{
+                    params.add(paramMapping);
+                }
+            }else{
+                params.add(param);
+            }
+        }
+        return new SqlModel(template.getSql(),params);
+    }
 
+    private SqlPageModel buildSqlPageModel(PageInfo pageInfo,Dialect dialect,String sql, List<Object> paramMappings,String dbName){
+        SqlParse parse=dialect.getSqlParse(pageInfo,dbName);
         //解析原始的sql语句
         List<TokenInfo> tokenInfos=parse.parseSql(sql);
         //定位select与count语句
@@ -113,4 +208,58 @@ public class DefaultSqlExecutor implements SqlExecutor {
     private Dialect findDialect(PageInfo pageInfo,String dbName){
         return DialectFactory.getDialect(pageInfo,dbName);
     }
+
+    /**
+     * 模板中的原始参数占位符
+     */
+    private static final class ParamSlot{
+        private final int index;
+
+        private ParamSlot(int index){
+            this.index=index;
+        }
+    }
+
+    /**
+     * 模板缓存的key
+     * 生成的sql只与sql语句、数据库、方言、是否生成count语句以及limit、offset参数名称相关
+     */
+    private static final class TemplateKey{
+        private final String sql;
+        private final String dbName;
+        private final Class<?> dialect;
+        private final boolean includeTotalRows;
+        private final String limitParamName;
+        private final String offsetParamName;
+        private final int hash;
+
+        private TemplateKey(String sql,String dbName,Dialect dialect,PageInfo pageInfo){
+            this.sql=sql;
+            this.dbName=dbName;
+            this.dialect=dialect.getClass();
+            this.includeTotalRows=pageInfo.isIncludeTotalRows();
+            this.limitParamName=pageInfo.getLimitParamName();
+            this.offsetParamName=pageInfo.getOffsetParamName();
+            this.hash=Objects.hash(sql,dbName,this.dialect,includeTotalRows,limitParamName,offsetParamName);
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if (this==o){
+                return true;
+            }
+            if (!(o instanceof TemplateKey)){
+                return false;
+            }
+            TemplateKey that=(TemplateKey) o;
+            return hash==that.hash && includeTotalRows==that.includeTotalRows && dialect==that.dialect
+                    && sql.equals(that.sql) && Objects.equals(dbName,that.dbName)
+                    && Objects.equals(limitParamName,that.limitParamName) && Objects.equals(offsetParamName,that.offsetParamName);
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+    }
 }
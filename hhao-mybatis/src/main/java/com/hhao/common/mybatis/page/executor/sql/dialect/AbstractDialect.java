@@ -21,9 +21,11 @@ import com.hhao.common.log.Logger;
 import com.hhao.common.log.LoggerFactory;
 import com.hhao.common.mybatis.page.PageInfo;
 import com.hhao.common.mybatis.page.executor.ParamMapping;
+import com.hhao.common.mybatis.page.executor.sql.parse.FastTokenInfo;
 import com.hhao.common.mybatis.page.executor.sql.parse.SqlParse;
 import com.hhao.common.mybatis.page.executor.sql.parse.SqlParseFactory;
 import com.hhao.common.mybatis.page.executor.sql.parse.TokenInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenKind;
 import com.hhao.common.mybatis.page.executor.sql.token.ParamToken;
 import com.hhao.common.mybatis.page.executor.sql.token.Token;
 
@@ -49,7 +51,10 @@ public abstract class AbstractDialect implements Dialect{
      * @param supportDbs the support dbs
      */
     public AbstractDialect(String [] supportDbs){
-        this.supportDbs=supportDbs;
+        this.supportDbs=new String[supportDbs.length];
+        for (int i = 0; i < supportDbs.length; i++) {
+            this.supportDbs[i] = supportDbs[i].toLowerCase();
+        }
     }
 
     @Override
@@ -65,7 +70,7 @@ public abstract class AbstractDialect implements Dialect{
         if (dbSupport(databaseId)) {
             return true;
         }
-        log.info("Unsupported database:"+databaseId);
+        log.debug("Unsupported database:{}", databaseId);
         return false;
     }
 
@@ -77,13 +82,58 @@ public abstract class AbstractDialect implements Dialect{
     private boolean dbSupport(String databaseId){
         databaseId=databaseId.toLowerCase();
         for(String db:supportDbs){
-            if (databaseId.indexOf(db.toLowerCase())!=-1){
+            if (databaseId.indexOf(db)!=-1){
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * 返回最外层查询中关键字第一次出现的token位置
+     * 只有FastTokenInfo记录了关键字位置,其它TokenInfo返回-1
+     *
+     * @param tokenInfo the token info
+     * @param kind      TokenKind中的关键字类型
+     * @return the int
+     */
+    protected int rootKeywordIndex(TokenInfo tokenInfo, byte kind) {
+        if (tokenInfo instanceof FastTokenInfo) {
+            return ((FastTokenInfo) tokenInfo).getRootKeywordIndex(kind);
+        }
+        return -1;
+    }
+
+    /**
+     * 返回最外层查询中[fromIndex,toIndex)区间内第一个等于word的token位置,不区分大小写
+     * 只支持FastTokenInfo,其它TokenInfo返回-1
+     *
+     * @param tokenInfo the token info
+     * @param lowerWord 小写的单词
+     * @param fromIndex the from index
+     * @param toIndex   the to index
+     * @return the int
+     */
+    protected int rootWordIndex(TokenInfo tokenInfo, String lowerWord, int fromIndex, int toIndex) {
+        if (!(tokenInfo instanceof FastTokenInfo)) {
+            return -1;
+        }
+        FastTokenInfo fastTokenInfo = (FastTokenInfo) tokenInfo;
+        int depth = 0;
+        for (int i = Math.max(0, fromIndex); i < Math.min(toIndex, fastTokenInfo.size()); i++) {
+            byte kind = fastTokenInfo.kindAt(i);
+            if (kind == TokenKind.LEFT_PARENTHESIS) {
+                depth++;
+            } else if (kind == TokenKind.RIGHT_PARENTHESIS) {
+                depth--;
+            } else if (depth == 0 && fastTokenInfo.endAt(i) - fastTokenInfo.beginAt(i) == lowerWord.length()
+                    && TokenKind.matches(fastTokenInfo.getSource(), fastTokenInfo.beginAt(i), lowerWord)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * 简单的count参数处理
      * 只是简单的去除原select语句中被清理的参数
@@ -130,4 +180,20 @@ public abstract class AbstractDialect implements Dialect{
 
         return params;
     }
+
+    /**
+     * OFFSET ? ROWS FETCH NEXT ? ROWS ONLY分页参数处理
+     * 在参数后加入offset和limit参数
+     *
+     * @param pageInfo      the page info
+     * @param selectSql     the select sql
+     * @param paramMappings the param mappings
+     * @return the list
+     */
+    protected List<Object> doOffsetFetchParams(PageInfo pageInfo,TokenInfo selectSql, List<Object> paramMappings){
+        List<Object> params=new ArrayList<>(paramMappings);
+        params.add(ParamMapping.Builder.create(pageInfo.getOffsetParamName(),Long.class,pageInfo.getOffset()));
+        params.add(ParamMapping.Builder.create(pageInfo.getLimitParamName(),Long.class,pageInfo.getLimit()));
+        return params;
+    }
 }
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page.executor.sql.dialect;
+
+import com.hhao.common.mybatis.page.PageMetaData;
+import com.hhao.common.mybatis.page.executor.sql.SqlModel;
+import com.hhao.common.mybatis.page.executor.sql.parse.FastTokenInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenKind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * count语句生成与优化
+ * 在解析时清除的select列表、order by、limit、offset的基础上生成count语句:
+ * 1、普通查询:SELECT COUNT(*) from ... where ...
+ * 2、最外层为distinct、group by或union的查询,清除select列表会改变行数,保留select列表并包装为派生表:
+ * SELECT COUNT(*) FROM ( select distinct ... ) count_table,派生表中不保留order by、limit、offset及for子句
+ * 3、移除最外层查询中未被引用的left join,需开启PageMetaData#COUNT_REMOVE_LEFT_JOIN
+ * 只有left join的表按唯一键关联(多对一)时才不影响总行数,因此默认关闭
+ * 被移除的join不能包含参数,被join的表(别名)不能在其它子句中引用
+ * count语句的参数按保留的参数token重新生成
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class CountSqlOptimizer {
+    private static final String[] JOIN_END_WORDS = new String[]{"left", "right", "inner", "join", "cross", "full", "natural", "straight_join", "outer"};
+    private static final String DERIVED_TABLE_ALIAS = "count_table";
+
+    private CountSqlOptimizer() {
+    }
+
+    /**
+     * 生成count语句及参数
+     * 只支持FastTokenInfo,其它TokenInfo返回null,由Dialect自行生成
+     *
+     * @param selectSql     原始select语句
+     * @param paramMappings 原始select语句的参数
+     * @return the sql model
+     */
+    public static SqlModel buildCountSql(TokenInfo selectSql, List<Object> paramMappings) {
+        if (!(selectSql instanceof FastTokenInfo)) {
+            return null;
+        }
+        FastTokenInfo tokenInfo = (FastTokenInfo) selectSql;
+        int size = tokenInfo.size();
+        boolean wrap = needWrap(tokenInfo);
+        //需要保留的token
+        boolean[] keeps = new boolean[size];
+        int selectItemsEnd = wrap ? selectItemsEnd(tokenInfo) : 0;
+        int forIndex = tokenInfo.getRootKeywordIndex(TokenKind.FOR);
+        int end = wrap && forIndex >= 0 ? forIndex : size;
+        for (int i = 0; i < end; i++) {
+            keeps[i] = i < selectItemsEnd || !tokenInfo.isCleanAt(i);
+        }
+        if (PageMetaData.COUNT_REMOVE_LEFT_JOIN) {
+            removeLeftJoins(tokenInfo, keeps);
+        }
+
+        StringBuilder sql = new StringBuilder(tokenInfo.getSql().length() + 48);
+        List<Object> params = new ArrayList<>(tokenInfo.paramCount());
+        sql.append(wrap ? "SELECT COUNT(*) FROM (" : "SELECT COUNT(*)");
+        for (int i = 0; i < size; i++) {
+            if (!keeps[i]) {
+                continue;
+            }
+            tokenInfo.appendRange(sql, i, i + 1, null);
+            if (tokenInfo.kindAt(i) == TokenKind.PARAM) {
+                params.add(paramMappings.get(tokenInfo.paramIndexOf(i)));
+            }
+        }
+        sql.append(wrap ? ") " + DERIVED_TABLE_ALIAS + " " : " ");
+        return new SqlModel(sql.toString(), params);
+    }
+
+    /**
+     * 最外层为union、group by或select distinct时需要包装为派生表
+     */
+    private static boolean needWrap(FastTokenInfo tokenInfo) {
+        if (tokenInfo.isUnion() || tokenInfo.getRootKeywordIndex(TokenKind.GROUP) >= 0) {
+            return true;
+        }
+        int selectIndex = tokenInfo.getRootKeywordIndex(TokenKind.SELECT);
+        return selectIndex >= 0 && tokenInfo.getRootKeywordIndex(TokenKind.DISTINCT) == selectIndex + 1;
+    }
+
+    /**
+     * 返回最外层select列表的结束位置,即最外层第一个from或union的位置
+     */
+    private static int selectItemsEnd(FastTokenInfo tokenInfo) {
+        int end = tokenInfo.size();
+        int fromIndex = tokenInfo.getRootKeywordIndex(TokenKind.FROM);
+        int unionIndex = tokenInfo.getRootKeywordIndex(TokenKind.UNION);
+        if (fromIndex >= 0) {
+            end = fromIndex;
+        }
+        if (unionIndex >= 0 && unionIndex < end) {
+            end = unionIndex;
+        }
+        return end;
+    }
+
+    /**
+     * 反复移除未被引用的left join,直到没有可移除的join
+     */
+    private static void removeLeftJoins(FastTokenInfo tokenInfo, boolean[] keeps) {
+        boolean found = true;
+        while (found) {
+            found = false;
+            int depth = 0;
+            for (int i = 0; i < tokenInfo.size(); i++) {
+                byte kind = tokenInfo.kindAt(i);
+                if (kind == TokenKind.LEFT_PARENTHESIS) {
+                    depth++;
+                } else if (kind == TokenKind.RIGHT_PARENTHESIS) {
+                    depth--;
+                } else if (depth == 0 && keeps[i] && is(tokenInfo, i, "left")) {
+                    int end = removableJoinEnd(tokenInfo, i, keeps);
+                    if (end > i) {
+                        for (int j = i; j < end; j++) {
+                            keeps[j] = false;
+                        }
+                        found = true;
+                        i = end - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 判断从leftIndex开始的left join是否可以移除,可以移除时返回join的结束位置(不含),否则返回-1
+     */
+    private static int removableJoinEnd(FastTokenInfo tokenInfo, int leftIndex, boolean[] keeps) {
+        int size = tokenInfo.size();
+        int i = leftIndex + 1;
+        if (i < size && is(tokenInfo, i, "outer")) {
+            i++;
+        }
+        if (i >= size || !is(tokenInfo, i, "join")) {
+            return -1;
+        }
+        i++;
+        //被join的表或子查询
+        if (i >= size) {
+            return -1;
+        }
+        int tableIndex = i;
+        if (tokenInfo.kindAt(i) == TokenKind.LEFT_PARENTHESIS) {
+            i = skipParentheses(tokenInfo, i);
+        } else {
+            i++;
+        }
+        if (i < size && is(tokenInfo, i, "as")) {
+            i++;
+        }
+        String alias;
+        if (i < size && tokenInfo.kindAt(i) == TokenKind.OTHER && !is(tokenInfo, i, "on")) {
+            alias = text(tokenInfo, i);
+            i++;
+        } else if (tokenInfo.kindAt(tableIndex) == TokenKind.OTHER) {
+            alias = text(tokenInfo, tableIndex);
+        } else {
+            return -1;
+        }
+        if (i >= size || !is(tokenInfo, i, "on")) {
+            return -1;
+        }
+        //on条件直到下一个join或子句
+        int end = i + 1;
+        int depth = 0;
+        while (end < size) {
+            byte kind = tokenInfo.kindAt(end);
+            if (kind == TokenKind.LEFT_PARENTHESIS) {
+                depth++;
+            } else if (kind == TokenKind.RIGHT_PARENTHESIS) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+            } else if (depth == 0 && (kind != TokenKind.OTHER && kind != TokenKind.PARAM || isJoinWord(tokenInfo, end))) {
+                break;
+            }
+            end++;
+        }
+        for (int j = leftIndex; j < end; j++) {
+            if (tokenInfo.kindAt(j) == TokenKind.PARAM) {
+                return -1;
+            }
+        }
+        if (isReferenced(tokenInfo, alias, leftIndex, end, keeps)) {
+            return -1;
+        }
+        return end;
+    }
+
+    private static int skipParentheses(FastTokenInfo tokenInfo, int i) {
+        int depth = 0;
+        for (; i < tokenInfo.size(); i++) {
+            byte kind = tokenInfo.kindAt(i);
+            if (kind == TokenKind.LEFT_PARENTHESIS) {
+                depth++;
+            } else if (kind == TokenKind.RIGHT_PARENTHESIS && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * 判断[from,to)之外保留的token是否引用了alias
+     */
+    private static boolean isReferenced(FastTokenInfo tokenInfo, String alias, int from, int to, boolean[] keeps) {
+        if (alias.isEmpty() || alias.charAt(0) == '`' || alias.charAt(0) == '"' || alias.charAt(0) == '[') {
+            //带引号的别名不做判断
+            return true;
+        }
+        CharSequence source = tokenInfo.getSource();
+        for (int i = 0; i < tokenInfo.size(); i++) {
+            if (i >= from && i < to) {
+                continue;
+            }
+            if (!keeps[i] || tokenInfo.kindAt(i) != TokenKind.OTHER) {
+                continue;
+            }
+            if (containsQualifier(source, tokenInfo.beginAt(i), tokenInfo.endAt(i), alias)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断[begin,end)中是否出现"alias."
+     */
+    private static boolean containsQualifier(CharSequence source, int begin, int end, String alias) {
+        int length = alias.length();
+        for (int i = begin; i + length < end; i++) {
+            if (source.charAt(i + length) == '.'
+                    && (i == begin || !isIdentifierChar(source.charAt(i - 1)))
+                    && regionMatches(source, i, alias)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(CharSequence source, int begin, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.toLowerCase(source.charAt(begin + i)) != Character.toLowerCase(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.';
+    }
+
+    private static boolean isJoinWord(FastTokenInfo tokenInfo, int index) {
+        for (String word : JOIN_END_WORDS) {
+            if (is(tokenInfo, index, word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean is(FastTokenInfo tokenInfo, int index, String lowerWord) {
+        return tokenInfo.endAt(index) - tokenInfo.beginAt(index) == lowerWord.length()
+                && TokenKind.matches(tokenInfo.getSource(), tokenInfo.beginAt(index), lowerWord);
+    }
+
+    private static String text(FastTokenInfo tokenInfo, int index) {
+        return tokenInfo.getSource().subSequence(tokenInfo.beginAt(index), tokenInfo.endAt(index)).toString();
+    }
+}
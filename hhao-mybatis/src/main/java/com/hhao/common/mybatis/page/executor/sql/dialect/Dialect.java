@@ -71,4 +71,28 @@ public interface Dialect {
      * @return sql model
      */
     SqlModel buildCountSql(PageInfo pageInfo, TokenInfo selectSql, List<Object> paramMappings);
+
+    /**
+     * 构建估算总行数的语句,通常为count语句的执行计划
+     * 返回null时表示不支持估算,直接执行count语句
+     *
+     * @param pageInfo the page info
+     * @param countSql count语句,参数与count语句相同
+     * @return the string
+     */
+    default String buildEstimatedCountSql(PageInfo pageInfo, String countSql) {
+        return null;
+    }
+
+    /**
+     * 从估算语句的结果中读取估算的总行数
+     * 结果的每行以Map返回,无法估算时返回-1
+     *
+     * @param pageInfo the page info
+     * @param result   估算语句的结果
+     * @return the long
+     */
+    default long getEstimatedCount(PageInfo pageInfo, List<Object> result) {
+        return -1L;
+    }
 }
@@ -23,10 +23,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The type Dialect factory.
+ * 按注册顺序匹配Dialect,匹配结果按dbName缓存,同一数据库的后续查询直接返回缓存的Dialect
+ * 因此Dialect#support的结果应只与dbName有关
  *
  * @author Wang
  * @since 2021 /11/27 10:03
@@ -34,6 +38,10 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class DialectFactory {
     private static final Logger log = LoggerFactory.getLogger(DialectFactory.class);
     private static List<Dialect> dialects = new CopyOnWriteArrayList<>();
+    /**
+     * dbName与匹配到的Dialect,dbName为null时以空串为key
+     */
+    private static final ConcurrentMap<String, Dialect> resolvedDialects = new ConcurrentHashMap<>();
 
     /**
      * 根据dbName返回查询到的Dialect
@@ -43,10 +51,16 @@ public class DialectFactory {
      * @return the dialect
      */
     public static Dialect getDialect(PageInfo pageInfo,String dbName){
+        String key = dbName == null ? "" : dbName;
+        Dialect resolved = resolvedDialects.get(key);
+        if (resolved != null) {
+            return resolved;
+        }
         for(Dialect dialect:dialects){
             if (dialect.support(pageInfo,dbName)){
-                log.info("Dialect:{}",dialect.getClass().getName());
-                return dialect;
+                log.debug("Database:{}, Dialect:{}", dbName, dialect.getClass().getName());
+                resolved = resolvedDialects.putIfAbsent(key, dialect);
+                return resolved != null ? resolved : dialect;
             }
         }
         throw new MyBatisException("Could not find a matching Dialect.");
@@ -59,5 +73,6 @@ public class DialectFactory {
      */
     public static void register(Dialect dialect){
         dialects.add(dialect);
+        resolvedDialects.clear();
     }
 }
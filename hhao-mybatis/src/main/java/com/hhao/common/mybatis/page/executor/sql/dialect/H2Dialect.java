@@ -0,0 +1,51 @@
+
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page.executor.sql.dialect;
+
+import com.hhao.common.mybatis.page.PageInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.SqlParse;
+import com.hhao.common.mybatis.page.executor.sql.parse.SqlParseFactory;
+
+/**
+ * H2方言
+ * 分页语法与MySQL相同(LIMIT ? OFFSET ?),执行计划不提供行数估算,不支持估算总行数
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class H2Dialect extends MySqlDialect {
+
+    /**
+     * Instantiates a new H2 dialect.
+     */
+    public H2Dialect() {
+        super(new String[]{"h2"});
+    }
+
+    /**
+     * 字符串常量中的反斜杠为普通字符,使用标准sql的解析器
+     */
+    @Override
+    public SqlParse getSqlParse(PageInfo pageInfo, String dbName) {
+        return SqlParseFactory.getStandardSqlParse();
+    }
+
+    @Override
+    public String buildEstimatedCountSql(PageInfo pageInfo, String countSql) {
+        return null;
+    }
+}
@@ -22,6 +22,7 @@ import com.hhao.common.mybatis.page.executor.sql.SqlModel;
 import com.hhao.common.mybatis.page.executor.sql.parse.TokenInfo;
 
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -36,6 +37,15 @@ public class MySqlDialect extends AbstractDialect{
         super(new String[]{"mysql"});
     }
 
+    /**
+     * 供LIMIT/OFFSET语法相同的数据库继承
+     *
+     * @param supportDbs the support dbs
+     */
+    protected MySqlDialect(String[] supportDbs) {
+        super(supportDbs);
+    }
+
     @Override
     public boolean hasPaged(PageInfo pageInfo, TokenInfo tokenInfo) {
         return tokenInfo.isContainLimit();
@@ -63,7 +73,11 @@ public class MySqlDialect extends AbstractDialect{
 
     @Override
     public SqlModel buildCountSql(PageInfo pageInfo, TokenInfo selectSql, List<Object> paramMappings){
-        //count语句处理
+        //count语句处理,distinct、group by、union语句包装为派生表
+        SqlModel countSql=CountSqlOptimizer.buildCountSql(selectSql,paramMappings);
+        if (countSql!=null){
+            return countSql;
+        }
         String sql="";
         //如果是union复杂语句，建议自己定义count语句
         if(selectSql.isUnion()){
@@ -76,4 +90,41 @@ public class MySqlDialect extends AbstractDialect{
         List<Object> params=this.doCountParams(selectSql,paramMappings);
         return new SqlModel(sql,params);
     }
+
+    @Override
+    public String buildEstimatedCountSql(PageInfo pageInfo, String countSql) {
+        return "EXPLAIN " + countSql;
+    }
+
+    /**
+     * 取执行计划第一行(驱动表)的rows*filtered/100作为估算行数
+     *
+     * @param pageInfo the page info
+     * @param result   估算语句的结果
+     * @return the long
+     */
+    @Override
+    public long getEstimatedCount(PageInfo pageInfo, List<Object> result) {
+        if (result == null || result.isEmpty() || !(result.get(0) instanceof Map)) {
+            return -1L;
+        }
+        Object rows = null;
+        Object filtered = null;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) result.get(0)).entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            if ("rows".equalsIgnoreCase(key)) {
+                rows = entry.getValue();
+            } else if ("filtered".equalsIgnoreCase(key)) {
+                filtered = entry.getValue();
+            }
+        }
+        if (!(rows instanceof Number)) {
+            return -1L;
+        }
+        double estimated = ((Number) rows).doubleValue();
+        if (filtered instanceof Number) {
+            estimated = estimated * ((Number) filtered).doubleValue() / 100;
+        }
+        return (long) estimated;
+    }
 }
@@ -0,0 +1,117 @@
+
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page.executor.sql.dialect;
+
+import com.hhao.common.mybatis.page.PageInfo;
+import com.hhao.common.mybatis.page.exception.MyBatisException;
+import com.hhao.common.mybatis.page.executor.sql.SqlModel;
+import com.hhao.common.mybatis.page.executor.sql.parse.SqlParse;
+import com.hhao.common.mybatis.page.executor.sql.parse.SqlParseFactory;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenKind;
+
+import java.util.List;
+
+/**
+ * Oracle方言,适用于Oracle 12c及以上版本
+ * 分页使用OFFSET ? ROWS FETCH NEXT ? ROWS ONLY,参数顺序为offset、limit
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class OracleDialect extends AbstractDialect {
+
+    /**
+     * Instantiates a new Oracle dialect.
+     */
+    public OracleDialect() {
+        super(new String[]{"oracle"});
+    }
+
+    /**
+     * 供OFFSET/FETCH语法相同的数据库继承
+     *
+     * @param supportDbs the support dbs
+     */
+    protected OracleDialect(String[] supportDbs) {
+        super(supportDbs);
+    }
+
+    /**
+     * 字符串常量中的反斜杠为普通字符,使用标准sql的解析器
+     */
+    @Override
+    public SqlParse getSqlParse(PageInfo pageInfo, String dbName) {
+        return SqlParseFactory.getStandardSqlParse();
+    }
+
+    /**
+     * 最外层查询中存在OFFSET或FETCH子句时视为已分页
+     *
+     * @param pageInfo  the page info
+     * @param tokenInfo the token info
+     * @return the boolean
+     */
+    @Override
+    public boolean hasPaged(PageInfo pageInfo, TokenInfo tokenInfo) {
+        return tokenInfo.isContainLimit()
+                || rootKeywordIndex(tokenInfo, TokenKind.OFFSET) >= 0
+                || rootWordIndex(tokenInfo, "fetch", 0, Integer.MAX_VALUE) >= 0;
+    }
+
+    @Override
+    public SqlModel buildPageSql(PageInfo pageInfo, TokenInfo selectSql, List<Object> paramMappings) {
+        //如果是union复杂语句，建议自己定义分页语句
+        if (selectSql.isUnion()) {
+            throw new MyBatisException("For performance, you need to define select page yourself");
+        }
+        StringBuilder sql = new StringBuilder(selectSql.getSql());
+        appendOrderBy(selectSql, sql);
+        sql.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+
+        //添加分页参数
+        List<Object> params = this.doOffsetFetchParams(pageInfo, selectSql, paramMappings);
+        return new SqlModel(sql.toString(), params);
+    }
+
+    @Override
+    public SqlModel buildCountSql(PageInfo pageInfo, TokenInfo selectSql, List<Object> paramMappings) {
+        //count语句处理,distinct、group by、union语句包装为派生表
+        SqlModel countSql = CountSqlOptimizer.buildCountSql(selectSql, paramMappings);
+        if (countSql != null) {
+            return countSql;
+        }
+        //如果是union复杂语句，建议自己定义count语句
+        if (selectSql.isUnion()) {
+            throw new MyBatisException("For performance, define your own");
+        }
+        String sql = String.format("SELECT COUNT(*) %s ", selectSql.getCleanSql());
+
+        //count语句参数处理
+        List<Object> params = this.doCountParams(selectSql, paramMappings);
+        return new SqlModel(sql, params);
+    }
+
+    /**
+     * OFFSET之前是否需要补充ORDER BY,Oracle不需要
+     *
+     * @param selectSql the select sql
+     * @param sql       the sql
+     */
+    protected void appendOrderBy(TokenInfo selectSql, StringBuilder sql) {
+    }
+}
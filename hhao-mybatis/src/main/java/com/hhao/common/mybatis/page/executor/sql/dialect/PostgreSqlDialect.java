@@ -0,0 +1,99 @@
+
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page.executor.sql.dialect;
+
+import com.hhao.common.mybatis.page.PageInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.SqlParse;
+import com.hhao.common.mybatis.page.executor.sql.parse.SqlParseFactory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PostgreSQL方言
+ * 分页语法与MySQL相同(LIMIT ? OFFSET ?)
+ * 估算总行数使用EXPLAIN,取执行计划中最大的rows作为估算行数
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class PostgreSqlDialect extends MySqlDialect {
+
+    /**
+     * Instantiates a new PostgreSQL dialect.
+     */
+    public PostgreSqlDialect() {
+        super(new String[]{"postgresql"});
+    }
+
+    /**
+     * 字符串常量中的反斜杠为普通字符,使用标准sql的解析器
+     */
+    @Override
+    public SqlParse getSqlParse(PageInfo pageInfo, String dbName) {
+        return SqlParseFactory.getStandardSqlParse();
+    }
+
+    @Override
+    public String buildEstimatedCountSql(PageInfo pageInfo, String countSql) {
+        return "EXPLAIN " + countSql;
+    }
+
+    /**
+     * EXPLAIN每行返回执行计划的一个节点,如:Seq Scan on book  (cost=0.00..18.50 rows=850 width=0)
+     * count语句的根节点为Aggregate(rows=1),取所有节点中最大的rows
+     *
+     * @param pageInfo the page info
+     * @param result   估算语句的结果
+     * @return the long
+     */
+    @Override
+    public long getEstimatedCount(PageInfo pageInfo, List<Object> result) {
+        if (result == null) {
+            return -1L;
+        }
+        long estimated = -1L;
+        for (Object row : result) {
+            if (!(row instanceof Map)) {
+                continue;
+            }
+            for (Object value : ((Map<?, ?>) row).values()) {
+                if (value != null) {
+                    estimated = Math.max(estimated, parseRows(value.toString()));
+                }
+            }
+        }
+        return estimated;
+    }
+
+    /**
+     * 读取计划行中rows=后的数值,不存在时返回-1
+     */
+    private long parseRows(String plan) {
+        int index = plan.indexOf(" rows=");
+        if (index < 0) {
+            return -1L;
+        }
+        long rows = 0;
+        boolean found = false;
+        for (int i = index + 6; i < plan.length() && Character.isDigit(plan.charAt(i)); i++) {
+            rows = rows * 10 + (plan.charAt(i) - '0');
+            found = true;
+        }
+        return found ? rows : -1L;
+    }
+}
@@ -0,0 +1,66 @@
+
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.mybatis.page.executor.sql.dialect;
+
+import com.hhao.common.mybatis.page.PageInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenInfo;
+import com.hhao.common.mybatis.page.executor.sql.parse.TokenKind;
+
+/**
+ * SQL Server方言,适用于SQL Server 2012及以上版本
+ * 分页使用OFFSET ? ROWS FETCH NEXT ? ROWS ONLY,OFFSET要求存在ORDER BY,没有时补充ORDER BY (SELECT NULL)
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class SqlServerDialect extends OracleDialect {
+
+    /**
+     * Instantiates a new SQL Server dialect.
+     */
+    public SqlServerDialect() {
+        super(new String[]{"sql server"});
+    }
+
+    /**
+     * 最外层查询中存在OFFSET子句或SELECT TOP时视为已分页
+     *
+     * @param pageInfo  the page info
+     * @param tokenInfo the token info
+     * @return the boolean
+     */
+    @Override
+    public boolean hasPaged(PageInfo pageInfo, TokenInfo tokenInfo) {
+        if (rootKeywordIndex(tokenInfo, TokenKind.OFFSET) >= 0) {
+            return true;
+        }
+        int selectIndex = rootKeywordIndex(tokenInfo, TokenKind.SELECT);
+        if (selectIndex < 0) {
+            return false;
+        }
+        int topIndex = rootWordIndex(tokenInfo, "top", selectIndex + 1, selectIndex + 3);
+        return topIndex == selectIndex + 1
+                || topIndex == selectIndex + 2 && rootKeywordIndex(tokenInfo, TokenKind.DISTINCT) == selectIndex + 1;
+    }
+
+    @Override
+    protected void appendOrderBy(TokenInfo selectSql, StringBuilder sql) {
+        if (rootKeywordIndex(selectSql, TokenKind.ORDER) < 0) {
+            sql.append(" ORDER BY (SELECT NULL)");
+        }
+    }
+}
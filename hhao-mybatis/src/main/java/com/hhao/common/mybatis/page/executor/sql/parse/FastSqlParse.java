@@ -0,0 +1,151 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page.executor.sql.parse;
+
+import java.util.List;
+
+/**
+ * 单遍扫描的sql词法分析
+ * 直接按下标扫描原始sql,token以字符区间交给FastTokenParse,不复制sql,也不生成token字符串
+ * 与DefaultSqlParse的分词规则相同(以空白及,();?分隔),另外:
+ * 1、'...'、"..."、`...`作为一个整体,其中的空白、分隔符及?不参与分词
+ * 2、跳过--行注释及块注释,以/*+开头的优化器提示作为token保留
+ * <p>
+ * 无状态,线程安全
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class FastSqlParse implements SqlParse {
+    private final ParseRule parseRule;
+
+    /**
+     * Instantiates a new Fast sql parse.
+     */
+    public FastSqlParse() {
+        this(new ParseRule());
+    }
+
+    /**
+     * Instantiates a new Fast sql parse.
+     *
+     * @param parseRule the parse rule
+     */
+    public FastSqlParse(ParseRule parseRule) {
+        this.parseRule = parseRule;
+    }
+
+    @Override
+    public List<TokenInfo> parseSql(String sql) {
+        FastTokenParse tokenParse = new FastTokenParse(parseRule, sql);
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && isNext(sql, i, '-')) {
+                i = skipLineComment(sql, i + 2);
+            } else if (c == '/' && isNext(sql, i, '*')) {
+                int end = skipBlockComment(sql, i + 2);
+                if (i + 2 < length && sql.charAt(i + 2) == '+') {
+                    tokenParse.parseToken(TokenKind.OTHER, i, end);
+                }
+                i = end;
+            } else if (isDelimiter(c)) {
+                //遇到,();?时一个token的结束处理
+                tokenParse.parseToken(TokenKind.classify(sql, i, i + 1), i, i + 1);
+                i++;
+            } else {
+                int begin = i;
+                i = scanWord(sql, i);
+                tokenParse.parseToken(TokenKind.classify(sql, begin, i), begin, i);
+            }
+        }
+        return tokenParse.getTokenInfos();
+    }
+
+    /**
+     * 扫描一个token,返回结束位置(不含)
+     */
+    private int scanWord(String sql, int i) {
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (isWhitespace(c) || isDelimiter(c)) {
+                break;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if ((c == '-' && isNext(sql, i, '-')) || (c == '/' && isNext(sql, i, '*'))) {
+                break;
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * 跳过引号中的内容,返回结束引号之后的位置
+     * 两个连续的引号为转义;反斜杠转义由ParseRule#isBackslashEscape控制,不作用于`
+     */
+    private int skipQuoted(String sql, int i, char quote) {
+        int length = sql.length();
+        int j = i + 1;
+        while (j < length) {
+            char c = sql.charAt(j);
+            if (c == '\\' && quote != '`' && parseRule.isBackslashEscape()) {
+                j += 2;
+            } else if (c == quote) {
+                if (isNext(sql, j, quote)) {
+                    j += 2;
+                } else {
+                    return j + 1;
+                }
+            } else {
+                j++;
+            }
+        }
+        return length;
+    }
+
+    private int skipLineComment(String sql, int i) {
+        int length = sql.length();
+        while (i < length && sql.charAt(i) != '\n' && sql.charAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    private int skipBlockComment(String sql, int i) {
+        int end = sql.indexOf("*/", i);
+        return end < 0 ? sql.length() : end + 2;
+    }
+
+    private static boolean isNext(String sql, int i, char c) {
+        return i + 1 < sql.length() && sql.charAt(i + 1) == c;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == ',' || c == '(' || c == ')' || c == ';' || c == '?';
+    }
+}
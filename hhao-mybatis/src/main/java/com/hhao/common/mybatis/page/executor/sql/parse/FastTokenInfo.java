@@ -0,0 +1,293 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page.executor.sql.parse;
+
+import com.hhao.common.mybatis.page.executor.sql.token.SqlParamToken;
+import com.hhao.common.mybatis.page.executor.sql.token.SqlToken;
+import com.hhao.common.mybatis.page.executor.sql.token.Token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于原始sql字符区间的解析结果
+ * token只记录在原始sql中的起止位置,sql及token对象在首次使用时才生成并缓存
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class FastTokenInfo implements TokenInfo {
+    private final CharSequence source;
+    private final int[] begins;
+    private final int[] ends;
+    private final byte[] kinds;
+    private final boolean[] cleans;
+    private final int size;
+    private final int[] paramPositions;
+    private final int paramCount;
+    private final int[] rootKeywordIndexes;
+    private final boolean union;
+    private final boolean containLimit;
+
+    private String sql;
+    private String cleanSql;
+    private List<Token> tokens;
+    private List<Token> paramTokens;
+
+    /**
+     * Instantiates a new Fast token info.
+     *
+     * @param source         原始sql
+     * @param begins         token的起始位置
+     * @param ends           token的结束位置(不含)
+     * @param kinds          token的类型
+     * @param cleans         token是否清除
+     * @param size           token数
+     * @param paramPositions 参数占位符token的序列位置
+     * @param paramCount     参数数
+     * @param rootKeywordIndexes 最外层查询中各关键字首次出现的token序列位置,按TokenKind取值索引
+     * @param union          the union
+     * @param containLimit   the contain limit
+     */
+    public FastTokenInfo(CharSequence source, int[] begins, int[] ends, byte[] kinds, boolean[] cleans, int size,
+                         int[] paramPositions, int paramCount, int[] rootKeywordIndexes, boolean union, boolean containLimit) {
+        this.source = source;
+        this.begins = begins;
+        this.ends = ends;
+        this.kinds = kinds;
+        this.cleans = cleans;
+        this.size = size;
+        this.paramPositions = paramPositions;
+        this.paramCount = paramCount;
+        this.rootKeywordIndexes = rootKeywordIndexes;
+        this.union = union;
+        this.containLimit = containLimit;
+    }
+
+    @Override
+    public List<Token> getTokens() {
+        if (tokens == null) {
+            List<Token> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Token token = kinds[i] == TokenKind.PARAM ? new SqlParamToken(tokenValue(i)) : new SqlToken(tokenValue(i));
+                token.setIndex(i);
+                token.setClean(cleans[i]);
+                list.add(token);
+            }
+            for (Token paramToken : getParamTokens()) {
+                list.set(paramToken.getIndex(), paramToken);
+            }
+            tokens = Collections.unmodifiableList(list);
+        }
+        return tokens;
+    }
+
+    @Override
+    public List<Token> getParamTokens() {
+        if (paramTokens == null) {
+            List<Token> list = new ArrayList<>(paramCount);
+            for (int i = 0; i < paramCount; i++) {
+                int position = paramPositions[i];
+                SqlParamToken token = new SqlParamToken(SqlKeyword.PARAM.getValue());
+                token.setIndex(position);
+                token.setClean(cleans[position]);
+                token.setParamIndex(i);
+                list.add(token);
+            }
+            paramTokens = Collections.unmodifiableList(list);
+        }
+        return paramTokens;
+    }
+
+    @Override
+    public String getSql() {
+        if (sql == null) {
+            sql = join(false);
+        }
+        return sql;
+    }
+
+    @Override
+    public String getCleanSql() {
+        if (cleanSql == null) {
+            cleanSql = join(true);
+        }
+        return cleanSql;
+    }
+
+    @Override
+    public boolean isUnion() {
+        return union;
+    }
+
+    @Override
+    public boolean isContainLimit() {
+        return containLimit;
+    }
+
+    /**
+     * token数
+     *
+     * @return the int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 返回token类型
+     *
+     * @param index the index
+     * @return the byte
+     */
+    public byte kindAt(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * 返回token在原始sql中的起始位置
+     *
+     * @param index the index
+     * @return the int
+     */
+    public int beginAt(int index) {
+        return begins[index];
+    }
+
+    /**
+     * 返回token在原始sql中的结束位置(不含)
+     *
+     * @param index the index
+     * @return the int
+     */
+    public int endAt(int index) {
+        return ends[index];
+    }
+
+    /**
+     * token是否清除
+     *
+     * @param index the index
+     * @return the boolean
+     */
+    public boolean isCleanAt(int index) {
+        return cleans[index];
+    }
+
+    /**
+     * 返回最外层查询中关键字首次出现的token序列位置
+     * 用于在最外层查询中定位where、group by、order by、limit等子句
+     *
+     * @param kind TokenKind中的关键字类型
+     * @return 序列位置, 不存在时返回-1
+     */
+    public int getRootKeywordIndex(byte kind) {
+        return kind >= 0 && kind < rootKeywordIndexes.length ? rootKeywordIndexes[kind] : -1;
+    }
+
+    /**
+     * 返回参数占位符的序列位置
+     *
+     * @param paramIndex 参数序号
+     * @return the int
+     */
+    public int paramPositionAt(int paramIndex) {
+        return paramPositions[paramIndex];
+    }
+
+    /**
+     * 参数数
+     *
+     * @return the int
+     */
+    public int paramCount() {
+        return paramCount;
+    }
+
+    /**
+     * 将[fromIndex,toIndex)区间的token按getSql相同的格式追加到buf,区间内参数的序号按顺序加入params
+     *
+     * @param buf       the buf
+     * @param fromIndex the from index
+     * @param toIndex   the to index
+     * @param params    参数序号的收集列表,可为null
+     */
+    public void appendRange(StringBuilder buf, int fromIndex, int toIndex, List<Integer> params) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (kinds[i] != TokenKind.LEFT_PARENTHESIS && kinds[i] != TokenKind.RIGHT_PARENTHESIS) {
+                buf.append(' ');
+            }
+            buf.append(source, begins[i], ends[i]);
+            if (kinds[i] == TokenKind.PARAM && params != null) {
+                params.add(paramIndexOf(i));
+            }
+        }
+    }
+
+    /**
+     * 返回token位置对应的参数序号
+     *
+     * @param position token序列位置
+     * @return 参数序号, 不是参数时返回-1
+     */
+    public int paramIndexOf(int position) {
+        int index = Arrays.binarySearch(paramPositions, 0, paramCount, position);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Gets source.
+     *
+     * @return the source
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
+    private String tokenValue(int index) {
+        return source.subSequence(begins[index], ends[index]).toString();
+    }
+
+    /**
+     * 与DefaultTokenInfo相同,token之间以空格分隔,括号前不加空格
+     */
+    private String join(boolean skipClean) {
+        int length = size == 0 ? 0 : ends[size - 1] - begins[0] + 1;
+        StringBuilder buf = new StringBuilder(length);
+        for (int i = 0; i < size; i++) {
+            if (skipClean && cleans[i]) {
+                continue;
+            }
+            if (kinds[i] != TokenKind.LEFT_PARENTHESIS && kinds[i] != TokenKind.RIGHT_PARENTHESIS) {
+                buf.append(' ');
+            }
+            buf.append(source, begins[i], ends[i]);
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "sql:" + this.getSql() + "\r\n" +
+                "cleanSql:" + this.getCleanSql() + "\r\n" +
+                "isUnion:" + isUnion() +
+                "containLimit:" + containLimit +
+                "paramTokens:" + getParamTokens();
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page.executor.sql.parse;
+
+import com.hhao.common.mybatis.page.executor.sql.token.Token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基于字符区间的token解析
+ * 与DefaultTokenParse的清除规则相同,区别在于:
+ * 1、token以类型及在原始sql中的起止位置记录,不生成token对象和字符串
+ * 2、子句状态用int数组实现的栈保存,进入括号时压栈,离开括号时恢复
+ * 3、order by、limit、offset的清除只作用于最外层查询,子查询中的分页保持不变
+ * 4、union、limit标记只以最外层查询为准
+ * <p>
+ * 通过FastSqlParse使用时按字符区间输入;也支持按{@link #parseToken(Token)}逐个输入token
+ * 非线程安全,每条sql语句使用一个实例
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class FastTokenParse implements TokenParse {
+    private static final int INITIAL_CAPACITY = 32;
+
+    /**
+     * 子句类型,与TokenKind的关键字取值一致
+     */
+    private static final int CLAUSE_NONE = 0;
+
+    /**
+     * token清除规则
+     */
+    protected final ParseRule parseRule;
+    /**
+     * 原始sql,按token输入时为内部拼接的sql
+     */
+    private final CharSequence source;
+    private final StringBuilder tokenSource;
+
+    private final List<TokenInfo> tokenInfos = new ArrayList<>(2);
+
+    private int[] begins;
+    private int[] ends;
+    private byte[] kinds;
+    private boolean[] cleans;
+    private int size;
+    private int[] paramPositions;
+    private int paramCount;
+    /**
+     * 最外层查询中各关键字首次出现的token序列位置
+     */
+    private int[] rootKeywordIndexes = newRootKeywordIndexes();
+
+    /**
+     * 括号栈,保存进入括号前的状态
+     */
+    private final IntStack parenthesesStack = new IntStack();
+    /**
+     * 当前子句
+     */
+    private int clause = CLAUSE_NONE;
+    /**
+     * 当前是否在最外层查询中
+     */
+    private boolean rootScope = true;
+    /**
+     * 当前查询内非子查询括号的嵌套层数,大于0时关键字不改变子句
+     */
+    private int opaqueDepth = 0;
+    /**
+     * 上一个token是否是左括号
+     */
+    private boolean afterLeftParenthesis = false;
+    /**
+     * 最外层select是否已出现
+     */
+    private boolean rootSelectSeen = false;
+    /**
+     * 是否在最外层的select列表中
+     */
+    private boolean inRootSelectItems = false;
+    private boolean union = false;
+    private boolean containLimit = false;
+
+    /**
+     * 按token输入
+     *
+     * @param parseRule the parse rule
+     */
+    public FastTokenParse(ParseRule parseRule) {
+        this.parseRule = parseRule;
+        this.tokenSource = new StringBuilder();
+        this.source = tokenSource;
+    }
+
+    /**
+     * 按原始sql的字符区间输入
+     *
+     * @param parseRule the parse rule
+     * @param source    原始sql
+     */
+    public FastTokenParse(ParseRule parseRule, CharSequence source) {
+        this.parseRule = parseRule;
+        this.tokenSource = null;
+        this.source = source;
+        this.initArrays(Math.max(INITIAL_CAPACITY, source.length() / 6));
+    }
+
+    @Override
+    public void parseToken(Token token) {
+        if (tokenSource == null) {
+            throw new IllegalStateException("FastTokenParse created with sql source only accepts token ranges");
+        }
+        String value = token.getValue();
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        int begin = tokenSource.length();
+        tokenSource.append(value).append(' ');
+        int end = begin + value.length();
+        parseToken(TokenKind.classify(tokenSource, begin, end), begin, end);
+    }
+
+    /**
+     * 解析source中[begin,end)区间的token
+     *
+     * @param kind  the kind
+     * @param begin the begin
+     * @param end   the end
+     */
+    public void parseToken(byte kind, int begin, int end) {
+        //判断一条sql语句是否已完成
+        if (kind == TokenKind.SEPARATOR && parenthesesStack.isEmpty()) {
+            finish();
+            return;
+        }
+        boolean leftParenthesis = afterLeftParenthesis;
+        afterLeftParenthesis = false;
+        boolean clean;
+
+        switch (kind) {
+            case TokenKind.LEFT_PARENTHESIS:
+                //左括号属于括号外的子句
+                clean = isClean();
+                parenthesesStack.push(saveState());
+                opaqueDepth++;
+                afterLeftParenthesis = true;
+                break;
+            case TokenKind.RIGHT_PARENTHESIS:
+                //右括号恢复括号外的状态
+                if (!parenthesesStack.isEmpty()) {
+                    restoreState(parenthesesStack.pop());
+                }
+                clean = isClean();
+                break;
+            case TokenKind.PARAM:
+                clean = isClean();
+                addParam(size);
+                break;
+            default:
+                if (kind == TokenKind.SELECT && leftParenthesis) {
+                    //子查询
+                    rootScope = false;
+                    opaqueDepth = 0;
+                    clause = TokenKind.SELECT;
+                } else if (opaqueDepth == 0) {
+                    if (rootScope && kind <= TokenKind.DISTINCT && kind != TokenKind.OTHER && rootKeywordIndexes[kind] < 0) {
+                        rootKeywordIndexes[kind] = size;
+                    }
+                    changeClause(kind);
+                }
+                clean = isClean();
+                break;
+        }
+        add(kind, begin, end, clean);
+    }
+
+    /**
+     * 关键字改变当前子句
+     */
+    private void changeClause(byte kind) {
+        switch (kind) {
+            case TokenKind.SELECT:
+                clause = kind;
+                if (rootScope && !rootSelectSeen) {
+                    rootSelectSeen = true;
+                    inRootSelectItems = parseRule.isCleanRootSelectItems();
+                }
+                break;
+            case TokenKind.FROM:
+                clause = kind;
+                if (rootScope) {
+                    inRootSelectItems = false;
+                }
+                break;
+            case TokenKind.LIMIT:
+                clause = kind;
+                if (rootScope) {
+                    containLimit = true;
+                }
+                break;
+            case TokenKind.UNION:
+                clause = kind;
+                if (rootScope) {
+                    union = true;
+                }
+                break;
+            case TokenKind.WHERE:
+            case TokenKind.GROUP:
+            case TokenKind.HAVING:
+            case TokenKind.ORDER:
+            case TokenKind.OFFSET:
+            case TokenKind.FOR:
+                clause = kind;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 按清除规则判断当前token是否清除
+     */
+    private boolean isClean() {
+        if (inRootSelectItems) {
+            return true;
+        }
+        if (!rootScope) {
+            return false;
+        }
+        switch (clause) {
+            case TokenKind.ORDER:
+                return parseRule.isCleanOrderBy();
+            case TokenKind.LIMIT:
+                return parseRule.isCleanLimit();
+            case TokenKind.OFFSET:
+                return parseRule.isCleanOffset();
+            default:
+                return false;
+        }
+    }
+
+    private int saveState() {
+        return clause | (rootScope ? 0x100 : 0) | (opaqueDepth << 9);
+    }
+
+    private void restoreState(int state) {
+        clause = state & 0xFF;
+        rootScope = (state & 0x100) != 0;
+        opaqueDepth = state >>> 9;
+    }
+
+    private void add(byte kind, int begin, int end, boolean clean) {
+        if (begins == null) {
+            initArrays(INITIAL_CAPACITY);
+        } else if (size == begins.length) {
+            int capacity = size << 1;
+            begins = Arrays.copyOf(begins, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            cleans = Arrays.copyOf(cleans, capacity);
+        }
+        begins[size] = begin;
+        ends[size] = end;
+        kinds[size] = kind;
+        cleans[size] = clean;
+        size++;
+    }
+
+    private void addParam(int position) {
+        if (paramPositions == null) {
+            paramPositions = new int[8];
+        } else if (paramCount == paramPositions.length) {
+            paramPositions = Arrays.copyOf(paramPositions, paramCount << 1);
+        }
+        paramPositions[paramCount++] = position;
+    }
+
+    private void initArrays(int capacity) {
+        begins = new int[capacity];
+        ends = new int[capacity];
+        kinds = new byte[capacity];
+        cleans = new boolean[capacity];
+    }
+
+    /**
+     * 一条sql语句结束后的处理
+     * 数组直接交给解析结果,下一条语句使用时再重新分配
+     */
+    protected void finish() {
+        if (size > 0) {
+            tokenInfos.add(new FastTokenInfo(source, begins, ends, kinds, cleans, size,
+                    paramPositions != null ? paramPositions : new int[0], paramCount, rootKeywordIndexes, union, containLimit));
+            rootKeywordIndexes = newRootKeywordIndexes();
+            begins = null;
+            ends = null;
+            kinds = null;
+            cleans = null;
+            size = 0;
+            paramPositions = null;
+            paramCount = 0;
+        }
+        parenthesesStack.clear();
+        clause = CLAUSE_NONE;
+        rootScope = true;
+        opaqueDepth = 0;
+        afterLeftParenthesis = false;
+        rootSelectSeen = false;
+        inRootSelectItems = false;
+        union = false;
+        containLimit = false;
+    }
+
+    private static int[] newRootKeywordIndexes() {
+        int[] indexes = new int[TokenKind.DISTINCT + 1];
+        Arrays.fill(indexes, -1);
+        return indexes;
+    }
+
+    @Override
+    public List<TokenInfo> getTokenInfos() {
+        this.finish();
+        return this.tokenInfos;
+    }
+
+    /**
+     * 数组实现的int栈
+     */
+    private static final class IntStack {
+        private int[] values = new int[8];
+        private int size;
+
+        private void push(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        private int pop() {
+            return values[--size];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+    }
+}
@@ -29,6 +29,7 @@ public class ParseRule {
     private boolean cleanLimit=true;
     private boolean cleanOffset=true;
     private boolean cleanRootSelectItems =true;
+    private boolean backslashEscape=true;
 
     /**
      * Is clean order by boolean.
@@ -102,4 +103,23 @@ public class ParseRule {
         this.cleanRootSelectItems = cleanRootSelectItems;
     }
 
+    /**
+     * 字符串常量中反斜杠是否为转义符
+     * MySQL默认为true;标准sql(如PostgreSQL)中反斜杠为普通字符
+     *
+     * @return the boolean
+     */
+    public boolean isBackslashEscape() {
+        return backslashEscape;
+    }
+
+    /**
+     * Sets backslash escape.
+     *
+     * @param backslashEscape the backslash escape
+     */
+    public void setBackslashEscape(boolean backslashEscape) {
+        this.backslashEscape = backslashEscape;
+    }
+
 }
@@ -21,14 +21,38 @@ package com.hhao.common.mybatis.page.executor.sql.parse;
  * The type Sql parse factory.
  */
 public class SqlParseFactory {
+    /**
+     * FastSqlParse无状态,可共享
+     */
+    private static final SqlParse sqlParse=new FastSqlParse();
+    /**
+     * 标准sql的解析器,字符串常量中的反斜杠为普通字符
+     */
+    private static final SqlParse standardSqlParse=new FastSqlParse(standardParseRule());
 
     /**
-     * SqlParse非线程安全
+     * 返回sql解析器
+     * 默认使用FastSqlParse;DefaultSqlParse非线程安全,需要时由Dialect#getSqlParse自行创建
      *
      * @param dbName the db name
      * @return the sql parse
      */
     public static SqlParse getSqlParse(String dbName){
-        return new DefaultSqlParse();
+        return sqlParse;
+    }
+
+    /**
+     * 返回标准sql的解析器,用于反斜杠不是转义符的数据库(如PostgreSQL、Oracle、SQL Server、H2)
+     *
+     * @return the sql parse
+     */
+    public static SqlParse getStandardSqlParse(){
+        return standardSqlParse;
+    }
+
+    private static ParseRule standardParseRule(){
+        ParseRule parseRule=new ParseRule();
+        parseRule.setBackslashEscape(false);
+        return parseRule;
     }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.mybatis.page.executor.sql.parse;
+
+/**
+ * token类型
+ * 词法分析时直接按字符区间识别关键字,不生成token字符串
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class TokenKind {
+    /**
+     * 非关键字
+     */
+    public static final byte OTHER = 0;
+    /**
+     * The constant SELECT.
+     */
+    public static final byte SELECT = 1;
+    /**
+     * The constant FROM.
+     */
+    public static final byte FROM = 2;
+    /**
+     * The constant WHERE.
+     */
+    public static final byte WHERE = 3;
+    /**
+     * The constant GROUP.
+     */
+    public static final byte GROUP = 4;
+    /**
+     * The constant HAVING.
+     */
+    public static final byte HAVING = 5;
+    /**
+     * The constant ORDER.
+     */
+    public static final byte ORDER = 6;
+    /**
+     * The constant LIMIT.
+     */
+    public static final byte LIMIT = 7;
+    /**
+     * The constant OFFSET.
+     */
+    public static final byte OFFSET = 8;
+    /**
+     * The constant UNION.
+     */
+    public static final byte UNION = 9;
+    /**
+     * The constant FOR.
+     */
+    public static final byte FOR = 10;
+    /**
+     * The constant ALL.
+     */
+    public static final byte ALL = 11;
+    /**
+     * The constant DISTINCT.
+     */
+    public static final byte DISTINCT = 12;
+    /**
+     * 参数占位符?
+     */
+    public static final byte PARAM = 13;
+    /**
+     * The constant LEFT_PARENTHESIS.
+     */
+    public static final byte LEFT_PARENTHESIS = 14;
+    /**
+     * The constant RIGHT_PARENTHESIS.
+     */
+    public static final byte RIGHT_PARENTHESIS = 15;
+    /**
+     * The constant SEPARATOR.
+     */
+    public static final byte SEPARATOR = 16;
+    /**
+     * The constant COMMA.
+     */
+    public static final byte COMMA = 17;
+
+    private TokenKind() {
+    }
+
+    /**
+     * 识别source中[begin,end)区间的token类型,关键字忽略大小写
+     *
+     * @param source the source
+     * @param begin  the begin
+     * @param end    the end
+     * @return the byte
+     */
+    public static byte classify(CharSequence source, int begin, int end) {
+        int length = end - begin;
+        char c = source.charAt(begin);
+        switch (length) {
+            case 1:
+                switch (c) {
+                    case '?':
+                        return PARAM;
+                    case '(':
+                        return LEFT_PARENTHESIS;
+                    case ')':
+                        return RIGHT_PARENTHESIS;
+                    case ';':
+                        return SEPARATOR;
+                    case ',':
+                        return COMMA;
+                    default:
+                        return OTHER;
+                }
+            case 3:
+                if (matches(source, begin, "for")) {
+                    return FOR;
+                }
+                if (matches(source, begin, "all")) {
+                    return ALL;
+                }
+                return OTHER;
+            case 4:
+                return matches(source, begin, "from") ? FROM : OTHER;
+            case 5:
+                switch (lower(c)) {
+                    case 'w':
+                        return matches(source, begin, "where") ? WHERE : OTHER;
+                    case 'g':
+                        return matches(source, begin, "group") ? GROUP : OTHER;
+                    case 'o':
+                        return matches(source, begin, "order") ? ORDER : OTHER;
+                    case 'l':
+                        return matches(source, begin, "limit") ? LIMIT : OTHER;
+                    case 'u':
+                        return matches(source, begin, "union") ? UNION : OTHER;
+                    default:
+                        return OTHER;
+                }
+            case 6:
+                switch (lower(c)) {
+                    case 's':
+                        return matches(source, begin, "select") ? SELECT : OTHER;
+                    case 'h':
+                        return matches(source, begin, "having") ? HAVING : OTHER;
+                    case 'o':
+                        return matches(source, begin, "offset") ? OFFSET : OTHER;
+                    default:
+                        return OTHER;
+                }
+            case 8:
+                return matches(source, begin, "distinct") ? DISTINCT : OTHER;
+            default:
+                return OTHER;
+        }
+    }
+
+    /**
+     * 判断source从begin开始是否与小写的keyword相同,忽略大小写
+     *
+     * @param source  the source
+     * @param begin   the begin
+     * @param keyword 小写的关键字
+     * @return the boolean
+     */
+    public static boolean matches(CharSequence source, int begin, String keyword) {
+        if (begin + keyword.length() > source.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (lower(source.charAt(begin + i)) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+}
@@ -19,9 +19,13 @@ package com.hhao.common.mybatis.page.interceptor;
 import com.hhao.common.mybatis.page.PageInfo;
 import com.hhao.common.mybatis.page.PageInfoWithCountMappedStatement;
 import com.hhao.common.mybatis.page.PageMetaData;
+import com.hhao.common.mybatis.page.executor.DerivedMappedStatements;
 import com.hhao.common.mybatis.page.executor.MultiQueriesDynamicPageExecutor;
+import com.hhao.common.mybatis.page.executor.PageCache;
+import com.hhao.common.mybatis.page.executor.SeekPageExecutor;
 import com.hhao.common.mybatis.page.executor.SingleQueryDynamicPageExecutor;
 import com.hhao.common.mybatis.page.executor.SingleQueryStaticPageExecutor;
+import com.hhao.common.mybatis.page.executor.StreamPageExecutor;
 import org.apache.ibatis.binding.MapperMethod;
 import org.apache.ibatis.executor.Executor;
 import com.hhao.common.log.LoggerFactory;
@@ -36,6 +40,7 @@ import org.apache.ibatis.session.RowBounds;
 import org.mybatis.dynamic.sql.select.render.SelectStatementProvider;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -46,16 +51,36 @@ import java.util.Properties;
  * @since 1.0.0
  */
 @Intercepts({
-        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class})
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
 })
 public class PageInterceptor implements Interceptor {
     private static final Logger log = LoggerFactory.getLogger(PageInterceptor.class);
+    private static final String UPDATE_METHOD_NAME = "update";
+    private static final String QUERY_CURSOR_METHOD_NAME = "queryCursor";
     private final String DEFAULT_PAGE_INFO_PARAM_NAME = PageMetaData.PAGE_INFO_PARAM_NAME;
     private Properties properties;
+    /**
+     * 分页执行器派生的MappedStatement,随拦截器所在的Configuration释放
+     */
+    private final DerivedMappedStatements derivedMappedStatements = new DerivedMappedStatements();
 
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
+        //写语句使同一namespace的页面缓存失效
+        if (UPDATE_METHOD_NAME.equals(invocation.getMethod().getName())) {
+            Object result = invocation.proceed();
+            if (PageCache.isEnabled()) {
+                PageCache.invalidate((MappedStatement) invocation.getArgs()[0]);
+            }
+            return result;
+        }
         PageInfo pageInfo=getPageInfo(invocation);
+        //返回Cursor的查询只设置fetchSize,不分页
+        if (QUERY_CURSOR_METHOD_NAME.equals(invocation.getMethod().getName())) {
+            return pageInfo != null ? new StreamPageExecutor().queryCursor(invocation, pageInfo) : invocation.proceed();
+        }
         if (pageInfo!=null){
             //pageExecutor使用的优先级
             //1、pageInfo中自定义
@@ -73,9 +98,26 @@ public class PageInterceptor implements Interceptor {
                     pageInfo.setPageExecutor(new SingleQueryDynamicPageExecutor());
                 }
             }
-            log.info("Use PageExecutor:" + pageInfo.getPageExecutor());
+            log.debug("Use PageExecutor:{}", pageInfo.getPageExecutor());
+
+            //页面缓存,游标分页、流式查询及使用ResultHandler的查询不缓存
+            String pageCacheKey=null;
+            if (pageInfo.isPageCache() && PageCache.isEnabled() && invocation.getArgs()[3] == Executor.NO_RESULT_HANDLER
+                    && !(pageInfo.getPageExecutor() instanceof SeekPageExecutor)
+                    && !(pageInfo.getPageExecutor() instanceof StreamPageExecutor)) {
+                MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+                pageCacheKey = PageCache.createKey(mappedStatement, mappedStatement.getBoundSql(invocation.getArgs()[1]), pageInfo);
+                List<Object> cached = PageCache.get(pageInfo, pageCacheKey);
+                if (cached != null) {
+                    log.debug("Page cache hit:{}", pageCacheKey);
+                    return cached;
+                }
+            }
 
             Object result =pageInfo.getPageExecutor().execute(invocation,pageInfo);
+            if (pageCacheKey != null) {
+                PageCache.put(pageInfo, pageCacheKey);
+            }
             return result;
         }
         return invocation.proceed();
@@ -91,6 +133,15 @@ public class PageInterceptor implements Interceptor {
         this.properties=properties;
     }
 
+    /**
+     * Gets derived mapped statements.
+     *
+     * @return the derived mapped statements
+     */
+    public DerivedMappedStatements getDerivedMappedStatements() {
+        return derivedMappedStatements;
+    }
+
 
     /**
      * Gets page info.
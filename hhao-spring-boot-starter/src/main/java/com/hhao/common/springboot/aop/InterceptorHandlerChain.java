@@ -22,6 +22,8 @@ import org.springframework.util.CollectionUtils;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 拦截器链
@@ -31,6 +33,8 @@ import java.util.List;
  */
 public class InterceptorHandlerChain {
     private List<InterceptorHandler> interceptorChain = new ArrayList<>();
+    // 按id缓存匹配的拦截器，添加拦截器后清空
+    private final Map<String, List<InterceptorHandler>> chainCache = new ConcurrentHashMap<>();
 
     /**
      * Add handler.
@@ -39,6 +43,7 @@ public class InterceptorHandlerChain {
      */
     public void addHandler(InterceptorHandler handler){
         interceptorChain.add(handler);
+        chainCache.clear();
         //AnnotationAwareOrderComparator.sort(interceptorChain);
     }
 
@@ -55,12 +60,18 @@ public class InterceptorHandlerChain {
 
         List<InterceptorHandler> chain=new ArrayList<>();
         for(String id:ids){
-            for(InterceptorHandler handler:interceptorChain){
-                if (handler.support(id)){
-                    chain.add(handler);
-                }
-            }
+            chain.addAll(chainCache.computeIfAbsent(id, this::findHandlers));
         }
         return Collections.unmodifiableList(chain);
     }
+
+    private List<InterceptorHandler> findHandlers(String id){
+        List<InterceptorHandler> handlers=new ArrayList<>();
+        for(InterceptorHandler handler:interceptorChain){
+            if (handler.support(id)){
+                handlers.add(handler);
+            }
+        }
+        return handlers;
+    }
 }
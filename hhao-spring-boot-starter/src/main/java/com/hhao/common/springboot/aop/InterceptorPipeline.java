@@ -0,0 +1,121 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.springboot.aop;
+
+import org.aopalliance.intercept.Invocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 方法的拦截器流水线
+ * 由方法的拦截器(已去重、排序)生成,只包含重写了onBegin、onComplete的拦截器,
+ * 未重写的阶段直接跳过,没有拦截器的方法使用EMPTY
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public final class InterceptorPipeline {
+    /**
+     * 没有拦截器的流水线
+     */
+    public static final InterceptorPipeline EMPTY = new InterceptorPipeline(new InterceptorHandler[0], new InterceptorHandler[0]);
+
+    private final InterceptorHandler[] beginHandlers;
+    private final InterceptorHandler[] completeHandlers;
+
+    private InterceptorPipeline(InterceptorHandler[] beginHandlers, InterceptorHandler[] completeHandlers) {
+        this.beginHandlers = beginHandlers;
+        this.completeHandlers = completeHandlers;
+    }
+
+    /**
+     * 由已排序的拦截器生成流水线
+     *
+     * @param handlers the handlers
+     * @return the interceptor pipeline
+     */
+    public static InterceptorPipeline of(List<InterceptorHandler> handlers) {
+        if (handlers == null || handlers.isEmpty()) {
+            return EMPTY;
+        }
+        List<InterceptorHandler> begins = new ArrayList<>(handlers.size());
+        List<InterceptorHandler> completes = new ArrayList<>(handlers.size());
+        for (InterceptorHandler handler : handlers) {
+            if (overrides(handler, "onBegin", Invocation.class)) {
+                begins.add(handler);
+            }
+            if (overrides(handler, "onComplete", Object.class, Throwable.class, Invocation.class)) {
+                completes.add(handler);
+            }
+        }
+        if (begins.isEmpty() && completes.isEmpty()) {
+            return EMPTY;
+        }
+        return new InterceptorPipeline(begins.toArray(new InterceptorHandler[0]), completes.toArray(new InterceptorHandler[0]));
+    }
+
+    /**
+     * 判断拦截器是否重写了接口的默认方法,无法判断时视为已重写
+     */
+    private static boolean overrides(InterceptorHandler handler, String name, Class<?>... parameterTypes) {
+        try {
+            return handler.getClass().getMethod(name, parameterTypes).getDeclaringClass() != InterceptorHandler.class;
+        } catch (NoSuchMethodException | SecurityException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 是否没有任何拦截器
+     *
+     * @return the boolean
+     */
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    /**
+     * 依次执行onBegin
+     *
+     * @param invocation the invocation
+     * @return 全部返回true时为true
+     */
+    public boolean onBegin(Invocation invocation) {
+        for (InterceptorHandler handler : beginHandlers) {
+            if (!handler.onBegin(invocation)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 依次执行onComplete
+     *
+     * @param result     the result
+     * @param error      the error
+     * @param invocation the invocation
+     * @return the object
+     */
+    public Object onComplete(Object result, Throwable error, Invocation invocation) {
+        for (InterceptorHandler handler : completeHandlers) {
+            result = handler.onComplete(result, error, invocation);
+        }
+        return result;
+    }
+}
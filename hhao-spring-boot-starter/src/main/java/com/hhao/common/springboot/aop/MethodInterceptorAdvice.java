@@ -25,7 +25,6 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.CollectionUtils;
 
-import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -47,7 +46,7 @@ public class MethodInterceptorAdvice implements Ordered, MethodInterceptor, Seri
     private int order = Ordered.HIGHEST_PRECEDENCE;
     private InterceptorHandlerChain interceptorHandlerChain;
     // 缓存拦截器
-    private final ConcurrentHashMap<String, List<InterceptorHandler>> cachedInterceptorChains = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Method, InterceptorPipeline> cachedInterceptorChains = new ConcurrentHashMap<>();
 
     /**
      * Instantiates a new Method interceptor advice.
@@ -70,19 +69,15 @@ public class MethodInterceptorAdvice implements Ordered, MethodInterceptor, Seri
         //}
 
         //获取拦截器
-        List<InterceptorHandler> interceptorHandlers= getInterceptorHandlers(invocation);
+        InterceptorPipeline pipeline= getInterceptorPipeline(invocation);
         //执行结果
         Object result=null;
         //异常结果
         Throwable error=null;
         try{
             //前置执行
-            if (interceptorHandlers!=null) {
-                for (InterceptorHandler handler : interceptorHandlers) {
-                    if (!handler.onBegin(invocation)) {
-                        throw new RuntimeException("The conditions for continued execution are not met");
-                    }
-                }
+            if (!pipeline.onBegin(invocation)) {
+                throw new RuntimeException("The conditions for continued execution are not met");
             }
             //调用处理
             result=invocation.proceed();
@@ -92,14 +87,12 @@ public class MethodInterceptorAdvice implements Ordered, MethodInterceptor, Seri
             throw e0;
         }finally{
             //后置处理
-            if (interceptorHandlers!=null) {
-                for (InterceptorHandler handler : interceptorHandlers) {
-                    try {
-                        result = handler.onComplete(result, error, invocation);
-                    } catch (Throwable e1) {
-                        logger.error("Error during processing onComplete method", e1); //
-                        throw new RuntimeException("An error occurred during processing");
-                    }
+            if (!pipeline.isEmpty()) {
+                try {
+                    result = pipeline.onComplete(result, error, invocation);
+                } catch (Throwable e1) {
+                    logger.error("Error during processing onComplete method", e1); //
+                    throw new RuntimeException("An error occurred during processing");
                 }
             }
         }
@@ -108,21 +101,18 @@ public class MethodInterceptorAdvice implements Ordered, MethodInterceptor, Seri
 
     /**
      * 根据@Aop定义获拦截器
+     * 按Method缓存,没有拦截器的方法返回InterceptorPipeline.EMPTY
      *
      * @param invocation the invocation
-     * @return the list
+     * @return the interceptor pipeline
      */
-    @Nullable
-    protected List<InterceptorHandler> getInterceptorHandlers(MethodInvocation invocation){
+    protected InterceptorPipeline getInterceptorPipeline(MethodInvocation invocation){
         Method method=invocation.getMethod();
-        String key=method.toGenericString();
-        return cachedInterceptorChains.computeIfAbsent(
-                key,
-                k -> {
-                    List<InterceptorHandler> temp= buildInterceptorChainForMethod(method);
-                    return CollectionUtils.isEmpty(temp) ? null : temp;
-                }
-        );
+        InterceptorPipeline pipeline=cachedInterceptorChains.get(method);
+        if (pipeline==null){
+            pipeline=cachedInterceptorChains.computeIfAbsent(method, m -> InterceptorPipeline.of(buildInterceptorChainForMethod(m)));
+        }
+        return pipeline;
     }
 
     private List<InterceptorHandler> buildInterceptorChainForMethod(Method method) {
@@ -52,6 +52,18 @@ public class SafeConfig extends AbstractBaseConfig {
     @Value("${com.hhao.config.aop.safe.xss.policy:classpath:config/antisamy.xml}")
     public String policyUri;
 
+    /**
+     * CLEAR模式下缓存的过滤结果数,小于等于0时不缓存
+     */
+    @Value("${com.hhao.config.aop.safe.xss.cache-size:256}")
+    public int cacheSize;
+
+    /**
+     * CLEAR模式下可缓存内容的最大长度
+     */
+    @Value("${com.hhao.config.aop.safe.xss.cache-max-length:8192}")
+    public int cacheMaxLength;
+
     /**
      * 构建SafeHtmlExecutor执行器
      *
@@ -63,7 +75,7 @@ public class SafeConfig extends AbstractBaseConfig {
     @Role(RootBeanDefinition.ROLE_INFRASTRUCTURE)
     @ConditionalOnMissingBean
     public SafeHtmlExecutor safeHtmlExecutor(List<XssPolicyHandler> xssPolicyHandlers, List<DecodeHandler> decodeHandlers){
-        return new DefaultSafeHtmlExecutor(xssPolicyHandlers,decodeHandlers);
+        return new DefaultSafeHtmlExecutor(xssPolicyHandlers,decodeHandlers,cacheSize,cacheMaxLength);
     }
 
     /**
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.springboot.config;
+
+import com.hhao.common.utils.uid.BitsAllocator;
+import com.hhao.common.utils.uid.CachedUidGenerator;
+import com.hhao.common.utils.uid.DefaultUidGenerator;
+import com.hhao.common.utils.uid.UidGenerator;
+import com.hhao.common.utils.uid.worker.DataSourceWorkerIdAssigner;
+import com.hhao.common.utils.uid.worker.LocalFileWorkerIdAssigner;
+import com.hhao.common.utils.uid.worker.WorkerIdAssigner;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+
+/**
+ * 分布式唯一ID生成器的配置
+ * 默认不开启,通过com.hhao.config.uid.enable=true开启
+ * com.hhao.config.uid.cached(默认true)决定使用缓存的还是不缓存的生成器
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnMissingBean(UidConfig.class)
+@ConditionalOnProperty(prefix = "com.hhao.config.uid", name = "enable", havingValue = "true")
+public class UidConfig extends AbstractBaseConfig {
+    /**
+     * 时间戳(秒)的位数
+     */
+    @Value("${com.hhao.config.uid.timestamp-bits:29}")
+    private int timestampBits;
+    /**
+     * workerId的位数
+     */
+    @Value("${com.hhao.config.uid.worker-id-bits:21}")
+    private int workerIdBits;
+    /**
+     * 序列号的位数
+     */
+    @Value("${com.hhao.config.uid.sequence-bits:13}")
+    private int sequenceBits;
+    /**
+     * 纪元时间,yyyy-MM-dd(UTC)
+     */
+    @Value("${com.hhao.config.uid.epoch:2024-01-01}")
+    private String epoch;
+    /**
+     * RingBuffer的扩容倍数(2的幂次)
+     */
+    @Value("${com.hhao.config.uid.boost-power:3}")
+    private int boostPower;
+    /**
+     * 填充阈值的百分比
+     */
+    @Value("${com.hhao.config.uid.padding-factor:50}")
+    private int paddingFactor;
+    /**
+     * 定时填充的间隔(秒),小于等于0时不定时填充
+     */
+    @Value("${com.hhao.config.uid.schedule-interval:0}")
+    private long scheduleInterval;
+    /**
+     * 每个线程一次预取的ID数量,小于等于0时不预取
+     */
+    @Value("${com.hhao.config.uid.prefetch-size:0}")
+    private int prefetchSize;
+    /**
+     * 可容忍的时钟回拨秒数,只用于非缓存的生成器
+     */
+    @Value("${com.hhao.config.uid.max-backward-seconds:1}")
+    private long maxBackwardSeconds;
+    /**
+     * workerId分配方式:file、db
+     */
+    @Value("${com.hhao.config.uid.worker-id-assigner:file}")
+    private String workerIdAssigner;
+    /**
+     * file方式保存启动计数的文件
+     */
+    @Value("${com.hhao.config.uid.worker-id-file:${user.home}/.hhao/uid/worker_id}")
+    private String workerIdFile;
+    /**
+     * file方式的机器编号,每台机器不同,file方式必须配置
+     */
+    @Value("${com.hhao.config.uid.node-id:-1}")
+    private long nodeId;
+    /**
+     * file方式启动计数的位数
+     */
+    @Value("${com.hhao.config.uid.restart-bits:16}")
+    private int restartBits;
+    /**
+     * db方式的表名
+     */
+    @Value("${com.hhao.config.uid.worker-id-table:WORKER_NODE}")
+    private String workerIdTable;
+
+    /**
+     * workerId分配器,db方式需要DataSource,file方式需要配置node-id
+     * 未配置node-id时各机器从相同的workerId开始分配,会生成重复的ID,因此启动失败
+     *
+     * @param dataSources the data sources
+     * @return the worker id assigner
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public WorkerIdAssigner workerIdAssigner(ObjectProvider<DataSource> dataSources) {
+        if ("db".equalsIgnoreCase(workerIdAssigner)) {
+            return new DataSourceWorkerIdAssigner(dataSources.getObject(), workerIdTable);
+        }
+        if (nodeId < 0) {
+            throw new IllegalStateException("com.hhao.config.uid.node-id must be set to a unique value per machine when "
+                    + "com.hhao.config.uid.worker-id-assigner is file, or use worker-id-assigner=db");
+        }
+        return new LocalFileWorkerIdAssigner(Paths.get(workerIdFile), nodeId, restartBits);
+    }
+
+    /**
+     * 缓存的ID生成器,容器关闭时停止填充线程
+     * 声明为CachedUidGenerator类型,以便UidMetricsConfig按类型判断是否注册指标
+     *
+     * @param workerIdAssigner the worker id assigner
+     * @return the cached uid generator
+     */
+    @Bean
+    @ConditionalOnMissingBean(UidGenerator.class)
+    @ConditionalOnProperty(prefix = "com.hhao.config.uid", name = "cached", havingValue = "true", matchIfMissing = true)
+    public CachedUidGenerator uidGenerator(WorkerIdAssigner workerIdAssigner) {
+        BitsAllocator bitsAllocator = new BitsAllocator(timestampBits, workerIdBits, sequenceBits);
+        return new CachedUidGenerator(bitsAllocator, workerIdAssigner, epoch, boostPower, paddingFactor, scheduleInterval, prefetchSize);
+    }
+
+    /**
+     * 不缓存的ID生成器,com.hhao.config.uid.cached=false时使用
+     *
+     * @param workerIdAssigner the worker id assigner
+     * @return the default uid generator
+     */
+    @Bean
+    @ConditionalOnMissingBean(UidGenerator.class)
+    @ConditionalOnProperty(prefix = "com.hhao.config.uid", name = "cached", havingValue = "false")
+    public DefaultUidGenerator defaultUidGenerator(WorkerIdAssigner workerIdAssigner) {
+        BitsAllocator bitsAllocator = new BitsAllocator(timestampBits, workerIdBits, sequenceBits);
+        return new DefaultUidGenerator(bitsAllocator, workerIdAssigner, epoch, maxBackwardSeconds);
+    }
+}
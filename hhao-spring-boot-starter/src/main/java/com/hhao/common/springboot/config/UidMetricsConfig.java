@@ -0,0 +1,54 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.springboot.config;
+
+import com.hhao.common.springboot.metrics.RingBufferMeterBinder;
+import com.hhao.common.utils.uid.CachedUidGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 引入Micrometer时注册缓存生成器RingBuffer的指标,name标签为uid
+ * 在UidConfig之后处理,容器中没有CachedUidGenerator时不注册
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+@Configuration(proxyBeanMethods = false)
+@AutoConfigureAfter(UidConfig.class)
+@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+@ConditionalOnBean(CachedUidGenerator.class)
+public class UidMetricsConfig {
+    /**
+     * Uid ring buffer meter binder.
+     *
+     * @param uidGenerator       the uid generator
+     * @param metricsTakeLatency 是否记录取ID的耗时
+     * @return the ring buffer meter binder
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "uidRingBufferMeterBinder")
+    public RingBufferMeterBinder uidRingBufferMeterBinder(CachedUidGenerator uidGenerator,
+                                                          @Value("${com.hhao.config.uid.metrics-take-latency:false}") boolean metricsTakeLatency) {
+        return new RingBufferMeterBinder("uid", uidGenerator.getPaddingExecutor().getRingBuffer(), metricsTakeLatency);
+    }
+}
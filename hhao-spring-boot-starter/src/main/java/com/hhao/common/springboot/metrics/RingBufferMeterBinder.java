@@ -0,0 +1,108 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.springboot.metrics;
+
+import com.hhao.common.utils.collections.buffer.DefaultRingBufferMetrics;
+import com.hhao.common.utils.collections.buffer.RingBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将RingBuffer的指标注册到Micrometer
+ * 绑定时为RingBuffer设置DefaultRingBufferMetrics,计数器只在读取指标时汇总,不影响存取的性能
+ * 指标以name标签区分不同的RingBuffer:
+ * 1、hhao.ringbuffer.occupancy:可取的数量(tail - cursor),hhao.ringbuffer.size:容量
+ * 2、hhao.ringbuffer.rejections:写满、取空的次数,以type标签(put、take)区分
+ * 3、hhao.ringbuffer.padding.triggers:触发填充的次数,hhao.ringbuffer.padding:从触发到填充完成的耗时
+ * 4、hhao.ringbuffer.take:取值的耗时,开启takeLatency时才记录
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class RingBufferMeterBinder implements MeterBinder {
+    private final String name;
+    private final RingBuffer<?> ringBuffer;
+    private final DefaultRingBufferMetrics metrics;
+
+    /**
+     * Instantiates a new Ring buffer meter binder.
+     *
+     * @param name        the name
+     * @param ringBuffer  the ring buffer
+     * @param takeLatency 是否记录取值的耗时,每次取值多两次System.nanoTime()调用
+     */
+    public RingBufferMeterBinder(String name, RingBuffer<?> ringBuffer, boolean takeLatency) {
+        this.name = name;
+        this.ringBuffer = ringBuffer;
+        this.metrics = new DefaultRingBufferMetrics(takeLatency);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ringBuffer.setMetrics(metrics);
+        Tags tags = Tags.of("name", name);
+
+        Gauge.builder("hhao.ringbuffer.occupancy", ringBuffer, RingBuffer::getOccupancy)
+                .tags(tags)
+                .description("The count of values available to take")
+                .register(registry);
+        Gauge.builder("hhao.ringbuffer.size", ringBuffer, RingBuffer::getBufferSize)
+                .tags(tags)
+                .description("The size of the ring buffer")
+                .register(registry);
+        FunctionCounter.builder("hhao.ringbuffer.rejections", metrics, DefaultRingBufferMetrics::getPutRejections)
+                .tags(tags.and(Tag.of("type", "put")))
+                .description("The count of values rejected because the buffer is full")
+                .register(registry);
+        FunctionCounter.builder("hhao.ringbuffer.rejections", metrics, DefaultRingBufferMetrics::getTakeRejections)
+                .tags(tags.and(Tag.of("type", "take")))
+                .description("The count of takes rejected because the buffer is empty")
+                .register(registry);
+        FunctionCounter.builder("hhao.ringbuffer.padding.triggers", metrics, DefaultRingBufferMetrics::getPaddingTriggers)
+                .tags(tags)
+                .description("The count of paddings triggered")
+                .register(registry);
+        FunctionTimer.builder("hhao.ringbuffer.padding", metrics, DefaultRingBufferMetrics::getPaddingCount,
+                        DefaultRingBufferMetrics::getPaddingNanos, TimeUnit.NANOSECONDS)
+                .tags(tags)
+                .description("The duration from padding triggered to completed")
+                .register(registry);
+        if (metrics.isTakeLatencyEnabled()) {
+            FunctionTimer.builder("hhao.ringbuffer.take", metrics, DefaultRingBufferMetrics::getTakeCount,
+                            DefaultRingBufferMetrics::getTakeNanos, TimeUnit.NANOSECONDS)
+                    .tags(tags)
+                    .description("The duration of taking values")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Gets metrics.
+     *
+     * @return the metrics
+     */
+    public DefaultRingBufferMetrics getMetrics() {
+        return metrics;
+    }
+}
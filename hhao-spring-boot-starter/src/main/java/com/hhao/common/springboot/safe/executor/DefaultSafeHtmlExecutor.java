@@ -19,6 +19,7 @@ package com.hhao.common.springboot.safe.executor;
 import com.hhao.common.springboot.safe.SafeHtml;
 import com.hhao.common.springboot.safe.xss.XssPolicyHandler;
 import com.hhao.common.springboot.safe.decode.DecodeHandler;
+import com.hhao.common.utils.collections.cache.ConcurrentLruCache;
 import com.hhao.common.utils.html.HtmlUtils;
 import com.hhao.common.utils.xss.XssUtils;
 import org.owasp.validator.html.Policy;
@@ -28,11 +29,14 @@ import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
  * Xss执行器
  * 根据注解@SafeHtml进行过滤操作
+ * CLEAR模式下按Policy缓存过滤结果,相同内容重复提交时不再扫描;不含标记的字符串直接返回,不进入缓存
  *
  * @author Wang
  * @since 1.0.0
@@ -42,9 +46,24 @@ public class DefaultSafeHtmlExecutor implements SafeHtmlExecutor {
      * The constant DEFAULT_CHARACTER_ENCODING.
      */
     public static final String DEFAULT_CHARACTER_ENCODING = "UTF-8";
+    /**
+     * 默认缓存的过滤结果数
+     */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+    /**
+     * 默认可缓存内容的最大长度
+     */
+    public static final int DEFAULT_CACHE_MAX_LENGTH = 8192;
 
     private List<XssPolicyHandler> xssPolicyHandlers =new ArrayList<>(16);
     private List<DecodeHandler> decodeHandlers=new ArrayList<>(16);
+    private final Map<String, XssPolicyHandler> policyHandlerCache = new ConcurrentHashMap<>(8);
+    private final Map<String, DecodeHandler> decodeHandlerCache = new ConcurrentHashMap<>(8);
+    /**
+     * 过滤结果缓存,为null时不缓存
+     */
+    private final ConcurrentLruCache<CleanKey, String> cleanCache;
+    private final int cacheMaxLength;
 
     /**
      * Instantiates a new Default safe html executor.
@@ -53,25 +72,42 @@ public class DefaultSafeHtmlExecutor implements SafeHtmlExecutor {
      * @param decodeHandlers    the decode handlers
      */
     public DefaultSafeHtmlExecutor(List<XssPolicyHandler> xssPolicyHandlers, List<DecodeHandler> decodeHandlers){
+        this(xssPolicyHandlers, decodeHandlers, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_MAX_LENGTH);
+    }
+
+    /**
+     * Instantiates a new Default safe html executor.
+     *
+     * @param xssPolicyHandlers the xss policy handlers
+     * @param decodeHandlers    the decode handlers
+     * @param cacheSize         缓存的过滤结果数,小于等于0时不缓存
+     * @param cacheMaxLength    可缓存内容的最大长度,超过时不缓存
+     */
+    public DefaultSafeHtmlExecutor(List<XssPolicyHandler> xssPolicyHandlers, List<DecodeHandler> decodeHandlers, int cacheSize, int cacheMaxLength){
         this.xssPolicyHandlers = xssPolicyHandlers;
         this.decodeHandlers=decodeHandlers;
+        this.cleanCache = cacheSize > 0 ? new ConcurrentLruCache<>(cacheSize) : null;
+        this.cacheMaxLength = cacheMaxLength;
     }
 
     private XssPolicyHandler findPolicyHandler(SafeHtml safeHtml){
-        return xssPolicyHandlers.stream().filter(xssPolicyHandler -> {
-            return xssPolicyHandler.support(safeHtml.xssPolicy());
-        }).findFirst().orElseThrow();
+        return policyHandlerCache.computeIfAbsent(safeHtml.xssPolicy(), name -> xssPolicyHandlers.stream().filter(xssPolicyHandler -> {
+            return xssPolicyHandler.support(name);
+        }).findFirst().orElseThrow());
     }
 
     private DecodeHandler findDecodeHandler(SafeHtml safeHtml){
-        return decodeHandlers.stream().filter(decodeHandler -> {
-            return decodeHandler.support(safeHtml.decode());
-        }).findFirst().orElseThrow();
+        return decodeHandlerCache.computeIfAbsent(safeHtml.decode(), name -> decodeHandlers.stream().filter(decodeHandler -> {
+            return decodeHandler.support(name);
+        }).findFirst().orElseThrow());
     }
 
     private String htmlClear(String html, SafeHtml safeHtml) {
         Policy policy=findPolicyHandler(safeHtml).getPolicy();
-        return XssUtils.cleanHtml(html,policy);
+        if (cleanCache == null || html.length() > cacheMaxLength || XssUtils.isMarkupFree(html, policy)) {
+            return XssUtils.cleanHtml(html,policy);
+        }
+        return cleanCache.computeIfAbsent(new CleanKey(policy, html), key -> XssUtils.cleanHtml(key.html, key.policy));
     }
 
     private String htmlClear(String html,Policy policy) {
@@ -111,4 +147,36 @@ public class DefaultSafeHtmlExecutor implements SafeHtmlExecutor {
         }
         return html;
     }
+
+    /**
+     * 过滤结果缓存的key,Policy按实例比较,内容按字符串比较
+     */
+    private static final class CleanKey {
+        private final Policy policy;
+        private final String html;
+        private final int hash;
+
+        CleanKey(Policy policy, String html) {
+            this.policy = policy;
+            this.html = html;
+            this.hash = 31 * System.identityHashCode(policy) + html.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CleanKey)) {
+                return false;
+            }
+            CleanKey other = (CleanKey) o;
+            return policy == other.policy && html.equals(other.html);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
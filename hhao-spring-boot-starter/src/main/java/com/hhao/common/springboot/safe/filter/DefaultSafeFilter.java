@@ -52,8 +52,8 @@ public class DefaultSafeFilter implements SafeFilter{
     protected final Logger logger = LoggerFactory.getLogger(DefaultSafeFilter.class);
     // 将方法每个参数的SafeHtml注解缓存，如果该方法参数不包含SafeHtml注解，则返回null
     // List<SafeHtml>存放方法参数SafeHtml的注解，顺序和方法参数顺序一致
-    // key为方法对象的字符串
-    private final ConcurrentHashMap<String, List<SafeHtml>> methodAnnotationCache = new ConcurrentHashMap<>();
+    // key为方法对象
+    private final ConcurrentHashMap<Method, List<SafeHtml>> methodAnnotationCache = new ConcurrentHashMap<>();
     // 将类每个字段的SafeHtml注解缓存，如果该字段不包含SafeHtml注解，则返回null
     // key,string,为类字符串
     // value,List<SafeHtml>为类字段对应的SafeHtml注解，顺序与类字段顺序一致
@@ -95,42 +95,11 @@ public class DefaultSafeFilter implements SafeFilter{
      */
     @Override
     public void filter(MethodInvocation mi) {
-        String key=mi.getMethod().toGenericString();
         Method method=mi.getMethod();
-
-        List<SafeHtml> methodParamSafeHtmlList=methodAnnotationCache.computeIfAbsent(key, k -> {
-            // 添加方法参数的@SafeHtml注解
-            List<SafeHtml> safeHtmlList = new ArrayList<>();
-
-            //获取接口类的@SafeHtml
-            SafeHtml apiClassSafeHtml = method.getDeclaringClass().getAnnotation(SafeHtml.class);
-            //获取接口方法的@SafeHtml，可能为null
-            SafeHtml apiMethodSafeHtml = method.getAnnotation(SafeHtml.class);
-            //获取接口方法参数的注解
-            Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-
-            //方法参数的@SafeHtml注解
-            SafeHtml apiParamSafeHtml = null;
-            //本次api使用的注解
-            SafeHtml useSafeHtml = null;
-
-            for (int i = 0; i < parameterAnnotations.length; i++) {
-                //获取方法参数的@SafeHtml注解
-                apiParamSafeHtml = findSafeHtmlAnnotation(parameterAnnotations[i]);
-                //优先级如下：参数注解>方法注解>类注解
-                useSafeHtml = (apiParamSafeHtml != null ? apiParamSafeHtml : (apiMethodSafeHtml != null ? apiMethodSafeHtml : apiClassSafeHtml));
-
-                //如果useSafeHtml==null，说明接口参数与方法都没有定义@SafeHtml
-                //判断是否继续处理
-                if (isIncludeSafeHtml(useSafeHtml)) {
-                    safeHtmlList.add(i, useSafeHtml);
-                }else {
-                    safeHtmlList.add(i, null);
-                }
-            };
-
-            return safeHtmlList;
-        });
+        List<SafeHtml> methodParamSafeHtmlList=methodAnnotationCache.get(method);
+        if (methodParamSafeHtmlList==null){
+            methodParamSafeHtmlList=methodAnnotationCache.computeIfAbsent(method, this::buildMethodParamSafeHtml);
+        }
 
         Object[] args = mi.getArguments();
         SafeHtml safeHtml = null;
@@ -146,6 +115,46 @@ public class DefaultSafeFilter implements SafeFilter{
         }
     }
 
+    /**
+     * 生成方法参数的@SafeHtml注解列表，顺序与方法参数一致，没有注解的参数为null
+     *
+     * @param method the method
+     * @return the list
+     */
+    private List<SafeHtml> buildMethodParamSafeHtml(Method method) {
+        // 添加方法参数的@SafeHtml注解
+        List<SafeHtml> safeHtmlList = new ArrayList<>();
+
+        //获取接口类的@SafeHtml
+        SafeHtml apiClassSafeHtml = method.getDeclaringClass().getAnnotation(SafeHtml.class);
+        //获取接口方法的@SafeHtml，可能为null
+        SafeHtml apiMethodSafeHtml = method.getAnnotation(SafeHtml.class);
+        //获取接口方法参数的注解
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+
+        //方法参数的@SafeHtml注解
+        SafeHtml apiParamSafeHtml = null;
+        //本次api使用的注解
+        SafeHtml useSafeHtml = null;
+
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            //获取方法参数的@SafeHtml注解
+            apiParamSafeHtml = findSafeHtmlAnnotation(parameterAnnotations[i]);
+            //优先级如下：参数注解>方法注解>类注解
+            useSafeHtml = (apiParamSafeHtml != null ? apiParamSafeHtml : (apiMethodSafeHtml != null ? apiMethodSafeHtml : apiClassSafeHtml));
+
+            //如果useSafeHtml==null，说明接口参数与方法都没有定义@SafeHtml
+            //判断是否继续处理
+            if (isIncludeSafeHtml(useSafeHtml)) {
+                safeHtmlList.add(i, useSafeHtml);
+            }else {
+                safeHtmlList.add(i, null);
+            }
+        };
+
+        return safeHtmlList;
+    }
+
     /**
      * 递归处理obj的@SafeHtml注解
      *
@@ -0,0 +1,107 @@
+package com.hhao.common.utils.collections.buffer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link RingBufferMetrics} counting by {@link LongAdder}, the counters are cumulative and never reset
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class DefaultRingBufferMetrics implements RingBufferMetrics {
+    private final boolean takeLatencyEnabled;
+    private final LongAdder putRejections = new LongAdder();
+    private final LongAdder takeRejections = new LongAdder();
+    private final LongAdder paddingTriggers = new LongAdder();
+    private final LongAdder paddingCount = new LongAdder();
+    private final LongAdder paddingNanos = new LongAdder();
+    private final LongAdder takeCount = new LongAdder();
+    private final LongAdder takeNanos = new LongAdder();
+
+    /**
+     * Instantiates a new Default ring buffer metrics without take latency.
+     */
+    public DefaultRingBufferMetrics() {
+        this(false);
+    }
+
+    /**
+     * Instantiates a new Default ring buffer metrics.
+     *
+     * @param takeLatencyEnabled whether to record the take latency
+     */
+    public DefaultRingBufferMetrics(boolean takeLatencyEnabled) {
+        this.takeLatencyEnabled = takeLatencyEnabled;
+    }
+
+    @Override
+    public void putRejected(RingBuffer<?> ringBuffer) {
+        putRejections.increment();
+    }
+
+    @Override
+    public void takeRejected(RingBuffer<?> ringBuffer) {
+        takeRejections.increment();
+    }
+
+    @Override
+    public void paddingTriggered(RingBuffer<?> ringBuffer) {
+        paddingTriggers.increment();
+    }
+
+    @Override
+    public void paddingCompleted(RingBuffer<?> ringBuffer, long durationNanos) {
+        paddingCount.increment();
+        paddingNanos.add(durationNanos);
+    }
+
+    @Override
+    public boolean isTakeLatencyEnabled() {
+        return takeLatencyEnabled;
+    }
+
+    @Override
+    public void takeCompleted(RingBuffer<?> ringBuffer, long durationNanos) {
+        takeCount.increment();
+        takeNanos.add(durationNanos);
+    }
+
+    public long getPutRejections() {
+        return putRejections.sum();
+    }
+
+    public long getTakeRejections() {
+        return takeRejections.sum();
+    }
+
+    public long getPaddingTriggers() {
+        return paddingTriggers.sum();
+    }
+
+    public long getPaddingCount() {
+        return paddingCount.sum();
+    }
+
+    public long getPaddingNanos() {
+        return paddingNanos.sum();
+    }
+
+    public long getTakeCount() {
+        return takeCount.sum();
+    }
+
+    public long getTakeNanos() {
+        return takeNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultRingBufferMetrics [putRejections=" + getPutRejections()
+                + ", takeRejections=" + getTakeRejections()
+                + ", paddingTriggers=" + getPaddingTriggers()
+                + ", paddingCount=" + getPaddingCount()
+                + ", paddingNanos=" + getPaddingNanos()
+                + ", takeCount=" + getTakeCount()
+                + ", takeNanos=" + getTakeNanos() + "]";
+    }
+}
@@ -0,0 +1,60 @@
+package com.hhao.common.utils.collections.buffer;
+
+import com.hhao.common.utils.Assert;
+
+/**
+ * Per-thread prefetch buffer on a {@link LongRingBuffer}, values are kept in a long[] without boxing<br>
+ * Each thread takes at most prefetchSize values by one {@link LongRingBuffer#drainTo(long[], int, int)} and consumes
+ * them locally, so the consumers contend on the cursor once per batch instead of once per value.
+ * <b>Note that: </b> values prefetched by a thread are only consumed by that thread, and are lost if the thread ends
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class LongPrefetchBuffer {
+    private final LongRingBuffer ringBuffer;
+    private final int prefetchSize;
+    private final ThreadLocal<Local> local;
+
+    /**
+     * Instantiates a new Long prefetch buffer.
+     *
+     * @param ringBuffer   the ring buffer
+     * @param prefetchSize the count of values to take at once, 64-256 in general
+     */
+    public LongPrefetchBuffer(LongRingBuffer ringBuffer, int prefetchSize) {
+        Assert.notNull(ringBuffer, "ringBuffer must not be null");
+        Assert.isTrue(prefetchSize > 0, "prefetchSize must be positive");
+        this.ringBuffer = ringBuffer;
+        this.prefetchSize = prefetchSize;
+        this.local = ThreadLocal.withInitial(() -> new Local(prefetchSize));
+    }
+
+    /**
+     * Take a value from the values prefetched by the current thread, prefetch from the ring buffer if none
+     *
+     * @param emptyValue the value returned if the ring buffer is empty, should not be a value put in the buffer
+     * @return the value, or emptyValue if the ring buffer is empty
+     */
+    public long poll(long emptyValue) {
+        Local values = local.get();
+        if (values.index == values.size) {
+            values.index = 0;
+            values.size = ringBuffer.drainTo(values.values, 0, prefetchSize);
+            if (values.size == 0) {
+                return emptyValue;
+            }
+        }
+        return values.values[values.index++];
+    }
+
+    private static final class Local {
+        private final long[] values;
+        private int index;
+        private int size;
+
+        private Local(int prefetchSize) {
+            this.values = new long[prefetchSize];
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.hhao.common.utils.collections.buffer;
+
+import com.hhao.common.exception.error.server.ServerRuntimeException;
+
+/**
+ * A {@link RingBuffer} holding long values in a long[], for ID values without boxing<br>
+ * The methods of {@link RingBuffer} are still available, values are boxed/unboxed in them
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class LongRingBuffer extends RingBuffer<Long> {
+    private final long[] values;
+
+    /**
+     * Constructor with buffer size & padding factor & padding handle policy
+     *
+     * @param bufferSize must be positive & a power of 2
+     * @param paddingFactor percent in (0 - 100)
+     * @param paddingExecutorHandler
+     */
+    public LongRingBuffer(int bufferSize, int paddingFactor, PaddingExecutorHandler paddingExecutorHandler) {
+        super(bufferSize, paddingFactor, paddingExecutorHandler, false);
+        this.values = new long[bufferSize];
+    }
+
+    /**
+     * Put a long value in the ring
+     *
+     * @param value
+     * @return false means that the buffer is full, apply {@link RejectedPutBufferHandler}
+     */
+    public boolean putLong(long value) {
+        long seq = claimPut(1);
+        if (seq == EMPTY) {
+            rejectPut(value);
+            return false;
+        }
+        fill(seq, value);
+        publish(seq, seq);
+        return true;
+    }
+
+    /**
+     * Put long values in the ring, the available slots are claimed by one CAS and published with one tail update<br>
+     * If the buffer can't hold all values, the rest values are not put and {@link RejectedPutBufferHandler} is applied
+     * to the first of them, not counted as a put rejection
+     *
+     * @param source
+     * @param offset
+     * @param length
+     * @return the count of values put
+     */
+    public int putAll(long[] source, int offset, int length) {
+        int count = length;
+        long first = EMPTY;
+        while (first == EMPTY) {
+            count = claimCount(count);
+            if (count == 0) {
+                if (length > 0) {
+                    rejectPutAll(source[offset]);
+                }
+                return 0;
+            }
+            first = claimPut(count);
+        }
+        for (int i = 0; i < count; i++) {
+            fill(first + i, source[offset + i]);
+        }
+        publish(first, first + count - 1);
+
+        if (count < length) {
+            rejectPutAll(source[offset + count]);
+        }
+        return count;
+    }
+
+    /**
+     * Take a long value of the ring at the next cursor<br>
+     * If there is no more available value to be taken, the specified {@link RejectedTakeBufferHandler} will be applied,
+     * throws {@link ServerRuntimeException} if the handler does not throw
+     *
+     * @return the value
+     */
+    public long takeLong() {
+        long startNanos = takeStartNanos();
+        long seq = claimTake();
+        if (seq == EMPTY || !isPut(seq)) {
+            recordTake(startNanos);
+            rejectTake();
+            throw new ServerRuntimeException("Rejected take buffer. " + this);
+        }
+        long value = read(seq);
+        recordTake(startNanos);
+        return value;
+    }
+
+    /**
+     * Take a long value of the ring at the next cursor, returns emptyValue if the buffer is empty.
+     * {@link RejectedTakeBufferHandler} is not applied
+     *
+     * @param emptyValue the value returned if the buffer is empty, should not be a value put in the buffer
+     * @return the value, or emptyValue if the buffer is empty
+     */
+    public long pollLong(long emptyValue) {
+        long startNanos = takeStartNanos();
+        long seq = claimTake();
+        long value = seq == EMPTY ? emptyValue : read(seq);
+        recordTake(startNanos);
+        if (seq == EMPTY) {
+            recordTakeRejected();
+        }
+        return value;
+    }
+
+    /**
+     * Take at most max long values of the ring into the array, the values are claimed by one CAS on the cursor.
+     * {@link RejectedTakeBufferHandler} is not applied
+     *
+     * @param target
+     * @param offset
+     * @param max
+     * @return the count of values taken
+     */
+    public int drainTo(long[] target, int offset, int max) {
+        long startNanos = takeStartNanos();
+        int count = max;
+        long first = EMPTY;
+        while (first == EMPTY) {
+            count = takeCount(count);
+            if (count == 0) {
+                recordTake(startNanos);
+                if (max > 0) {
+                    recordTakeRejected();
+                }
+                return 0;
+            }
+            first = claimTake(count);
+        }
+        for (int i = 0; i < count; i++) {
+            target[offset + i] = read(first + i);
+        }
+        recordTake(startNanos);
+        return count;
+    }
+
+    @Override
+    protected void writeSlot(int index, Object value) {
+        values[index] = ((Number) value).longValue();
+    }
+
+    @Override
+    protected Object readSlot(int index) {
+        return values[index];
+    }
+
+    private void fill(long seq, long value) {
+        awaitPutable(seq);
+        values[calSlotIndex(seq)] = value;
+        markPut(seq);
+    }
+
+    private long read(long seq) {
+        long value = values[calSlotIndex(seq)];
+        markTaken(seq);
+        return value;
+    }
+}
@@ -6,9 +6,22 @@ import com.hhao.common.log.LoggerFactory;
 import com.hhao.common.utils.Assert;
 import com.hhao.common.utils.collections.buffer.utils.PaddedAtomicLong;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
+ * A bounded multi-producer multi-consumer ring buffer<br>
+ * Producers claim slot sequences by CAS on the claim sequence, fill the slots, then publish the tail in claim order.
+ * Consumers claim by CAS on the cursor. When the rest of values is below the padding threshold, the padding handler is
+ * triggered once until the buffer is padded above the threshold again
+ *
  * @author Wang
  * @since 1.0.0
  */
@@ -18,8 +31,16 @@ public class RingBuffer<T> {
      * Constants
      */
     private static final int START_POINT = -1;
-    private static final long CAN_PUT_FLAG = 0L;
-    private static final long CAN_TAKE_FLAG = 1L;
+    /**
+     * Returned by claimPut/claimTake when the buffer is full/empty
+     */
+    protected static final long EMPTY = Long.MIN_VALUE;
+    /**
+     * Spins before yielding or parking
+     */
+    private static final int SPIN_TRIES = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(long[].class);
 
     /**
      * The size of RingBuffer's slots, each slot hold a value
@@ -27,13 +48,23 @@ public class RingBuffer<T> {
     private final int bufferSize;
     private final long indexMask;
     private final Object[] slots;
-    private final PaddedAtomicLong[] flags;
+    /**
+     * Slot states in one array instead of an object per slot:
+     * (seq << 1) means the slot can be put with sequence seq, (seq << 1) | 1 means the slot is put with sequence seq.
+     * The sequence in the state avoids confusing the states of different rounds
+     */
+    private final long[] states;
 
     /**
      * Tail: last position sequence to produce
      */
     private final AtomicLong tail = new PaddedAtomicLong(START_POINT);
 
+    /**
+     * Claimed: last position sequence claimed by producers, published to tail after the slots filled
+     */
+    private final AtomicLong claimed = new PaddedAtomicLong(START_POINT);
+
     /**
      * Cursor: current position sequence to consume
      */
@@ -44,6 +75,16 @@ public class RingBuffer<T> {
      */
     private final int paddingThreshold;
 
+    /**
+     * Whether a padding has been triggered and the buffer is not padded above the threshold yet
+     */
+    private final AtomicBoolean paddingInFlight = new AtomicBoolean(false);
+
+    /**
+     * Nano time of the padding triggered, 0 if no padding is in flight
+     */
+    private final AtomicLong paddingStartNanos = new AtomicLong(0L);
+
     /**
      * Reject put/take buffer handle policy
      */
@@ -53,6 +94,11 @@ public class RingBuffer<T> {
      * Padding buffer handle policy
      */
     private PaddingExecutorHandler paddingExecutorHandler;
+    /**
+     * Metrics, recordTakeLatency caches {@link RingBufferMetrics#isTakeLatencyEnabled()} for the take path
+     */
+    private volatile RingBufferMetrics metrics = RingBufferMetrics.NOOP;
+    private volatile boolean recordTakeLatency;
 
     /**
      * Constructor with buffer size & padding factor & padding handle policy
@@ -63,6 +109,19 @@ public class RingBuffer<T> {
      *        padding buffer will be triggered when tail-cursor<threshold
      */
     public RingBuffer(int bufferSize, int paddingFactor, PaddingExecutorHandler paddingExecutorHandler) {
+        this(bufferSize, paddingFactor, paddingExecutorHandler, true);
+    }
+
+    /**
+     * Constructor for subclasses which hold values in their own slots
+     *
+     * @param bufferSize
+     * @param paddingFactor
+     * @param paddingExecutorHandler
+     * @param objectSlots whether to allocate the Object slots, subclasses not allocating them must override
+     *        {@link #writeSlot(int, Object)} and {@link #readSlot(int)}
+     */
+    protected RingBuffer(int bufferSize, int paddingFactor, PaddingExecutorHandler paddingExecutorHandler, boolean objectSlots) {
         // check buffer size is positive & a power of 2; padding factor in (0, 100)
         Assert.isTrue(bufferSize > 0L, "RingBuffer size must be positive");
         Assert.isTrue(Integer.bitCount(bufferSize) == 1, "RingBuffer size must be a power of 2");
@@ -70,8 +129,8 @@ public class RingBuffer<T> {
 
         this.bufferSize = bufferSize;
         this.indexMask = bufferSize - 1;
-        this.slots = new Object[bufferSize];
-        this.flags = initFlags(bufferSize);
+        this.slots = objectSlots ? new Object[bufferSize] : null;
+        this.states = initStates(bufferSize);
 
         this.paddingThreshold = bufferSize * paddingFactor / 100;
         this.paddingExecutorHandler=paddingExecutorHandler;
@@ -79,42 +138,80 @@ public class RingBuffer<T> {
 
     /**
      * Put a value in the ring & tail moved<br>
-     * We use 'synchronized' to guarantee the value fill in slot & publish new tail sequence as atomic operations<br>
-     *
-     * <b>Note that: </b> It is recommended to put value in a serialize way, cause we once batch generate a series value and put
-     * the one by one into the buffer, so it is unnecessary put in multi-threads
+     * The slot sequence is claimed by CAS, so it is safe to put in multi-threads without lock.
+     * The tail is published in claim order, a producer waits for the producers claimed before it to publish
      *
      * @param value
      * @return false means that the buffer is full, apply {@link RejectedPutBufferHandler}
      */
-    public synchronized boolean put(Object value) {
-        long currentTail = tail.get();
-        long currentCursor = cursor.get();
-
-        // tail catches the cursor, means that you can't put any cause of RingBuffer is full
-        long distance = currentTail - (currentCursor == START_POINT ? 0 : currentCursor);
-        if (distance == bufferSize - 1) {
-            rejectedPutHandler.rejectPutBuffer(this, value);
+    public boolean put(Object value) {
+        long seq = claimPut(1);
+        if (seq == EMPTY) {
+            rejectPut(value);
             return false;
         }
+        fill(seq, value);
+        publish(seq, seq);
+        return true;
+    }
 
-        // 1. pre-check whether the flag is CAN_PUT_FLAG
-        int nextTailIndex = calSlotIndex(currentTail + 1);
-        if (flags[nextTailIndex].get() != CAN_PUT_FLAG) {
-            rejectedPutHandler.rejectPutBuffer(this, value);
-            return false;
+    /**
+     * Put values in the ring, the available slots are claimed by one CAS and published with one tail update<br>
+     * If the buffer can't hold all values, the rest values are not put and {@link RejectedPutBufferHandler} is applied
+     * to the first of them. Filling the buffer up is the normal end of a bulk put, so it is not counted by
+     * {@link RingBufferMetrics#putRejected(RingBuffer)}
+     *
+     * @param values
+     * @return the count of values put
+     */
+    public int putAll(List<?> values) {
+        int size = values.size();
+        int count = size;
+        long first = EMPTY;
+        while (first == EMPTY) {
+            count = claimCount(count);
+            if (count == 0) {
+                if (size > 0) {
+                    rejectPutAll(values.get(0));
+                }
+                return 0;
+            }
+            first = claimPut(count);
+        }
+        for (int i = 0; i < count; i++) {
+            fill(first + i, values.get(i));
         }
+        publish(first, first + count - 1);
 
-        // 2. put value in the next slot
-        // 3. update next slot' flag to CAN_TAKE_FLAG
-        // 4. publish tail with sequence increase by one
-        slots[nextTailIndex] = value;
-        flags[nextTailIndex].set(CAN_TAKE_FLAG);
-        tail.incrementAndGet();
+        if (count < size) {
+            rejectPutAll(values.get(count));
+        }
+        return count;
+    }
 
-        // The atomicity of operations above, guarantees by 'synchronized'. In another word,
-        // the take operation can't consume the UID we just put, until the tail is published(tail.incrementAndGet())
-        return true;
+    /**
+     * Put a value in the ring, waiting up to the specified time if the buffer is full.
+     * {@link RejectedPutBufferHandler} is not applied
+     *
+     * @param value
+     * @param timeout
+     * @param unit
+     * @return false if the waiting time elapsed before the value put
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean offer(Object value, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int tries = 0; ; tries++) {
+            long seq = claimPut(1);
+            if (seq != EMPTY) {
+                fill(seq, value);
+                publish(seq, seq);
+                return true;
+            }
+            if (!backoff(tries, deadline)) {
+                return false;
+            }
+        }
     }
 
     /**
@@ -124,46 +221,431 @@ public class RingBuffer<T> {
      * the padding buffer operation will be triggered in another thread<br>
      * If there is no more available UID to be taken, the specified {@link RejectedTakeBufferHandler} will be applied<br>
      *
-     * @return UID
-     * @throws IllegalStateException if the cursor moved back
+     * @return UID, null if the buffer is empty and the {@link RejectedTakeBufferHandler} does not throw
      */
     public T take() {
-        // spin get next available cursor
-        long currentCursor = cursor.get();
-        long nextCursor = cursor.updateAndGet(old -> old == tail.get() ? old : old + 1);
+        long startNanos = takeStartNanos();
+        long nextCursor = claimTake();
+        if (nextCursor == EMPTY) {
+            recordTake(startNanos);
+            rejectTake();
+            return null;
+        }
+        T value = read(nextCursor);
+        recordTake(startNanos);
+        return value;
+    }
 
-        // check for safety consideration, it never occurs
-        Assert.isTrue(nextCursor >= currentCursor, "Curosr can't move back");
+    /**
+     * Take value of the ring at the next cursor, returns null if the buffer is empty.
+     * {@link RejectedTakeBufferHandler} is not applied
+     *
+     * @return the value, or null if the buffer is empty
+     */
+    public T poll() {
+        long startNanos = takeStartNanos();
+        long nextCursor = claimTake();
+        T value = nextCursor == EMPTY ? null : read(nextCursor);
+        recordTake(startNanos);
+        if (nextCursor == EMPTY) {
+            recordTakeRejected();
+        }
+        return value;
+    }
 
-        // trigger padding in an async-mode if reach the threshold
-        long currentTail = tail.get();
-        if (currentTail - nextCursor < paddingThreshold) {
-            logger.info("Reach the padding threshold:{}. tail:{}, cursor:{}, rest:{}", paddingThreshold, currentTail,
-                    nextCursor, currentTail - nextCursor);
-            paddingExecutorHandler.paddingExecutor(this);
+    /**
+     * Take value of the ring at the next cursor, waiting up to the specified time if the buffer is empty.
+     * The waiting thread spins first and then parks with growing intervals (at most 1ms), producers do not signal it.
+     * {@link RejectedTakeBufferHandler} is not applied
+     *
+     * @param timeout
+     * @param unit
+     * @return the value, or null if the waiting time elapsed before a value is available
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long startNanos = takeStartNanos();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int tries = 0; ; tries++) {
+            long nextCursor = claimTake();
+            if (nextCursor != EMPTY) {
+                T value = read(nextCursor);
+                recordTake(startNanos);
+                return value;
+            }
+            if (!backoff(tries, deadline)) {
+                recordTake(startNanos);
+                recordTakeRejected();
+                return null;
+            }
         }
+    }
 
-        // cursor catch the tail, means that there is no more available value to take
-        if (nextCursor == currentCursor) {
+    /**
+     * Take at most n values of the ring, the values are claimed by one CAS on the cursor<br>
+     * If there is no more available value to be taken, the specified {@link RejectedTakeBufferHandler} will be applied<br>
+     * Taking 0 values returns an empty list without touching the ring
+     *
+     * @param n the max count of values to take, must not be negative
+     * @return the values taken, empty if the buffer is empty and the {@link RejectedTakeBufferHandler} does not throw
+     * @throws IllegalArgumentException if n is negative
+     */
+    public List<T> take(int n) {
+        Assert.isTrue(n >= 0, () -> "The count of values to take must not be negative: " + n);
+        if (n == 0) {
+            return new ArrayList<>(0);
+        }
+        List<T> values = new ArrayList<>(Math.min(n, bufferSize));
+        if (drainTo(values, n) == 0) {
+            // drainTo has counted the rejection
             rejectedTakeHandler.rejectTakeBuffer(this);
         }
+        return values;
+    }
 
-        // 1. check next slot flag is CAN_TAKE_FLAG
-        int nextCursorIndex = calSlotIndex(nextCursor);
-        if (flags[nextCursorIndex].get() != CAN_TAKE_FLAG) {
-            rejectedTakeHandler.rejectTakeBuffer(this);
+    /**
+     * Take at most max values of the ring and add them to the collection, the values are claimed by one CAS on the cursor.
+     * {@link RejectedTakeBufferHandler} is not applied
+     *
+     * @param collection
+     * @param max
+     * @return the count of values taken
+     */
+    public int drainTo(Collection<? super T> collection, int max) {
+        long startNanos = takeStartNanos();
+        int count = max;
+        long first = EMPTY;
+        while (first == EMPTY) {
+            count = takeCount(count);
+            if (count == 0) {
+                recordTake(startNanos);
+                if (max > 0) {
+                    recordTakeRejected();
+                }
+                return 0;
+            }
+            first = claimTake(count);
+        }
+        for (int i = 0; i < count; i++) {
+            collection.add(read(first + i));
+        }
+        recordTake(startNanos);
+        return count;
+    }
+
+    /**
+     * Called by the padding executor after a padding finished, so that the padding can be triggered again
+     * even if the buffer is not padded above the threshold (e.g. the padding failed)
+     */
+    public void paddingCompleted() {
+        paddingInFlight.set(false);
+        long startNanos = paddingStartNanos.getAndSet(0L);
+        if (startNanos != 0L) {
+            metrics.paddingCompleted(this, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Write value to the slot, called between {@link #awaitPutable(long)} and {@link #markPut(long)}
+     *
+     * @param index
+     * @param value
+     */
+    protected void writeSlot(int index, Object value) {
+        slots[index] = value;
+    }
+
+    /**
+     * Read value from the slot & release the reference, called before {@link #markTaken(long)}
+     *
+     * @param index
+     * @return the value
+     */
+    protected Object readSlot(int index) {
+        Object value = slots[index];
+        slots[index] = null;
+        return value;
+    }
+
+    /**
+     * The count of slots to claim for a batch put: min(count, free slots), 0 if the buffer is full.
+     * Claiming the returned count by {@link #claimPut(int)} may still fail if other producers claim concurrently,
+     * the caller should retry with a count calculated again, see {@link #putAll(List)}
+     *
+     * @param count
+     * @return the count of slots to claim
+     */
+    protected int claimCount(int count) {
+        return (int) Math.max(0L, Math.min(count, cursor.get() + bufferSize - claimed.get()));
+    }
+
+    /**
+     * Claim count slot sequences by one CAS
+     *
+     * @param count
+     * @return the first sequence claimed, or EMPTY if there are not enough free slots
+     */
+    protected long claimPut(int count) {
+        for (; ; ) {
+            long current = claimed.get();
+            // the value of the previous round in the last slot is not taken, means that the buffer is full
+            if (count <= 0 || current + count - bufferSize > cursor.get()) {
+                return EMPTY;
+            }
+            if (claimed.compareAndSet(current, current + count)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Wait for the consumer of the previous round to finish reading the slot of the claimed sequence
+     *
+     * @param seq
+     */
+    protected void awaitPutable(long seq) {
+        int index = calSlotIndex(seq);
+        long state = seq << 1;
+        for (int tries = 0; (long) STATES.getAcquire(states, index) != state; tries++) {
+            spinWait(tries);
+        }
+    }
+
+    /**
+     * Mark the slot of the sequence as put
+     *
+     * @param seq
+     */
+    protected void markPut(long seq) {
+        STATES.setRelease(states, calSlotIndex(seq), (seq << 1) | 1L);
+    }
+
+    /**
+     * Whether the slot of the sequence is put
+     *
+     * @param seq
+     * @return the boolean
+     */
+    protected boolean isPut(long seq) {
+        return (long) STATES.getAcquire(states, calSlotIndex(seq)) == ((seq << 1) | 1L);
+    }
+
+    /**
+     * Mark the slot of the sequence as taken, the slot can be put with the sequence of next round
+     *
+     * @param seq
+     */
+    protected void markTaken(long seq) {
+        STATES.setRelease(states, calSlotIndex(seq), (seq + bufferSize) << 1);
+    }
+
+    /**
+     * Publish tail from first - 1 to last, after the producers claimed before have published
+     *
+     * @param first
+     * @param last
+     */
+    protected void publish(long first, long last) {
+        for (int tries = 0; tail.get() != first - 1; tries++) {
+            spinWait(tries);
+        }
+        tail.set(last);
+
+        if (paddingInFlight.get() && last - cursor.get() >= paddingThreshold) {
+            paddingInFlight.set(false);
+        }
+    }
+
+    /**
+     * Claim the next cursor by CAS, returns EMPTY if the cursor catches the tail.
+     * Trigger padding in an async-mode if reach the threshold
+     *
+     * @return the sequence claimed, or EMPTY
+     */
+    protected long claimTake() {
+        return claimTake(1);
+    }
+
+    /**
+     * Claim count sequences to take by one CAS on the cursor.
+     * Trigger padding in an async-mode if reach the threshold
+     *
+     * @param count
+     * @return the first sequence claimed, or EMPTY if there are not enough values
+     */
+    protected long claimTake(int count) {
+        long currentCursor;
+        long currentTail;
+        do {
+            currentCursor = cursor.get();
+            currentTail = tail.get();
+            if (count <= 0 || currentCursor + count > currentTail) {
+                triggerPadding(currentTail, currentCursor);
+                return EMPTY;
+            }
+        } while (!cursor.compareAndSet(currentCursor, currentCursor + count));
+
+        triggerPadding(currentTail, currentCursor + count);
+        return currentCursor + 1;
+    }
+
+    /**
+     * The count of values to claim for a batch take: min(count, available values), 0 if the buffer is empty.
+     * Claiming the returned count by {@link #claimTake(int)} may still fail if other consumers claim concurrently,
+     * the caller should retry with a count calculated again, see {@link #drainTo(Collection, int)}
+     *
+     * @param count
+     * @return the count of values to claim
+     */
+    protected int takeCount(int count) {
+        long currentCursor = cursor.get();
+        long currentTail = tail.get();
+        if (currentCursor >= currentTail) {
+            triggerPadding(currentTail, currentCursor);
+            return 0;
+        }
+        return (int) Math.max(0L, Math.min(count, currentTail - currentCursor));
+    }
+
+    /**
+     * Apply {@link RejectedPutBufferHandler}
+     *
+     * @param value
+     */
+    protected void rejectPut(Object value) {
+        metrics.putRejected(this);
+        rejectedPutHandler.rejectPutBuffer(this, value);
+    }
+
+    /**
+     * Apply {@link RejectedPutBufferHandler} to the first value not put by a bulk put, not counted as a put rejection
+     *
+     * @param value
+     */
+    protected void rejectPutAll(Object value) {
+        rejectedPutHandler.rejectPutBuffer(this, value);
+    }
+
+    /**
+     * Count a take finding the buffer empty, for the takes not applying {@link RejectedTakeBufferHandler}
+     */
+    protected void recordTakeRejected() {
+        metrics.takeRejected(this);
+    }
+
+    /**
+     * Apply {@link RejectedTakeBufferHandler}
+     */
+    protected void rejectTake() {
+        metrics.takeRejected(this);
+        rejectedTakeHandler.rejectTakeBuffer(this);
+    }
+
+    /**
+     * Nano time before a take, 0 if the take latency is not recorded
+     *
+     * @return the start nanos
+     */
+    protected long takeStartNanos() {
+        return recordTakeLatency ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record the take latency since {@link #takeStartNanos()}
+     *
+     * @param startNanos
+     */
+    protected void recordTake(long startNanos) {
+        if (recordTakeLatency) {
+            metrics.takeCompleted(this, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Put value in the claimed slot & mark the slot as put
+     */
+    private void fill(long seq, Object value) {
+        awaitPutable(seq);
+        writeSlot(calSlotIndex(seq), value);
+        markPut(seq);
+    }
+
+    /**
+     * Trigger padding once when the rest of values is below the threshold
+     */
+    private void triggerPadding(long currentTail, long nextCursor) {
+        if (currentTail - nextCursor < paddingThreshold && paddingExecutorHandler != null
+                && !paddingInFlight.get() && paddingInFlight.compareAndSet(false, true)) {
+            metrics.paddingTriggered(this);
+            paddingStartNanos.set(System.nanoTime());
+            try {
+                paddingExecutorHandler.paddingExecutor(this);
+            } catch (RuntimeException e) {
+                paddingStartNanos.set(0L);
+                paddingInFlight.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Read value from the claimed slot & mark the slot as taken
+     */
+    private T read(long nextCursor) {
+        // 1. check the slot is put, the tail is published after the slot put, so it never occurs
+        if (!isPut(nextCursor)) {
+            rejectTake();
+            return null;
         }
 
         // 2. get value from next slot
-        // 3. set next slot flag as CAN_PUT_FLAG.
-        T value = (T)slots[nextCursorIndex];
-        flags[nextCursorIndex].set(CAN_PUT_FLAG);
+        // 3. mark the slot as taken
+        T value = (T) readSlot(calSlotIndex(nextCursor));
+        markTaken(nextCursor);
 
-        // Note that: Step 2,3 can not swap. If we set flag before get value of slot, the producer may overwrite the
+        // Note that: Step 2,3 can not swap. If we mark the slot before get value of slot, the producer may overwrite the
         // slot with a new value, and this may cause the consumer take the value twice after walk a round the ring
         return value;
     }
 
+    /**
+     * Spin first, then yield in case the thread waited for is not running
+     */
+    private static void spinWait(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Spin, yield then park with growing intervals, returns false if the deadline reached
+     *
+     * @param tries
+     * @param deadline
+     * @return the boolean
+     * @throws InterruptedException if interrupted while waiting
+     */
+    protected boolean backoff(int tries, long deadline) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return false;
+        }
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (tries < SPIN_TRIES * 2) {
+            Thread.yield();
+        } else {
+            long parkNanos = Math.min(1000L << Math.min(tries - SPIN_TRIES * 2, 10), MAX_PARK_NANOS);
+            LockSupport.parkNanos(this, Math.min(parkNanos, remaining));
+        }
+        return true;
+    }
+
     /**
      * Calculate slot index with the slot sequence (sequence % bufferSize)
      */
@@ -172,10 +654,10 @@ public class RingBuffer<T> {
     }
 
     /**
-     * Discard policy for {@link RejectedPutBufferHandler}, we just do logging
+     * Discard policy for {@link RejectedPutBufferHandler}, the rejections are counted by {@link RingBufferMetrics}
      */
     protected void discardPutBuffer(RingBuffer ringBuffer, Object value) {
-        logger.warn("Rejected putting buffer for uid:{}. {}", value, ringBuffer);
+        logger.debug("Rejected putting buffer for uid:{}. {}", value, ringBuffer);
     }
 
     /**
@@ -187,15 +669,15 @@ public class RingBuffer<T> {
     }
 
     /**
-     * Initialize flags as CAN_PUT_FLAG
+     * Initialize states as slot i can be put with sequence i
      */
-    private PaddedAtomicLong[] initFlags(int bufferSize) {
-        PaddedAtomicLong[] flags = new PaddedAtomicLong[bufferSize];
+    private long[] initStates(int bufferSize) {
+        long[] states = new long[bufferSize];
         for (int i = 0; i < bufferSize; i++) {
-            flags[i] = new PaddedAtomicLong(CAN_PUT_FLAG);
+            states[i] = (long) i << 1;
         }
 
-        return flags;
+        return states;
     }
 
     /**
@@ -213,6 +695,33 @@ public class RingBuffer<T> {
         return bufferSize;
     }
 
+    public int getPaddingThreshold() {
+        return paddingThreshold;
+    }
+
+    /**
+     * The count of values available to take (tail - cursor)
+     *
+     * @return the occupancy
+     */
+    public long getOccupancy() {
+        return Math.max(0L, tail.get() - cursor.get());
+    }
+
+    public RingBufferMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set metrics, can be set while the buffer is in use
+     *
+     * @param metrics null means {@link RingBufferMetrics#NOOP}
+     */
+    public void setMetrics(RingBufferMetrics metrics) {
+        this.metrics = metrics != null ? metrics : RingBufferMetrics.NOOP;
+        this.recordTakeLatency = this.metrics.isTakeLatencyEnabled();
+    }
+
     public void setRejectedPutHandler(RejectedPutBufferHandler rejectedPutHandler) {
         this.rejectedPutHandler = rejectedPutHandler;
     }
@@ -239,6 +748,7 @@ public class RingBuffer<T> {
         private PaddingExecutorHandler paddingExecutorHandler;
         private RejectedPutBufferHandler rejectedPutHandler;
         private RejectedTakeBufferHandler rejectedTakeHandler;
+        private RingBufferMetrics metrics;
 
         public Builder(int bufferSize, PaddingExecutorHandler paddingExecutorHandler){
             this.bufferSize=bufferSize;
@@ -255,6 +765,11 @@ public class RingBuffer<T> {
             return this;
         }
 
+        public Builder setMetrics(RingBufferMetrics metrics) {
+            this.metrics=metrics;
+            return this;
+        }
+
         public Builder setBufferSize(int bufferSize) {
             this.bufferSize=bufferSize;
             return this;
@@ -266,13 +781,28 @@ public class RingBuffer<T> {
         }
 
         public <T> RingBuffer<T> build(){
-            RingBuffer<T> ringBuffer=new RingBuffer<T>(bufferSize,paddingPercent,paddingExecutorHandler);
+            return configure(new RingBuffer<T>(bufferSize,paddingPercent,paddingExecutorHandler));
+        }
+
+        /**
+         * Build a ring buffer holding long values in a long[]
+         *
+         * @return the long ring buffer
+         */
+        public LongRingBuffer buildLong(){
+            return configure(new LongRingBuffer(bufferSize,paddingPercent,paddingExecutorHandler));
+        }
+
+        private <R extends RingBuffer<?>> R configure(R ringBuffer){
             if (rejectedPutHandler!=null){
                 ringBuffer.setRejectedPutHandler(rejectedPutHandler);
             }
             if (rejectedTakeHandler!=null){
                 ringBuffer.setRejectedTakeHandler(rejectedTakeHandler);
             }
+            if (metrics!=null){
+                ringBuffer.setMetrics(metrics);
+            }
             return ringBuffer;
         }
     }
@@ -0,0 +1,68 @@
+package com.hhao.common.utils.collections.buffer;
+
+/**
+ * Metrics SPI of {@link RingBuffer}, called on the put/take path, so implementations must be cheap and thread-safe.
+ * The occupancy is not reported by events, read it by {@link RingBuffer#getOccupancy()}
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public interface RingBufferMetrics {
+    /**
+     * Metrics doing nothing, the default of {@link RingBuffer}
+     */
+    RingBufferMetrics NOOP = new RingBufferMetrics() {
+    };
+
+    /**
+     * Called when a single put (put, putLong) is rejected because the buffer is full.
+     * A bulk put (putAll) stopping at a full buffer is not counted
+     *
+     * @param ringBuffer the ring buffer
+     */
+    default void putRejected(RingBuffer<?> ringBuffer) {
+    }
+
+    /**
+     * Called when a take, poll or drainTo finds the buffer empty
+     *
+     * @param ringBuffer the ring buffer
+     */
+    default void takeRejected(RingBuffer<?> ringBuffer) {
+    }
+
+    /**
+     * Called when the rest of values is below the padding threshold and the padding handler is triggered
+     *
+     * @param ringBuffer the ring buffer
+     */
+    default void paddingTriggered(RingBuffer<?> ringBuffer) {
+    }
+
+    /**
+     * Called by {@link RingBuffer#paddingCompleted()} with the nanos from the padding triggered to completed
+     *
+     * @param ringBuffer    the ring buffer
+     * @param durationNanos the duration nanos
+     */
+    default void paddingCompleted(RingBuffer<?> ringBuffer, long durationNanos) {
+    }
+
+    /**
+     * Whether to record the take latency, {@link System#nanoTime()} is called twice per take when enabled
+     *
+     * @return the boolean
+     */
+    default boolean isTakeLatencyEnabled() {
+        return false;
+    }
+
+    /**
+     * Called after a take (take, poll, drainTo) when the take latency is enabled, includes the waiting time of timed poll
+     *
+     * @param ringBuffer    the ring buffer
+     * @param durationNanos the duration nanos
+     */
+    default void takeCompleted(RingBuffer<?> ringBuffer, long durationNanos) {
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.utils.collections.buffer.executor;
+
+import com.hhao.common.log.Logger;
+import com.hhao.common.log.LoggerFactory;
+import com.hhao.common.utils.Assert;
+import com.hhao.common.utils.NamingThreadFactory;
+import com.hhao.common.utils.collections.buffer.LongPrefetchBuffer;
+import com.hhao.common.utils.collections.buffer.LongRingBuffer;
+import com.hhao.common.utils.collections.buffer.PaddingExecutorHandler;
+import com.hhao.common.utils.collections.buffer.RingBuffer;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存填充执行器的默认实现
+ * 持有一个LongRingBuffer(值保存在long[]中,取值不装箱),按秒向BufferedValueProvider取值填满RingBuffer:
+ * 1、start时同步填满
+ * 2、take时剩余数量低于paddingThreshold,在填充线程中异步填充,每次低于阈值只触发一次,同一时刻只有一个填充任务
+ * 3、scheduleInterval大于0时,按该间隔(秒)定时填充
+ * 填充使用的秒数从启动时的当前秒开始逐次加1,不再读取时钟,取值速度超过生成速度时借用未来的秒数
+ * 每秒的值通过RingBuffer#putAll一次写入
+ * RingBuffer为空时,getId在调用线程中填充(或等待正在进行的填充)后重试;填充失败且RingBuffer仍为空时抛出填充的异常
+ * prefetchSize大于0时,每个线程一次从RingBuffer取prefetchSize个值在本线程中使用(LongPrefetchBuffer),减少多线程对cursor的竞争
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class DefaultBufferPaddingExecutor implements BufferPaddingExecutor, PaddingExecutorHandler {
+    private static final Logger logger = LoggerFactory.getLogger(DefaultBufferPaddingExecutor.class);
+    private static final String WORKER_NAME = "RingBuffer-Padding-Worker";
+    private static final String SCHEDULE_NAME = "RingBuffer-Padding-Schedule";
+    /**
+     * RingBuffer为空时pollLong的返回值
+     */
+    private static final long EMPTY_ID = Long.MIN_VALUE;
+
+    private final LongRingBuffer ringBuffer;
+    /**
+     * 线程本地的预取缓存,不预取时为null
+     */
+    private final LongPrefetchBuffer prefetchBuffer;
+    private final BufferedValueProvider valueProvider;
+    private final long scheduleInterval;
+    /**
+     * 最近一次填充使用的秒数
+     */
+    private final AtomicLong lastSecond;
+    /**
+     * 是否正在填充
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    /**
+     * 最近一次填充的异常,填充成功后清除
+     */
+    private volatile RuntimeException paddingFailure;
+
+    private final ThreadPoolExecutor paddingPool;
+    private ScheduledExecutorService paddingSchedule;
+
+    /**
+     * Instantiates a new Default buffer padding executor.
+     *
+     * @param bufferSize       RingBuffer的大小,必须为2的幂
+     * @param paddingFactor    填充阈值的百分比,(0, 100)
+     * @param valueProvider    按秒提供值
+     * @param scheduleInterval 定时填充的间隔(秒),小于等于0时不定时填充
+     */
+    public DefaultBufferPaddingExecutor(int bufferSize, int paddingFactor, BufferedValueProvider valueProvider, long scheduleInterval) {
+        this(bufferSize, paddingFactor, valueProvider, scheduleInterval, 0);
+    }
+
+    /**
+     * Instantiates a new Default buffer padding executor.
+     *
+     * @param bufferSize       RingBuffer的大小,必须为2的幂
+     * @param paddingFactor    填充阈值的百分比,(0, 100)
+     * @param valueProvider    按秒提供值
+     * @param scheduleInterval 定时填充的间隔(秒),小于等于0时不定时填充
+     * @param prefetchSize     每个线程一次预取的数量,小于等于0时不预取
+     */
+    public DefaultBufferPaddingExecutor(int bufferSize, int paddingFactor, BufferedValueProvider valueProvider,
+                                        long scheduleInterval, int prefetchSize) {
+        Assert.notNull(valueProvider, "valueProvider must not be null");
+        this.valueProvider = valueProvider;
+        this.scheduleInterval = scheduleInterval;
+        this.lastSecond = new AtomicLong(System.currentTimeMillis() / 1000);
+        //填充时RingBuffer写满是正常情况,不记录日志
+        this.ringBuffer = new RingBuffer.Builder(bufferSize, this)
+                .setPaddingPercent(paddingFactor)
+                .setRejectedPutHandler((buffer, value) -> {
+                })
+                .buildLong();
+        this.prefetchBuffer = prefetchSize > 0 ? new LongPrefetchBuffer(ringBuffer, Math.min(prefetchSize, bufferSize)) : null;
+        this.paddingPool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), new NamingThreadFactory(WORKER_NAME, true),
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void start() {
+        paddingBuffer();
+        if (scheduleInterval > 0) {
+            paddingSchedule = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(SCHEDULE_NAME, true));
+            paddingSchedule.scheduleWithFixedDelay(this::paddingBuffer, scheduleInterval, scheduleInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        paddingPool.shutdownNow();
+        if (paddingSchedule != null) {
+            paddingSchedule.shutdownNow();
+        }
+    }
+
+    @Override
+    public long getId() {
+        for (; ; ) {
+            long id = prefetchBuffer != null ? prefetchBuffer.poll(EMPTY_ID) : ringBuffer.pollLong(EMPTY_ID);
+            if (id != EMPTY_ID) {
+                return id;
+            }
+            awaitPadding();
+            id = prefetchBuffer != null ? prefetchBuffer.poll(EMPTY_ID) : ringBuffer.pollLong(EMPTY_ID);
+            if (id != EMPTY_ID) {
+                return id;
+            }
+            RuntimeException failure = paddingFailure;
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * RingBuffer为空时,没有正在进行的填充则在当前线程填充,否则等待填充结束
+     */
+    private void awaitPadding() {
+        if (!running.get()) {
+            paddingBuffer();
+            return;
+        }
+        while (running.get()) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * RingBuffer剩余数量低于阈值时调用,已在填充时直接返回
+     *
+     * @param ringBuffer the ring buffer
+     */
+    @Override
+    public void paddingExecutor(RingBuffer ringBuffer) {
+        if (!running.get()) {
+            paddingPool.execute(this::paddingBuffer);
+        }
+    }
+
+    /**
+     * 填满RingBuffer,同一时刻只有一个线程执行
+     */
+    public void paddingBuffer() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            boolean full = false;
+            while (!full) {
+                List<Object> values = valueProvider.provide(lastSecond.incrementAndGet());
+                full = ringBuffer.putAll(values) < values.size();
+            }
+            paddingFailure = null;
+        } catch (RuntimeException e) {
+            paddingFailure = e;
+            logger.error("Padding buffer failed. " + ringBuffer, e);
+        } finally {
+            running.set(false);
+            ringBuffer.paddingCompleted();
+        }
+    }
+
+    /**
+     * Gets ring buffer.
+     *
+     * @return the ring buffer
+     */
+    public LongRingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    /**
+     * 是否正在填充
+     *
+     * @return the boolean
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.utils.collections.cache;
+
+import com.hhao.common.utils.Assert;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 有界的并发缓存
+ * 读操作无锁,只在命中时设置访问标记;超出容量时按二次机会(CLOCK)算法淘汰,近似LRU
+ * 可选写入后过期时间,过期的条目在读取或清理队列时移除
+ * 被移除、替换、过期的节点标记为失效,队列中失效节点过多时清理队列,避免队列无限增长
+ * 记录命中、未命中、淘汰次数,用于评估缓存大小
+ *
+ * @param <K> the type parameter
+ * @param <V> the type parameter
+ * @author Wang
+ * @since 1.0.0
+ */
+public class ConcurrentLruCache<K, V> {
+    /**
+     * 队列中除有效节点外允许的失效节点基数,超出后清理队列
+     */
+    private static final int SWEEP_SLACK = 64;
+    private final int capacity;
+    /**
+     * 写入后的过期时间(纳秒),小于等于0时不过期
+     */
+    private final long expireAfterWriteNanos;
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ConcurrentLinkedQueue<Node<K, V>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    /**
+     * 队列长度,ConcurrentLinkedQueue#size需要遍历
+     */
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Instantiates a new Concurrent lru cache.
+     *
+     * @param capacity 最大缓存条目数
+     */
+    public ConcurrentLruCache(int capacity) {
+        this(capacity, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Instantiates a new Concurrent lru cache.
+     *
+     * @param capacity         最大缓存条目数
+     * @param expireAfterWrite 写入后的过期时间,小于等于0时不过期
+     * @param unit             the unit
+     */
+    public ConcurrentLruCache(int capacity, long expireAfterWrite, TimeUnit unit) {
+        Assert.isTrue(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        this.expireAfterWriteNanos = expireAfterWrite > 0 ? unit.toNanos(expireAfterWrite) : 0L;
+        this.map = new ConcurrentHashMap<>(Math.min(capacity, 1024));
+    }
+
+    /**
+     * 返回缓存值,不存在时返回null
+     *
+     * @param key the key
+     * @return the v
+     */
+    public V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (node.isExpired(System.nanoTime())) {
+            if (map.remove(key, node)) {
+                retire(node);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        node.touch();
+        return node.value;
+    }
+
+    /**
+     * 返回缓存值,不存在时通过loader加载并放入缓存
+     * loader在锁外执行,并发加载同一个key时以先放入的值为准
+     *
+     * @param key    the key
+     * @param loader the loader
+     * @return the v
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value == null) {
+            return null;
+        }
+        Node<K, V> node = newNode(key, value);
+        Node<K, V> existing = map.putIfAbsent(key, node);
+        if (existing != null) {
+            return existing.value;
+        }
+        afterInsert(node);
+        return value;
+    }
+
+    /**
+     * 放入缓存,已存在时替换
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        Assert.notNull(value, "Value must not be null");
+        Node<K, V> node = newNode(key, value);
+        Node<K, V> old = map.put(key, node);
+        if (old != null) {
+            // 旧节点留在队列中,淘汰或清理时丢弃
+            retire(old);
+        }
+        afterInsert(node);
+    }
+
+    /**
+     * 移除缓存
+     *
+     * @param key the key
+     * @return the v
+     */
+    public V remove(K key) {
+        Node<K, V> node = map.remove(key);
+        if (node == null) {
+            return null;
+        }
+        retire(node);
+        return node.value;
+    }
+
+    /**
+     * 清空缓存,统计数据保留
+     */
+    public void clear() {
+        map.clear();
+        queue.clear();
+        size.set(0);
+        queueSize.set(0);
+    }
+
+    /**
+     * 当前缓存条目数
+     *
+     * @return the int
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Gets capacity.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 返回统计快照
+     *
+     * @return the cache stats
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), map.size(), capacity);
+    }
+
+    private Node<K, V> newNode(K key, V value) {
+        long expireAt = 0L;
+        if (expireAfterWriteNanos > 0) {
+            //0表示不过期
+            expireAt = (System.nanoTime() + expireAfterWriteNanos) | 1L;
+        }
+        return new Node<>(key, value, expireAt);
+    }
+
+    private void afterInsert(Node<K, V> node) {
+        offer(node);
+        int current = size.incrementAndGet();
+        if (current > capacity) {
+            evict();
+        } else if (queueSize.get() - current > current + SWEEP_SLACK) {
+            // 失效节点多于有效节点,未超容量时淘汰不会执行,需单独清理
+            sweep();
+        }
+    }
+
+    private void retire(Node<K, V> node) {
+        node.dead = true;
+        size.decrementAndGet();
+    }
+
+    private void offer(Node<K, V> node) {
+        queue.offer(node);
+        queueSize.incrementAndGet();
+    }
+
+    private Node<K, V> poll() {
+        Node<K, V> node = queue.poll();
+        if (node != null) {
+            queueSize.decrementAndGet();
+        }
+        return node;
+    }
+
+    private void evict() {
+        Node<K, V> node;
+        while (size.get() > capacity && (node = poll()) != null) {
+            if (node.dead) {
+                continue;
+            }
+            if (node.referenced) {
+                // 最近访问过,给一次机会
+                node.referenced = false;
+                offer(node);
+                continue;
+            }
+            if (map.remove(node.key, node)) {
+                node.dead = true;
+                size.decrementAndGet();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 遍历一遍队列,丢弃失效节点,顺带移除已过期的条目,有效节点按原顺序放回队尾
+     * 同一时间只有一个线程清理
+     */
+    private void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            Node<K, V> node;
+            for (int n = queueSize.get(); n > 0 && (node = poll()) != null; n--) {
+                if (node.dead) {
+                    continue;
+                }
+                if (node.isExpired(now)) {
+                    if (map.remove(node.key, node)) {
+                        retire(node);
+                    }
+                    continue;
+                }
+                offer(node);
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long expireAt;
+        private volatile boolean referenced;
+        /**
+         * 已从map中移除或被替换
+         */
+        private volatile boolean dead;
+
+        private Node(K key, V value, long expireAt) {
+            this.key = key;
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expireAt != 0L && expireAt - now <= 0;
+        }
+
+        private void touch() {
+            // 避免每次命中都写共享缓存行
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public static final class CacheStats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+        private final int capacity;
+
+        /**
+         * Instantiates a new Cache stats.
+         *
+         * @param hitCount      the hit count
+         * @param missCount     the miss count
+         * @param evictionCount the eviction count
+         * @param size          the size
+         * @param capacity      the capacity
+         */
+        public CacheStats(long hitCount, long missCount, long evictionCount, int size, int capacity) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Gets hit count.
+         *
+         * @return the hit count
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Gets miss count.
+         *
+         * @return the miss count
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Gets eviction count.
+         *
+         * @return the eviction count
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Gets size.
+         *
+         * @return the size
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Gets capacity.
+         *
+         * @return the capacity
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * 命中率
+         *
+         * @return the hit rate
+         */
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStats [hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", evictionCount=" + evictionCount +
+                    ", size=" + size +
+                    ", capacity=" + capacity + "]";
+        }
+    }
+}
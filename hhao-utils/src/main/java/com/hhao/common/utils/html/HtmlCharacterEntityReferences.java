@@ -60,7 +60,23 @@ public class HtmlCharacterEntityReferences {
     static final char CHAR_NULL = (char) -1;
 
 
-    private final String[] characterToEntityReferenceMap = new String[3000];
+    /**
+     * 以字符为下标的引用表,UTF编码只转义&lt;、&gt;、&quot;、&amp;、&#39;
+     */
+    private static final String[] UTF_REFERENCE_TABLE = new String['>' + 1];
+
+    static {
+        UTF_REFERENCE_TABLE['<'] = "&lt;";
+        UTF_REFERENCE_TABLE['>'] = "&gt;";
+        UTF_REFERENCE_TABLE['"'] = "&quot;";
+        UTF_REFERENCE_TABLE['&'] = "&amp;";
+        UTF_REFERENCE_TABLE['\''] = "&#39;";
+    }
+
+    /**
+     * 以字符为下标的引用表,其它编码使用HTML 4.0的全部实体引用(字符小于1000或在8000-9999之间)
+     */
+    private final String[] characterToEntityReferenceMap = new String[10000];
 
     private final Map<String, Character> entityReferenceToCharacterMap = new HashMap<>(512);
 
@@ -97,9 +113,8 @@ public class HtmlCharacterEntityReferences {
             int referredChar = Integer.parseInt(key);
             Assert.isTrue((referredChar < 1000 || (referredChar >= 8000 && referredChar < 10000)),
                     () -> "Invalid reference to special HTML entity: " + referredChar);
-            int index = (referredChar < 1000 ? referredChar : referredChar - 7000);
             String reference = entityReferences.getProperty(key);
-            this.characterToEntityReferenceMap[index] = REFERENCE_START + reference + REFERENCE_END;
+            this.characterToEntityReferenceMap[referredChar] = REFERENCE_START + reference + REFERENCE_END;
             this.entityReferenceToCharacterMap.put(reference, (char) referredChar);
         }
     }
@@ -156,29 +171,19 @@ public class HtmlCharacterEntityReferences {
      */
     
     public String convertToReference(char character, String encoding) {
-        if (encoding.startsWith("UTF-")){
-            switch (character){
-                case '<':
-                    return "&lt;";
-                case '>':
-                    return "&gt;";
-                case '"':
-                    return "&quot;";
-                case '&':
-                    return "&amp;";
-                case '\'':
-                    return "&#39;";
-                default:
-            }
-        }
-        else if (character < 1000 || (character >= 8000 && character < 10000)) {
-            int index = (character < 1000 ? character : character - 7000);
-            String entityReference = this.characterToEntityReferenceMap[index];
-            if (entityReference != null) {
-                return entityReference;
-            }
-        }
-        return null;
+        String[] table = getReferenceTable(encoding);
+        return character < table.length ? table[character] : null;
+    }
+
+    /**
+     * 返回编码对应的引用表,以字符为下标,没有引用的字符为null,超出表长度的字符都没有引用
+     * 返回的是内部数组,不能修改
+     *
+     * @param encoding the encoding
+     * @return the string [ ]
+     */
+    String[] getReferenceTable(String encoding) {
+        return encoding.startsWith("UTF-") ? UTF_REFERENCE_TABLE : this.characterToEntityReferenceMap;
     }
 
     /**
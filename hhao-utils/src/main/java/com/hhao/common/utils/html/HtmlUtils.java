@@ -18,8 +18,15 @@ package com.hhao.common.utils.html;
 
 import com.hhao.common.utils.Assert;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
 /**
  * The type Html utils.
+ * 转义时先扫描第一个需要转义的字符,没有时直接返回原字符串,不分配内存;
+ * 字符的实体引用通过以字符为下标的引用表查找,见HtmlCharacterEntityReferences#getReferenceTable
+ * 提供Appendable(Writer)的版本,可直接转义到输出中
  *
  * @author Wang
  * @since 1.0.0
@@ -34,6 +41,13 @@ public class HtmlUtils {
     private static HtmlCharacterEntityReferences characterEntityReferences =
             new HtmlCharacterEntityReferences();
 
+    /**
+     * 转义方式
+     */
+    private static final int NAMED = 0;
+    private static final int DECIMAL = 1;
+    private static final int HEX = 2;
+
 
     /**
      * Html escape string.
@@ -51,23 +65,22 @@ public class HtmlUtils {
      *
      * @param input    the input
      * @param encoding the encoding
-     * @return the string
+     * @return 没有需要转义的字符时返回input本身
      */
     public static String htmlEscape(String input, String encoding) {
-        Assert.notNull(input, "Input is required");
-        Assert.notNull(encoding, "Encoding is required");
-        StringBuilder escaped = new StringBuilder(input.length() * 2);
-        for (int i = 0; i < input.length(); i++) {
-            char character = input.charAt(i);
-            String reference = characterEntityReferences.convertToReference(character, encoding);
-            if (reference != null) {
-                escaped.append(reference);
-            }
-            else {
-                escaped.append(character);
-            }
-        }
-        return escaped.toString();
+        return escape(input, encoding, NAMED);
+    }
+
+    /**
+     * 转义后写入out
+     *
+     * @param input    the input
+     * @param encoding the encoding
+     * @param out      the out
+     * @throws IOException the io exception
+     */
+    public static void htmlEscape(CharSequence input, String encoding, Appendable out) throws IOException {
+        escape(input, encoding, NAMED, out);
     }
 
 
@@ -87,24 +100,22 @@ public class HtmlUtils {
      *
      * @param input    the input
      * @param encoding the encoding
-     * @return the string
+     * @return 没有需要转义的字符时返回input本身
      */
     public static String htmlEscapeDecimal(String input, String encoding) {
-        Assert.notNull(input, "Input is required");
-        Assert.notNull(encoding, "Encoding is required");
-        StringBuilder escaped = new StringBuilder(input.length() * 2);
-        for (int i = 0; i < input.length(); i++) {
-            char character = input.charAt(i);
-            if (characterEntityReferences.isMappedToReference(character, encoding)) {
-                escaped.append(HtmlCharacterEntityReferences.DECIMAL_REFERENCE_START);
-                escaped.append((int) character);
-                escaped.append(HtmlCharacterEntityReferences.REFERENCE_END);
-            }
-            else {
-                escaped.append(character);
-            }
-        }
-        return escaped.toString();
+        return escape(input, encoding, DECIMAL);
+    }
+
+    /**
+     * 以十进制引用转义后写入out
+     *
+     * @param input    the input
+     * @param encoding the encoding
+     * @param out      the out
+     * @throws IOException the io exception
+     */
+    public static void htmlEscapeDecimal(CharSequence input, String encoding, Appendable out) throws IOException {
+        escape(input, encoding, DECIMAL, out);
     }
 
 
@@ -124,24 +135,22 @@ public class HtmlUtils {
      *
      * @param input    the input
      * @param encoding the encoding
-     * @return the string
+     * @return 没有需要转义的字符时返回input本身
      */
     public static String htmlEscapeHex(String input, String encoding) {
-        Assert.notNull(input, "Input is required");
-        Assert.notNull(encoding, "Encoding is required");
-        StringBuilder escaped = new StringBuilder(input.length() * 2);
-        for (int i = 0; i < input.length(); i++) {
-            char character = input.charAt(i);
-            if (characterEntityReferences.isMappedToReference(character, encoding)) {
-                escaped.append(HtmlCharacterEntityReferences.HEX_REFERENCE_START);
-                escaped.append(Integer.toString(character, 16));
-                escaped.append(HtmlCharacterEntityReferences.REFERENCE_END);
-            }
-            else {
-                escaped.append(character);
-            }
-        }
-        return escaped.toString();
+        return escape(input, encoding, HEX);
+    }
+
+    /**
+     * 以十六进制引用转义后写入out
+     *
+     * @param input    the input
+     * @param encoding the encoding
+     * @param out      the out
+     * @throws IOException the io exception
+     */
+    public static void htmlEscapeHex(CharSequence input, String encoding, Appendable out) throws IOException {
+        escape(input, encoding, HEX, out);
     }
 
 
@@ -154,4 +163,86 @@ public class HtmlUtils {
     public static String htmlUnescape(String input) {
         return new HtmlCharacterEntityDecoder(characterEntityReferences, input).decode();
     }
+
+    private static String escape(String input, String encoding, int mode) {
+        Assert.notNull(input, "Input is required");
+        Assert.notNull(encoding, "Encoding is required");
+        String[] table = characterEntityReferences.getReferenceTable(encoding);
+        int first = indexOfEscape(input, 0, table);
+        if (first < 0) {
+            return input;
+        }
+        StringBuilder escaped = new StringBuilder(input.length() + 16);
+        try {
+            escape(input, first, table, mode, escaped);
+        } catch (IOException e) {
+            // StringBuilder不会抛出IOException
+            throw new UncheckedIOException(e);
+        }
+        return escaped.toString();
+    }
+
+    private static void escape(CharSequence input, String encoding, int mode, Appendable out) throws IOException {
+        Assert.notNull(input, "Input is required");
+        Assert.notNull(encoding, "Encoding is required");
+        Assert.notNull(out, "Out is required");
+        escape(input, 0, characterEntityReferences.getReferenceTable(encoding), mode, out);
+    }
+
+    /**
+     * 从start开始转义,不需要转义的连续字符整段写入
+     */
+    private static void escape(CharSequence input, int start, String[] table, int mode, Appendable out) throws IOException {
+        int length = input.length();
+        int last = 0;
+        for (int i = start; i < length; i++) {
+            char character = input.charAt(i);
+            String reference;
+            if (character >= table.length || (reference = table[character]) == null) {
+                continue;
+            }
+            if (i > last) {
+                appendRange(out, input, last, i);
+            }
+            if (mode == NAMED) {
+                out.append(reference);
+            } else if (mode == DECIMAL) {
+                out.append(HtmlCharacterEntityReferences.DECIMAL_REFERENCE_START)
+                        .append(Integer.toString(character))
+                        .append(HtmlCharacterEntityReferences.REFERENCE_END);
+            } else {
+                out.append(HtmlCharacterEntityReferences.HEX_REFERENCE_START)
+                        .append(Integer.toString(character, 16))
+                        .append(HtmlCharacterEntityReferences.REFERENCE_END);
+            }
+            last = i + 1;
+        }
+        if (last < length) {
+            appendRange(out, input, last, length);
+        }
+    }
+
+    /**
+     * 第一个需要转义的字符的位置,没有时返回-1
+     */
+    private static int indexOfEscape(CharSequence input, int start, String[] table) {
+        for (int i = start, length = input.length(); i < length; i++) {
+            char character = input.charAt(i);
+            if (character < table.length && table[character] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writer的append(CharSequence, int, int)会生成子串,String写入Writer时直接按范围写入
+     */
+    private static void appendRange(Appendable out, CharSequence input, int start, int end) throws IOException {
+        if (out instanceof Writer && input instanceof String) {
+            ((Writer) out).write((String) input, start, end - start);
+        } else {
+            out.append(input, start, end);
+        }
+    }
 }
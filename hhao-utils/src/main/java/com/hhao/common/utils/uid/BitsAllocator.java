@@ -0,0 +1,148 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.utils.uid;
+
+import com.hhao.common.utils.Assert;
+
+/**
+ * ID的位分配
+ * 64位依次为:符号位(1位,固定为0)、时间戳(秒,相对于纪元时间)、workerId、序列号
+ * <pre>{@code
+ * +------+----------------------+----------------+-----------+
+ * | sign |     delta seconds    | worker node id | sequence  |
+ * +------+----------------------+----------------+-----------+
+ *   1bit         timestampBits       workerIdBits   sequenceBits
+ * }</pre>
+ * 例如默认的29、21、13:可使用约17年,workerId最多约200万个,每秒每个worker最多8192个ID
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class BitsAllocator {
+    /**
+     * 总位数
+     */
+    public static final int TOTAL_BITS = 1 << 6;
+
+    private final int signBits = 1;
+    private final int timestampBits;
+    private final int workerIdBits;
+    private final int sequenceBits;
+
+    private final long maxDeltaSeconds;
+    private final long maxWorkerId;
+    private final long maxSequence;
+
+    private final int timestampShift;
+    private final int workerIdShift;
+
+    /**
+     * Instantiates a new Bits allocator.
+     *
+     * @param timestampBits the timestamp bits
+     * @param workerIdBits  the worker id bits
+     * @param sequenceBits  the sequence bits
+     */
+    public BitsAllocator(int timestampBits, int workerIdBits, int sequenceBits) {
+        Assert.isTrue(timestampBits > 0 && workerIdBits > 0 && sequenceBits > 0, "Bits must be positive");
+        Assert.isTrue(signBits + timestampBits + workerIdBits + sequenceBits == TOTAL_BITS, "Allocate not enough 64 bits");
+        Assert.isTrue(sequenceBits < 31, "Sequence bits must be less than 31");
+
+        this.timestampBits = timestampBits;
+        this.workerIdBits = workerIdBits;
+        this.sequenceBits = sequenceBits;
+
+        this.maxDeltaSeconds = ~(-1L << timestampBits);
+        this.maxWorkerId = ~(-1L << workerIdBits);
+        this.maxSequence = ~(-1L << sequenceBits);
+
+        this.timestampShift = workerIdBits + sequenceBits;
+        this.workerIdShift = sequenceBits;
+    }
+
+    /**
+     * 按位分配生成ID
+     *
+     * @param deltaSeconds the delta seconds
+     * @param workerId     the worker id
+     * @param sequence     the sequence
+     * @return the long
+     */
+    public long allocate(long deltaSeconds, long workerId, long sequence) {
+        return (deltaSeconds << timestampShift) | (workerId << workerIdShift) | sequence;
+    }
+
+    /**
+     * 由ID解析时间戳(相对于纪元时间的秒数)
+     *
+     * @param uid the uid
+     * @return the long
+     */
+    public long parseDeltaSeconds(long uid) {
+        return uid >>> timestampShift;
+    }
+
+    /**
+     * 由ID解析workerId
+     *
+     * @param uid the uid
+     * @return the long
+     */
+    public long parseWorkerId(long uid) {
+        return (uid >>> workerIdShift) & maxWorkerId;
+    }
+
+    /**
+     * 由ID解析序列号
+     *
+     * @param uid the uid
+     * @return the long
+     */
+    public long parseSequence(long uid) {
+        return uid & maxSequence;
+    }
+
+    public int getTimestampBits() {
+        return timestampBits;
+    }
+
+    public int getWorkerIdBits() {
+        return workerIdBits;
+    }
+
+    public int getSequenceBits() {
+        return sequenceBits;
+    }
+
+    public long getMaxDeltaSeconds() {
+        return maxDeltaSeconds;
+    }
+
+    public long getMaxWorkerId() {
+        return maxWorkerId;
+    }
+
+    public long getMaxSequence() {
+        return maxSequence;
+    }
+
+    @Override
+    public String toString() {
+        return "BitsAllocator [timestampBits=" + timestampBits + ", workerIdBits=" + workerIdBits
+                + ", sequenceBits=" + sequenceBits + "]";
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.utils.uid;
+
+import com.hhao.common.utils.Assert;
+import com.hhao.common.utils.collections.buffer.executor.DefaultBufferPaddingExecutor;
+import com.hhao.common.utils.uid.worker.WorkerIdAssigner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于RingBuffer缓存的ID生成器
+ * 由填充线程按秒一次生成该秒的全部ID放入RingBuffer,getUid只从RingBuffer中取值,不加锁、不读取时钟
+ * RingBuffer大小为(maxSequence + 1) << boostPower,剩余数量低于paddingFactor%时异步填充,也可按scheduleInterval定时填充
+ * 填充使用的秒数从启动时开始逐次加1,与时钟无关,因此不受时钟回拨影响;
+ * 持续的取值速度超过每秒序列号数量时,ID中的时间戳会超前于实际时间
+ * prefetchSize大于0时每个线程一次预取多个ID在本线程中使用,多线程取值时减少竞争,但不同线程取得的ID不再按时间先后排列
+ * 不再使用时调用shutdown停止填充线程
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class CachedUidGenerator extends DefaultUidGenerator {
+    /**
+     * 默认的RingBuffer扩容倍数(2的幂次)
+     */
+    public static final int DEFAULT_BOOST_POWER = 3;
+    /**
+     * 默认的填充阈值百分比
+     */
+    public static final int DEFAULT_PADDING_FACTOR = 50;
+
+    private final DefaultBufferPaddingExecutor paddingExecutor;
+
+    /**
+     * Instantiates a new Cached uid generator.
+     *
+     * @param bitsAllocator    the bits allocator
+     * @param workerIdAssigner the worker id assigner
+     */
+    public CachedUidGenerator(BitsAllocator bitsAllocator, WorkerIdAssigner workerIdAssigner) {
+        this(bitsAllocator, workerIdAssigner, DEFAULT_EPOCH, DEFAULT_BOOST_POWER, DEFAULT_PADDING_FACTOR, 0L, 0);
+    }
+
+    /**
+     * Instantiates a new Cached uid generator.
+     *
+     * @param bitsAllocator    the bits allocator
+     * @param workerIdAssigner the worker id assigner
+     * @param epoch            纪元时间,格式为yyyy-MM-dd(UTC)
+     * @param boostPower       RingBuffer的扩容倍数(2的幂次)
+     * @param paddingFactor    填充阈值的百分比,(0, 100)
+     * @param scheduleInterval 定时填充的间隔(秒),小于等于0时不定时填充
+     * @param prefetchSize     每个线程一次预取的ID数量,小于等于0时不预取
+     */
+    public CachedUidGenerator(BitsAllocator bitsAllocator, WorkerIdAssigner workerIdAssigner, String epoch,
+                              int boostPower, int paddingFactor, long scheduleInterval, int prefetchSize) {
+        super(bitsAllocator, workerIdAssigner, epoch, DEFAULT_MAX_BACKWARD_SECONDS);
+        Assert.isTrue(boostPower >= 0 && bitsAllocator.getSequenceBits() + boostPower < 31, "Invalid boostPower: " + boostPower);
+        int bufferSize = (int) (bitsAllocator.getMaxSequence() + 1) << boostPower;
+        this.paddingExecutor = new DefaultBufferPaddingExecutor(bufferSize, paddingFactor, this::nextIdsForOneSecond,
+                scheduleInterval, prefetchSize);
+        this.paddingExecutor.start();
+    }
+
+    @Override
+    public long getUid() {
+        return paddingExecutor.getId();
+    }
+
+    /**
+     * 生成指定秒的全部ID
+     *
+     * @param currentSecond the current second
+     * @return the list
+     */
+    protected List<Object> nextIdsForOneSecond(long currentSecond) {
+        int size = (int) bitsAllocator.getMaxSequence() + 1;
+        long firstUid = bitsAllocator.allocate(checkDeltaSeconds(currentSecond), workerId, 0L);
+        List<Object> uids = new ArrayList<>(size);
+        for (int offset = 0; offset < size; offset++) {
+            uids.add(firstUid + offset);
+        }
+        return uids;
+    }
+
+    /**
+     * 停止填充线程
+     */
+    public void shutdown() {
+        paddingExecutor.shutdown();
+    }
+
+    /**
+     * Gets padding executor.
+     *
+     * @return the padding executor
+     */
+    public DefaultBufferPaddingExecutor getPaddingExecutor() {
+        return paddingExecutor;
+    }
+}
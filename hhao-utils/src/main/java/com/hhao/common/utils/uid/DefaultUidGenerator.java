@@ -0,0 +1,206 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.utils.uid;
+
+import com.hhao.common.exception.error.server.ServerRuntimeException;
+import com.hhao.common.log.Logger;
+import com.hhao.common.log.LoggerFactory;
+import com.hhao.common.utils.Assert;
+import com.hhao.common.utils.uid.worker.WorkerIdAssigner;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Snowflake风格的ID生成器
+ * ID由时间戳(秒)、workerId及序列号组成,位分配见BitsAllocator;workerId由WorkerIdAssigner在启动时分配
+ * 同一秒内序列号用尽时等待下一秒
+ * 时钟回拨时:回拨不超过maxBackwardSeconds时沿用上一次的秒数继续生成(序列号用尽时借用下一秒),超过时抛出异常
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class DefaultUidGenerator implements UidGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(DefaultUidGenerator.class);
+    /**
+     * 默认纪元时间
+     */
+    public static final String DEFAULT_EPOCH = "2024-01-01";
+    /**
+     * 默认可容忍的时钟回拨秒数
+     */
+    public static final long DEFAULT_MAX_BACKWARD_SECONDS = 1L;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * The Bits allocator.
+     */
+    protected final BitsAllocator bitsAllocator;
+    /**
+     * The Worker id.
+     */
+    protected final long workerId;
+    /**
+     * 纪元时间(秒,UTC)
+     */
+    protected final long epochSeconds;
+    private final long maxBackwardSeconds;
+
+    private long sequence = 0L;
+    private long lastSecond = -1L;
+
+    /**
+     * Instantiates a new Default uid generator.
+     *
+     * @param bitsAllocator    the bits allocator
+     * @param workerIdAssigner the worker id assigner
+     */
+    public DefaultUidGenerator(BitsAllocator bitsAllocator, WorkerIdAssigner workerIdAssigner) {
+        this(bitsAllocator, workerIdAssigner, DEFAULT_EPOCH, DEFAULT_MAX_BACKWARD_SECONDS);
+    }
+
+    /**
+     * Instantiates a new Default uid generator.
+     *
+     * @param bitsAllocator      the bits allocator
+     * @param workerIdAssigner   the worker id assigner
+     * @param epoch              纪元时间,格式为yyyy-MM-dd(UTC),同一业务的所有实例必须相同
+     * @param maxBackwardSeconds 可容忍的时钟回拨秒数
+     */
+    public DefaultUidGenerator(BitsAllocator bitsAllocator, WorkerIdAssigner workerIdAssigner, String epoch, long maxBackwardSeconds) {
+        Assert.notNull(bitsAllocator, "bitsAllocator must not be null");
+        Assert.notNull(workerIdAssigner, "workerIdAssigner must not be null");
+        Assert.isTrue(maxBackwardSeconds >= 0, "maxBackwardSeconds must not be negative");
+        this.bitsAllocator = bitsAllocator;
+        this.epochSeconds = LocalDate.parse(epoch).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        this.maxBackwardSeconds = maxBackwardSeconds;
+
+        long assignedWorkerId = workerIdAssigner.assignWorkerId();
+        if (assignedWorkerId < 0 || assignedWorkerId > bitsAllocator.getMaxWorkerId()) {
+            throw new ServerRuntimeException("Worker id " + assignedWorkerId + " exceeds the max " + bitsAllocator.getMaxWorkerId());
+        }
+        this.workerId = assignedWorkerId;
+        logger.info("Initialized uid generator, {}, workerId:{}, epoch:{}", bitsAllocator, workerId, epoch);
+    }
+
+    @Override
+    public long getUid() {
+        return nextId();
+    }
+
+    @Override
+    public String parseUid(long uid) {
+        long deltaSeconds = bitsAllocator.parseDeltaSeconds(uid);
+        String time = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds + deltaSeconds), ZoneId.systemDefault())
+                .format(DATE_TIME_FORMATTER);
+        return "{\"uid\":\"" + uid + "\",\"timestamp\":\"" + time + "\",\"workerId\":\"" + bitsAllocator.parseWorkerId(uid)
+                + "\",\"sequence\":\"" + bitsAllocator.parseSequence(uid) + "\"}";
+    }
+
+    /**
+     * 生成下一个ID
+     *
+     * @return the long
+     */
+    protected synchronized long nextId() {
+        long currentSecond = getCurrentSecond();
+
+        if (currentSecond < lastSecond) {
+            long refusedSeconds = lastSecond - currentSecond;
+            if (refusedSeconds > maxBackwardSeconds) {
+                throw new ServerRuntimeException("Clock moved backwards. Refusing for " + refusedSeconds + " seconds");
+            }
+            //回拨在容忍范围内,沿用上一次的秒数
+            currentSecond = lastSecond;
+        }
+
+        if (currentSecond == lastSecond) {
+            sequence = (sequence + 1) & bitsAllocator.getMaxSequence();
+            if (sequence == 0L) {
+                currentSecond = getNextSecond(lastSecond);
+            }
+        } else {
+            sequence = 0L;
+        }
+        lastSecond = currentSecond;
+
+        return bitsAllocator.allocate(checkDeltaSeconds(currentSecond), workerId, sequence);
+    }
+
+    /**
+     * 返回相对于纪元时间的秒数,超出时间戳位数时抛出异常
+     *
+     * @param second the second
+     * @return the long
+     */
+    protected long checkDeltaSeconds(long second) {
+        long deltaSeconds = second - epochSeconds;
+        if (deltaSeconds > bitsAllocator.getMaxDeltaSeconds()) {
+            throw new ServerRuntimeException("Timestamp bits is exhausted. Refusing UID generate. Now: " + second);
+        }
+        return deltaSeconds;
+    }
+
+    /**
+     * 序列号用尽时取下一秒:时钟仍落后时在容忍范围内借用下一秒,否则等待时钟走到下一秒
+     */
+    private long getNextSecond(long lastSecond) {
+        long second = getCurrentSecond();
+        if (second > lastSecond) {
+            return second;
+        }
+        if (lastSecond + 1 - second <= maxBackwardSeconds) {
+            return lastSecond + 1;
+        }
+        while (second <= lastSecond) {
+            Thread.onSpinWait();
+            second = getCurrentSecond();
+        }
+        return second;
+    }
+
+    /**
+     * 当前秒数
+     *
+     * @return the current second
+     */
+    protected long getCurrentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Gets worker id.
+     *
+     * @return the worker id
+     */
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Gets bits allocator.
+     *
+     * @return the bits allocator
+     */
+    public BitsAllocator getBitsAllocator() {
+        return bitsAllocator;
+    }
+}
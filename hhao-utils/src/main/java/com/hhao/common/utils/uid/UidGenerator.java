@@ -0,0 +1,40 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.utils.uid;
+
+/**
+ * 分布式唯一ID生成器
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public interface UidGenerator {
+    /**
+     * 生成唯一ID
+     *
+     * @return the uid
+     */
+    long getUid();
+
+    /**
+     * 解析ID,返回时间戳、workerId、序列号组成的json字符串
+     *
+     * @param uid the uid
+     * @return the string
+     */
+    String parseUid(long uid);
+}
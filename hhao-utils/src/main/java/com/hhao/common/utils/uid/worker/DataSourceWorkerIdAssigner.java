@@ -0,0 +1,110 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.utils.uid.worker;
+
+import com.hhao.common.exception.error.server.ServerRuntimeException;
+import com.hhao.common.log.Logger;
+import com.hhao.common.log.LoggerFactory;
+import com.hhao.common.utils.Assert;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.*;
+
+/**
+ * 基于数据库表的workerId分配器
+ * 每次启动向表中插入一条记录,以自增主键作为workerId,适用于多机部署
+ * 表结构(MySQL):
+ * <pre>{@code
+ * CREATE TABLE WORKER_NODE (
+ *   ID BIGINT NOT NULL AUTO_INCREMENT,
+ *   HOST_NAME VARCHAR(64) NOT NULL,
+ *   PORT VARCHAR(64) NOT NULL,
+ *   LAUNCH_DATE TIMESTAMP NOT NULL,
+ *   PRIMARY KEY (ID)
+ * );
+ * }</pre>
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class DataSourceWorkerIdAssigner implements WorkerIdAssigner {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceWorkerIdAssigner.class);
+    /**
+     * 默认表名
+     */
+    public static final String DEFAULT_TABLE_NAME = "WORKER_NODE";
+
+    private final DataSource dataSource;
+    private final String tableName;
+
+    /**
+     * Instantiates a new Data source worker id assigner.
+     *
+     * @param dataSource the data source
+     */
+    public DataSourceWorkerIdAssigner(DataSource dataSource) {
+        this(dataSource, DEFAULT_TABLE_NAME);
+    }
+
+    /**
+     * Instantiates a new Data source worker id assigner.
+     *
+     * @param dataSource the data source
+     * @param tableName  the table name
+     */
+    public DataSourceWorkerIdAssigner(DataSource dataSource, String tableName) {
+        Assert.notNull(dataSource, "dataSource must not be null");
+        Assert.isTrue(tableName != null && tableName.matches("[A-Za-z0-9_.]+"), "Invalid table name: " + tableName);
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public long assignWorkerId() {
+        String hostName = getHostName();
+        String port = ProcessHandle.current().pid() + "-" + System.currentTimeMillis();
+        String sql = "INSERT INTO " + tableName + " (HOST_NAME, PORT, LAUNCH_DATE) VALUES (?, ?, ?)";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, hostName);
+            ps.setString(2, port);
+            ps.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    throw new ServerRuntimeException("No generated key returned from table " + tableName);
+                }
+                long workerId = rs.getLong(1);
+                logger.info("Assigned worker id:{}, host:{}, port:{}", workerId, hostName, port);
+                return workerId;
+            }
+        } catch (SQLException e) {
+            throw new ServerRuntimeException("Failed to assign worker id from table " + tableName, e);
+        }
+    }
+
+    private String getHostName() {
+        try {
+            String hostName = InetAddress.getLocalHost().getHostName();
+            return hostName.length() > 64 ? hostName.substring(0, 64) : hostName;
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
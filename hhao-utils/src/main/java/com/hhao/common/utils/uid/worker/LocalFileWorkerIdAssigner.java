@@ -0,0 +1,116 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.utils.uid.worker;
+
+import com.hhao.common.exception.error.server.ServerRuntimeException;
+import com.hhao.common.log.Logger;
+import com.hhao.common.log.LoggerFactory;
+import com.hhao.common.utils.Assert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 基于本地文件的workerId分配器
+ * 文件中保存启动计数,每次分配时在文件锁内加1,同一台机器上的多个进程互不重复
+ * workerId=(nodeId << restartBits) | (启动计数 & (2^restartBits - 1)),
+ * 多台机器部署时需为每台机器指定不同的nodeId,否则使用DataSourceWorkerIdAssigner
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+public class LocalFileWorkerIdAssigner implements WorkerIdAssigner {
+    private static final Logger logger = LoggerFactory.getLogger(LocalFileWorkerIdAssigner.class);
+    /**
+     * 默认启动计数的位数
+     */
+    public static final int DEFAULT_RESTART_BITS = 16;
+
+    private final Path file;
+    private final long nodeId;
+    private final int restartBits;
+
+    /**
+     * Instantiates a new Local file worker id assigner.
+     *
+     * @param file the file
+     */
+    public LocalFileWorkerIdAssigner(Path file) {
+        this(file, 0L, DEFAULT_RESTART_BITS);
+    }
+
+    /**
+     * Instantiates a new Local file worker id assigner.
+     *
+     * @param file        保存启动计数的文件
+     * @param nodeId      机器编号
+     * @param restartBits 启动计数的位数
+     */
+    public LocalFileWorkerIdAssigner(Path file, long nodeId, int restartBits) {
+        Assert.notNull(file, "file must not be null");
+        Assert.isTrue(nodeId >= 0, "nodeId must not be negative");
+        Assert.isTrue(restartBits > 0 && restartBits < 63, "restartBits must be in (0, 63)");
+        this.file = file;
+        this.nodeId = nodeId;
+        this.restartBits = restartBits;
+    }
+
+    @Override
+    public long assignWorkerId() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                long counter = readCounter(channel) + 1;
+                byte[] bytes = Long.toString(counter).getBytes(StandardCharsets.US_ASCII);
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap(bytes), 0);
+                channel.force(true);
+
+                long workerId = (nodeId << restartBits) | (counter & ~(-1L << restartBits));
+                logger.info("Assigned worker id:{}, file:{}, counter:{}", workerId, file, counter);
+                return workerId;
+            }
+        } catch (IOException e) {
+            throw new ServerRuntimeException("Failed to assign worker id from file " + file, e);
+        }
+    }
+
+    private long readCounter(FileChannel channel) throws IOException {
+        int size = (int) Math.min(channel.size(), 32);
+        if (size == 0) {
+            return 0L;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        channel.read(buffer, 0);
+        String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+        try {
+            return text.isEmpty() ? 0L : Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new ServerRuntimeException("Invalid worker id counter in file " + file + ": " + text, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.utils.uid.worker;
+
+/**
+ * workerId分配器
+ * 每次启动分配一个新的workerId,同一时刻运行的实例之间workerId不能重复
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface WorkerIdAssigner {
+    /**
+     * 分配workerId
+     *
+     * @return the long
+     */
+    long assignWorkerId();
+}
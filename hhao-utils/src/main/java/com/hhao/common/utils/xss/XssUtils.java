@@ -17,7 +17,10 @@
 package com.hhao.common.utils.xss;
 
 import org.owasp.validator.html.*;
+import org.owasp.validator.html.scan.AntiSamySAXScanner;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -40,6 +43,22 @@ public class XssUtils {
      * The Anti samy.
      */
     static AntiSamy antiSamy;
+    /**
+     * 每个线程最多缓存的扫描器数
+     */
+    private static final int MAX_SCANNERS_PER_THREAD = 16;
+    /**
+     * 线程内按Policy复用的扫描器
+     */
+    private static final ThreadLocal<Map<Policy, AntiSamySAXScanner>> SCANNERS = ThreadLocal.withInitial(IdentityHashMap::new);
+    /**
+     * Policy中对有命名实体的非ASCII字符进行实体编码的指令
+     */
+    private static final String ENTITY_ENCODE_INTL_CHARS = "entityEncodeIntlChars";
+    /**
+     * HTML命名实体只包括U+3000以下的字符,从此处开始的CJK等字符不会被实体编码
+     */
+    private static final char FIRST_UNENCODED_INTL_CHAR = '\u3000';
 
     static{
         try {
@@ -104,8 +123,17 @@ public class XssUtils {
      * @return the string
      */
     public static String cleanHtml(String html, Policy policy, Consumer<String> msgConsumer){
+        if (html != null && policy != null) {
+            if (html.length() > policy.getMaxInputSize()) {
+                //与扫描异常时一致,超出长度限制时返回空字符串
+                return "";
+            }
+            if (isMarkupFree(html, policy)) {
+                return html;
+            }
+        }
         try {
-            CleanResults cr=antiSamy.scan(html,policy,AntiSamy.SAX);
+            CleanResults cr = policy != null ? getScanner(policy).scan(html) : antiSamy.scan(html, policy, AntiSamy.SAX);
             if (msgConsumer!=null) {
                 cr.getErrorMessages().stream().forEach(str -> {
                     msgConsumer.accept(str);
@@ -119,4 +147,68 @@ public class XssUtils {
         }
         return "";
     }
+
+    /**
+     * 判断字符串是否不含需要扫描的内容,此时扫描结果与原字符串相同
+     * 不含&lt;、&gt;、&amp;、引号及控制字符,扫描器会对这些字符进行实体编码,对换行、制表符进行空白处理;
+     * 非ASCII字符(如中文)可以出现,但孤立的代理字符及U+FFFE、U+FFFF不是合法的XML字符,需要扫描
+     *
+     * @param html the html
+     * @return the boolean
+     */
+    public static boolean isMarkupFree(CharSequence html) {
+        return isMarkupFree(html, false);
+    }
+
+    /**
+     * 按Policy判断字符串是否不含需要扫描的内容
+     * Policy开启entityEncodeIntlChars时(默认的antisamy.xml开启),有命名实体的字符(如é、©)会被实体编码,
+     * 此时只接受ASCII及U+3000之后的字符(中日韩文字、全角字符等)
+     *
+     * @param html   the html
+     * @param policy the policy
+     * @return the boolean
+     */
+    public static boolean isMarkupFree(CharSequence html, Policy policy) {
+        return isMarkupFree(html, policy != null && "true".equals(policy.getDirective(ENTITY_ENCODE_INTL_CHARS)));
+    }
+
+    private static boolean isMarkupFree(CharSequence html, boolean entityEncodeIntlChars) {
+        for (int i = 0, len = html.length(); i < len; i++) {
+            char c = html.charAt(i);
+            if (c < 0x7F) {
+                if (c < 0x20 || c == '<' || c == '>' || c == '&' || c == '"' || c == '\'') {
+                    return false;
+                }
+            } else if (Character.isISOControl(c) || c == '\uFFFE' || c == '\uFFFF'
+                    || (entityEncodeIntlChars && c < FIRST_UNENCODED_INTL_CHAR)) {
+                return false;
+            } else if (Character.isHighSurrogate(c)) {
+                if (i + 1 >= len || !Character.isLowSurrogate(html.charAt(i + 1))) {
+                    return false;
+                }
+                i++;
+            } else if (Character.isLowSurrogate(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 返回当前线程中Policy对应的扫描器,扫描器不是线程安全的,但可在同一线程内重复使用
+     */
+    private static AntiSamySAXScanner getScanner(Policy policy) {
+        Map<Policy, AntiSamySAXScanner> scanners = SCANNERS.get();
+        AntiSamySAXScanner scanner = scanners.get(policy);
+        if (scanner == null) {
+            //Policy通常是长期持有的单例,数量异常时清空,避免每次新建Policy造成泄漏
+            if (scanners.size() >= MAX_SCANNERS_PER_THREAD) {
+                scanners.clear();
+            }
+            scanner = new AntiSamySAXScanner(policy);
+            scanners.put(policy, scanner);
+        }
+        return scanner;
+    }
 }
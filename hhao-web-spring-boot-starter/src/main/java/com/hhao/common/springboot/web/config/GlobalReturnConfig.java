@@ -83,20 +83,18 @@ public class GlobalReturnConfig {
     @ConditionalOnMissingBean(name = "responseWrapper")
     public ResponseBodyAdvice<Object> responseWrapper() {
         return new ResponseBodyAdvice<Object>() {
-            private final ConcurrentHashMap<String, Boolean> supportsCache = new ConcurrentHashMap<>();
+            private final ConcurrentHashMap<Method, Boolean> supportsCache = new ConcurrentHashMap<>();
 
             @Override
             public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
-                String key=returnType.getMethod().toGenericString();
-
-                return supportsCache.computeIfAbsent(key, k -> {
-                    if (returnType == null) {
-                        return false;
-                    }
-                    Method method = returnType.getMethod();
-                    if (method == null) {
-                        return false;
-                    }
+                if (returnType == null || returnType.getMethod() == null) {
+                    return false;
+                }
+                Boolean supported = supportsCache.get(returnType.getMethod());
+                if (supported != null) {
+                    return supported;
+                }
+                return supportsCache.computeIfAbsent(returnType.getMethod(), method -> {
                     Class<?> returnTypeClass = method.getReturnType();
                     // 如果返回值类型继承自UnResultWrapper,则不支持自动包装
                     if (UnResultWrapper.class.isAssignableFrom(returnTypeClass)) {
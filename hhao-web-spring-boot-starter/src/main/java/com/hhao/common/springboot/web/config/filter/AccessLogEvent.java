@@ -0,0 +1,166 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.springboot.web.config.filter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * 访问日志事件
+ * 在请求线程中从request、response复制需要的字段,请求体、响应体只复制前maxPayloadLength个字节,
+ * 解码及序列化在AccessLogWriter的线程中进行
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+final class AccessLogEvent {
+    private static final byte[] EMPTY = new byte[0];
+    private String requestUrl;
+    private String requestUri;
+    private String method;
+    private String dispatcherType;
+    private String remoteAddr;
+    private String remoteHost;
+    private int remotePort;
+    private String remoteUser;
+    private String locale;
+    private String queryString;
+    private long contentLength;
+    /**
+     * 按name、value依次存放
+     */
+    private String[] headers;
+    private Charset charset;
+    private byte[] payload;
+    private boolean payloadTruncated;
+    private int status;
+    private long time;
+    private byte[] response;
+    private boolean responseTruncated;
+
+    private AccessLogEvent() {
+    }
+
+    /**
+     * 在请求线程中生成事件
+     *
+     * @param request          the request
+     * @param response         the response
+     * @param startTime        请求开始的时间(毫秒)
+     * @param maxPayloadLength 请求体、响应体记录的最大字节数
+     * @return the access log event
+     * @throws IOException the io exception
+     */
+    static AccessLogEvent of(HttpServletRequest request, HttpServletResponse response, long startTime, int maxPayloadLength) throws IOException {
+        AccessLogEvent event = new AccessLogEvent();
+        event.requestUrl = request.getRequestURL().toString();
+        event.requestUri = request.getRequestURI();
+        event.method = request.getMethod();
+        event.dispatcherType = request.getDispatcherType().name();
+        event.remoteAddr = request.getRemoteAddr();
+        event.remoteHost = request.getRemoteHost();
+        event.remotePort = request.getRemotePort();
+        event.remoteUser = request.getRemoteUser();
+        event.locale = request.getLocale().getDisplayName();
+        event.queryString = request.getQueryString();
+        event.contentLength = request.getContentLengthLong();
+
+        List<String> headers = new ArrayList<>(32);
+        Enumeration<String> names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            headers.add(name);
+            headers.add(request.getHeader(name));
+        }
+        event.headers = headers.toArray(new String[0]);
+
+        String encoding = request.getCharacterEncoding();
+        event.charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+        event.payload = EMPTY;
+        if (request instanceof CachingBeforeRequestWrapper) {
+            ByteBuffer content = ((CachingBeforeRequestWrapper) request).getContentAsByteBuffer();
+            event.payloadTruncated = content.remaining() > maxPayloadLength;
+            event.payload = new byte[Math.min(content.remaining(), maxPayloadLength)];
+            content.get(event.payload);
+        } else if (request instanceof CachingAfterRequestWrapper) {
+            byte[] content = ((CachingAfterRequestWrapper) request).getContentAsByteArray();
+            event.payloadTruncated = content.length > maxPayloadLength;
+            event.payload = event.payloadTruncated ? Arrays.copyOf(content, maxPayloadLength) : content;
+        }
+
+        event.status = response.getStatus();
+        event.time = System.currentTimeMillis() - startTime;
+        if (response instanceof ContentCachingResponseWrapper) {
+            ContentCachingResponseWrapper wrapper = (ContentCachingResponseWrapper) response;
+            event.responseTruncated = wrapper.getContentSize() > maxPayloadLength;
+            try (InputStream is = wrapper.getContentInputStream()) {
+                event.response = is.readNBytes(maxPayloadLength);
+            }
+        }
+        return event;
+    }
+
+    /**
+     * 写入JSON,字段与原日志格式一致
+     *
+     * @param gen the gen
+     * @throws IOException the io exception
+     */
+    void writeTo(JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("RequestURL", requestUrl);
+        gen.writeStringField("RequestURI", requestUri);
+        gen.writeStringField("Method", method);
+        gen.writeStringField("DispatcherType", dispatcherType);
+        gen.writeStringField("RemoteAddr", remoteAddr);
+        gen.writeStringField("RemoteHost", remoteHost);
+        gen.writeNumberField("RemotePort", remotePort);
+        gen.writeStringField("RemoteUser", remoteUser);
+        gen.writeStringField("Locale", locale);
+        gen.writeStringField("QueryString", queryString);
+        gen.writeNumberField("ContentLength", contentLength);
+        gen.writeObjectFieldStart("Heads");
+        for (int i = 0; i < headers.length; i += 2) {
+            gen.writeStringField(headers[i], headers[i + 1]);
+        }
+        gen.writeEndObject();
+        gen.writeStringField("PayLoad", new String(payload, charset));
+        if (payloadTruncated) {
+            gen.writeBooleanField("PayLoadTruncated", true);
+        }
+        gen.writeNumberField("Status", status);
+        gen.writeStringField("Time", String.valueOf(time));
+        if (response != null) {
+            gen.writeStringField("Response", new String(response, charset));
+            if (responseTruncated) {
+                gen.writeBooleanField("ResponseTruncated", true);
+            }
+        }
+        gen.writeEndObject();
+    }
+}
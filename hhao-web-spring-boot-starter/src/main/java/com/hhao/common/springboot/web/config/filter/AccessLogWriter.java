@@ -0,0 +1,127 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.springboot.web.config.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.hhao.common.log.Logger;
+import com.hhao.common.utils.NamingThreadFactory;
+import com.hhao.common.utils.collections.buffer.RingBuffer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 访问日志的后台写入器
+ * 请求线程把AccessLogEvent放入有界的无锁RingBuffer后立即返回,队列已满时丢弃事件并计数;
+ * 后台线程批量取出事件,直接以JsonGenerator序列化后输出DEBUG日志,第一次提交事件时才启动后台线程
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+final class AccessLogWriter {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String THREAD_NAME = "access-log";
+    private static final int BATCH_SIZE = 64;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private final Logger logger;
+    private final RingBuffer<AccessLogEvent> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile boolean running = true;
+    private volatile Thread thread;
+
+    /**
+     * Instantiates a new Access log writer.
+     *
+     * @param logger    the logger
+     * @param queueSize 队列大小,向上取2的幂次
+     */
+    AccessLogWriter(Logger logger, int queueSize) {
+        this.logger = logger;
+        int size = queueSize <= 1 ? 1 : Integer.highestOneBit(queueSize - 1) << 1;
+        this.queue = new RingBuffer.Builder(size, null)
+                .setRejectedPutHandler((ringBuffer, value) -> dropped.increment())
+                .build();
+    }
+
+    /**
+     * 提交事件,不阻塞
+     *
+     * @param event the event
+     * @return 队列已满时返回false
+     */
+    boolean submit(AccessLogEvent event) {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            Thread t = new NamingThreadFactory(THREAD_NAME, true).newThread(this::run);
+            thread = t;
+            t.start();
+        }
+        return running && queue.put(event);
+    }
+
+    /**
+     * 停止后台线程,已提交的事件写完后退出
+     */
+    void shutdown() {
+        running = false;
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * 队列已满丢弃的事件数量
+     *
+     * @return the dropped
+     */
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    private void run() {
+        List<AccessLogEvent> batch = new ArrayList<>(BATCH_SIZE);
+        StringWriter writer = new StringWriter(1024);
+        while (running || queue.getOccupancy() > 0) {
+            if (queue.drainTo(batch, BATCH_SIZE) == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            for (AccessLogEvent event : batch) {
+                write(event, writer);
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(AccessLogEvent event, StringWriter writer) {
+        writer.getBuffer().setLength(0);
+        try (JsonGenerator gen = JSON_FACTORY.createGenerator(writer)) {
+            event.writeTo(gen);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to write access log", e);
+            return;
+        }
+        logger.debug(writer.toString());
+    }
+}
@@ -17,6 +17,7 @@
 package com.hhao.common.springboot.web.config.filter;
 
 
+import com.hhao.common.exception.error.request.PayloadLengthException;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -25,14 +26,27 @@ import java.io.IOException;
 
 /**
  * 对request加一层包装，以层可以多次读取body内容
+ * 开启asyncCapture且请求支持异步时，以ReadListener非阻塞读取请求体，读取期间不占用容器线程，
+ * 读取完成后通过AsyncContext#dispatch重新进入过滤器链（DispatcherType为ASYNC），此时再包装request
+ * 该次分派是请求的第一次完整执行，期间isCaptureDispatch返回true，后续过滤器（LoggingFilter、CachingResponseFilter等）按初次分派处理
+ * 注意：排在本过滤器之前、不处理ASYNC分派的过滤器（如OncePerRequestFilter）在重新分派时不会再执行
  *
  * @author Wang
  * @since 1.0.0
  */
 public class CachingBeforeRequestFilter implements Filter {
     private static final int DEFAULT_MAX_PAYLOAD_LENGTH = 50;
+    /**
+     * 异步读取的请求体或读取时的异常
+     */
+    private static final String CAPTURED_CONTENT_ATTRIBUTE = CachingBeforeRequestFilter.class.getName() + ".CAPTURED_CONTENT";
+    /**
+     * 异步读取请求体后的重新分派,只在该次分派执行过滤器链期间存在
+     */
+    private static final String CAPTURE_DISPATCH_ATTRIBUTE = CachingBeforeRequestFilter.class.getName() + ".CAPTURE_DISPATCH";
     private int maxPayloadLength = DEFAULT_MAX_PAYLOAD_LENGTH;
     private MatchProperties matchProperties;
+    private boolean asyncCapture;
 
     /**
      * Instantiates a new Caching before request filter.
@@ -41,8 +55,20 @@ public class CachingBeforeRequestFilter implements Filter {
      * @param matchProperties  the match properties
      */
     public CachingBeforeRequestFilter(int maxPayloadLength, MatchProperties matchProperties) {
+        this(maxPayloadLength, matchProperties, false);
+    }
+
+    /**
+     * Instantiates a new Caching before request filter.
+     *
+     * @param maxPayloadLength the max payload length
+     * @param matchProperties  the match properties
+     * @param asyncCapture     是否以ReadListener异步读取请求体
+     */
+    public CachingBeforeRequestFilter(int maxPayloadLength, MatchProperties matchProperties, boolean asyncCapture) {
         this.maxPayloadLength = maxPayloadLength;
         this.matchProperties = matchProperties;
+        this.asyncCapture = asyncCapture;
     }
 
     /**
@@ -64,6 +90,17 @@ public class CachingBeforeRequestFilter implements Filter {
         return DispatcherType.ASYNC.equals(request.getDispatcherType());
     }
 
+    /**
+     * 是否异步读取请求体后的重新分派
+     * DispatcherType为ASYNC,但请求此前未经过后续过滤器,应按初次分派处理
+     *
+     * @param request the request
+     * @return the boolean
+     */
+    public static boolean isCaptureDispatch(ServletRequest request) {
+        return request.getAttribute(CAPTURE_DISPATCH_ATTRIBUTE) != null;
+    }
+
     /**
      * Do filter.
      *
@@ -83,11 +120,96 @@ public class CachingBeforeRequestFilter implements Filter {
 
         //路径过滤
         if (matchProperties.match(httpRequest.getRequestURI())) {
-            if (!isAsyncDispatch(httpRequest) && !(httpRequest instanceof CachingBeforeRequestWrapper)) {
+            if (isAsyncDispatch(httpRequest)) {
+                if (httpRequest.getAttribute(CAPTURED_CONTENT_ATTRIBUTE) != null) {
+                    doFilterCaptured(wrapCapturedRequest(httpRequest), response, chain);
+                    return;
+                }
+            } else if (!(httpRequest instanceof CachingBeforeRequestWrapper)) {
+                if (shouldCaptureAsync(httpRequest)) {
+                    startAsyncCapture(httpRequest, httpResponse);
+                    return;
+                }
                 httpRequest = new CachingBeforeRequestWrapper(httpRequest, getMaxPayloadLength());
             }
         }
 
         chain.doFilter(httpRequest, response);
     }
+
+    /**
+     * 是否异步读取请求体
+     * 表单的内容从参数中生成，没有请求体或长度已超过限制的请求按同步方式处理
+     *
+     * @param request the request
+     * @return the boolean
+     */
+    protected boolean shouldCaptureAsync(HttpServletRequest request) {
+        int contentLength = request.getContentLength();
+        return asyncCapture && request.isAsyncSupported()
+                && DispatcherType.REQUEST.equals(request.getDispatcherType())
+                && contentLength != 0 && contentLength <= getMaxPayloadLength()
+                && !CachingBeforeRequestWrapper.isFormPost(request);
+    }
+
+    private void startAsyncCapture(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AsyncContext asyncContext = request.startAsync(request, response);
+        ServletInputStream is = request.getInputStream();
+        RequestBodyBuffer content = new RequestBodyBuffer(request.getContentLength(), getMaxPayloadLength());
+        is.setReadListener(new ReadListener() {
+            private boolean done;
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                if (!done && !content.readAvailable(is)) {
+                    complete(new PayloadLengthException(getMaxPayloadLength()));
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                complete(content);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                complete(t);
+            }
+
+            private void complete(Object captured) {
+                if (!done) {
+                    done = true;
+                    request.setAttribute(CAPTURED_CONTENT_ATTRIBUTE, captured);
+                    asyncContext.dispatch();
+                }
+            }
+        });
+    }
+
+    /**
+     * 以包装后的request执行过滤器链,期间标记为异步读取后的重新分派
+     */
+    private void doFilterCaptured(HttpServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        request.setAttribute(CAPTURE_DISPATCH_ATTRIBUTE, Boolean.TRUE);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            request.removeAttribute(CAPTURE_DISPATCH_ATTRIBUTE);
+        }
+    }
+
+    /**
+     * 以异步读取的请求体包装request，读取失败时抛出读取时的异常
+     */
+    private HttpServletRequest wrapCapturedRequest(HttpServletRequest request) throws IOException {
+        Object captured = request.getAttribute(CAPTURED_CONTENT_ATTRIBUTE);
+        request.removeAttribute(CAPTURED_CONTENT_ATTRIBUTE);
+        if (captured instanceof RequestBodyBuffer content) {
+            return new CachingBeforeRequestWrapper(request, getMaxPayloadLength(), content);
+        }
+        if (captured instanceof RuntimeException e) {
+            throw e;
+        }
+        throw new IOException("Failed to read request payload", (Throwable) captured);
+    }
 }
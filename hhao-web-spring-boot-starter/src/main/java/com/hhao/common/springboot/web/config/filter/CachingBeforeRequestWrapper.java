@@ -27,12 +27,16 @@ import org.springframework.web.util.WebUtils;
 
 import java.io.*;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
  * 缓存request
  * 如果采用spring自已的ContentCachingRequestWrapper，有局限性，只能在doFilter调用链之后才能访问getContentAsByteArray，但是性能会好些
  * 本类采用了doFilter调用链前缓存，这样可以在采用本包装类后就可以调用getContentAsByteArray，但是会占用多一份的内存
+ * 请求体按块直接读入缓存数组，getInputStream、getContentAsByteBuffer、getContentAsString不复制缓存内容
  *
  * @author Wang
  * @since 1.0.0
@@ -42,7 +46,7 @@ public class CachingBeforeRequestWrapper extends HttpServletRequestWrapper {
     /**
      * 缓存器
      */
-    private final ByteArrayOutputStream cachedContent;
+    private final RequestBodyBuffer cachedContent;
     /**
      * 缓存器长度限制
      */
@@ -74,20 +78,33 @@ public class CachingBeforeRequestWrapper extends HttpServletRequestWrapper {
         if (contentLength > contentCacheLimit) {
             handleContentOverflow(contentCacheLimit);
         }
-        this.cachedContent = new ByteArrayOutputStream(contentLength < 0 ? 0 : contentLength);
         this.contentCacheLimit = contentCacheLimit;
 
         //缓存操作
-        if (isFormPost()) {
+        if (isFormPost(request)) {
             //表单方式内容的缓存
-            writeRequestParametersToCachedContent();
+            this.cachedContent = writeRequestParametersToCachedContent();
         } else {
             //其它方式的内容缓存
             //注意：如果是文件上传、下载可能要做一些限制
+            this.cachedContent = new RequestBodyBuffer(contentLength, contentCacheLimit);
             writePayloadToCachedContent();
         }
     }
 
+    /**
+     * 以异步读取的请求体生成包装类，见CachingBeforeRequestFilter
+     *
+     * @param request           the request
+     * @param contentCacheLimit the content cache limit
+     * @param cachedContent     已读取的请求体
+     */
+    CachingBeforeRequestWrapper(HttpServletRequest request, int contentCacheLimit, RequestBodyBuffer cachedContent) {
+        super(request);
+        this.contentCacheLimit = contentCacheLimit;
+        this.cachedContent = cachedContent;
+    }
+
     /**
      * Gets input stream.
      *
@@ -97,7 +114,7 @@ public class CachingBeforeRequestWrapper extends HttpServletRequestWrapper {
     @Override
     public ServletInputStream getInputStream() throws IOException {
         if (this.inputStream == null) {
-            this.inputStream = new ContentCachingInputStream(this.getContentAsByteArray());
+            this.inputStream = new ContentCachingInputStream(this.cachedContent.newInputStream());
         }
         return this.inputStream;
     }
@@ -170,36 +187,42 @@ public class CachingBeforeRequestWrapper extends HttpServletRequestWrapper {
     }
 
 
-    private boolean isFormPost() {
-        String contentType = getContentType();
+    /**
+     * 是否为表单提交，表单的内容从参数中生成
+     *
+     * @param request the request
+     * @return the boolean
+     */
+    static boolean isFormPost(HttpServletRequest request) {
+        String contentType = request.getContentType();
         return (contentType != null && contentType.contains(FORM_CONTENT_TYPE) &&
-                HttpMethod.POST.matches(getMethod()));
+                HttpMethod.POST.matches(request.getMethod()));
     }
 
-    private void writeRequestParametersToCachedContent() {
+    private RequestBodyBuffer writeRequestParametersToCachedContent() {
         try {
-            if (this.cachedContent.size() == 0) {
-                String requestEncoding = getCharacterEncoding();
-                Map<String, String[]> form = super.getParameterMap();
-                for (Iterator<String> nameIterator = form.keySet().iterator(); nameIterator.hasNext(); ) {
-                    String name = nameIterator.next();
-                    List<String> values = Arrays.asList(form.get(name));
-                    for (Iterator<String> valueIterator = values.iterator(); valueIterator.hasNext(); ) {
-                        String value = valueIterator.next();
-                        this.cachedContent.write(URLEncoder.encode(name, requestEncoding).getBytes());
-                        if (value != null) {
-                            this.cachedContent.write('=');
-                            this.cachedContent.write(URLEncoder.encode(value, requestEncoding).getBytes());
-                            if (valueIterator.hasNext()) {
-                                this.cachedContent.write('&');
-                            }
+            ByteArrayOutputStream content = new ByteArrayOutputStream(256);
+            String requestEncoding = getCharacterEncoding();
+            Map<String, String[]> form = super.getParameterMap();
+            for (Iterator<String> nameIterator = form.keySet().iterator(); nameIterator.hasNext(); ) {
+                String name = nameIterator.next();
+                List<String> values = Arrays.asList(form.get(name));
+                for (Iterator<String> valueIterator = values.iterator(); valueIterator.hasNext(); ) {
+                    String value = valueIterator.next();
+                    content.write(URLEncoder.encode(name, requestEncoding).getBytes());
+                    if (value != null) {
+                        content.write('=');
+                        content.write(URLEncoder.encode(value, requestEncoding).getBytes());
+                        if (valueIterator.hasNext()) {
+                            content.write('&');
                         }
                     }
-                    if (nameIterator.hasNext()) {
-                        this.cachedContent.write('&');
-                    }
+                }
+                if (nameIterator.hasNext()) {
+                    content.write('&');
                 }
             }
+            return RequestBodyBuffer.of(content.toByteArray());
         } catch (IOException ex) {
             throw new IllegalStateException("Failed to write request parameters to cached content", ex);
         }
@@ -207,19 +230,7 @@ public class CachingBeforeRequestWrapper extends HttpServletRequestWrapper {
 
     private void writePayloadToCachedContent() {
         try {
-            ServletInputStream is = this.getRequest().getInputStream();
-            int ch = -1;
-            boolean overflow = false;
-
-            while ((ch = is.read()) != -1 && !overflow) {
-                if (contentCacheLimit != null && cachedContent.size() == contentCacheLimit) {
-                    overflow = true;
-                    break;
-                } else {
-                    cachedContent.write(ch);
-                }
-            }
-            if (overflow) {
+            if (!cachedContent.readFrom(this.getRequest().getInputStream())) {
                 handleContentOverflow(contentCacheLimit);
             }
         } catch (IOException ex) {
@@ -242,6 +253,36 @@ public class CachingBeforeRequestWrapper extends HttpServletRequestWrapper {
         return this.cachedContent.toByteArray();
     }
 
+    /**
+     * 缓存内容的只读视图，不复制缓存内容
+     *
+     * @return the byte buffer
+     */
+    public ByteBuffer getContentAsByteBuffer() {
+        return this.cachedContent.asReadOnlyBuffer();
+    }
+
+    /**
+     * 按请求的字符集解码缓存内容,未指定或不支持的字符集按ISO-8859-1解码
+     *
+     * @return the string
+     */
+    public String getContentAsString() {
+        return this.cachedContent.toString(contentCharset());
+    }
+
+    private Charset contentCharset() {
+        String encoding = getCharacterEncoding();
+        if (encoding != null) {
+            try {
+                return Charset.forName(encoding);
+            } catch (IllegalArgumentException e) {
+                //IllegalCharsetNameException、UnsupportedCharsetException
+            }
+        }
+        return StandardCharsets.ISO_8859_1;
+    }
+
     /**
      * Template method for handling a content overflow: specifically, a request
      * body being read that exceeds the specified content cache limit.
@@ -261,10 +302,10 @@ public class CachingBeforeRequestWrapper extends HttpServletRequestWrapper {
         /**
          * Instantiates a new Content caching input stream.
          *
-         * @param payload the payload
+         * @param is the is
          */
-        public ContentCachingInputStream(byte[] payload) {
-            this.is = new ByteArrayInputStream(payload);
+        public ContentCachingInputStream(ByteArrayInputStream is) {
+            this.is = is;
         }
 
         /**
@@ -313,7 +354,7 @@ public class CachingBeforeRequestWrapper extends HttpServletRequestWrapper {
          */
         @Override
         public boolean isFinished() {
-            return false;
+            return this.is.available() == 0;
         }
 
         /**
@@ -327,13 +368,20 @@ public class CachingBeforeRequestWrapper extends HttpServletRequestWrapper {
         }
 
         /**
-         * Sets read listener.
+         * 内容已全部缓存，立即通知数据可读及读取完成
          *
          * @param readListener the read listener
          */
         @Override
         public void setReadListener(ReadListener readListener) {
-
+            try {
+                if (!isFinished()) {
+                    readListener.onDataAvailable();
+                }
+                readListener.onAllDataRead();
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
         }
     }
 }
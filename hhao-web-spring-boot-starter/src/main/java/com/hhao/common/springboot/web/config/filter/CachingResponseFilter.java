@@ -45,12 +45,13 @@ public class CachingResponseFilter implements Filter {
 
     /**
      * Is async dispatch boolean.
+     * 异步读取请求体后的重新分派按初次分派处理,见CachingBeforeRequestFilter#isCaptureDispatch
      *
      * @param request the request
      * @return the boolean
      */
     protected boolean isAsyncDispatch(HttpServletRequest request) {
-        return DispatcherType.ASYNC.equals(request.getDispatcherType());
+        return DispatcherType.ASYNC.equals(request.getDispatcherType()) && !CachingBeforeRequestFilter.isCaptureDispatch(request);
     }
 
     /**
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hhao.common.springboot.web.config.filter;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 由一组Ant风格路径模式编译的匹配器
+ * 匹配语义与原来一致:AntPathMatcher以File.pathSeparator为分隔符,整个路径作为一段,*可以匹配/,如/api/*匹配/api/a/b
+ * 模式按开头以/结束的字面量段(不含*、?、{及分隔符)放入前缀树,匹配的路径必然以这些段开头,
+ * 匹配时沿路径的段查找(忽略空段),只对经过的节点上的模式调用AntPathMatcher,与逐个调用AntPathMatcher#match的结果一致
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+final class CompiledPathMatcher {
+    private static final String SEPARATOR = "/";
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher(File.pathSeparator);
+    private final Node root = new Node();
+    private final boolean empty;
+
+    /**
+     * Instantiates a new Compiled path matcher.
+     *
+     * @param patterns the patterns
+     */
+    CompiledPathMatcher(String[] patterns) {
+        boolean hasPattern = false;
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (StringUtils.hasLength(pattern)) {
+                    add(pattern);
+                    hasPattern = true;
+                }
+            }
+        }
+        this.empty = !hasPattern;
+    }
+
+    private void add(String pattern) {
+        Node node = root;
+        //只取以/结束的段,最后一段可能只是前缀,如/api/user*中的user
+        int end = pattern.lastIndexOf('/', literalLength(pattern) - 1);
+        if (end > 0) {
+            for (String segment : StringUtils.tokenizeToStringArray(pattern.substring(0, end), SEPARATOR, false, true)) {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.patterns.add(pattern);
+    }
+
+    /**
+     * 模式开头字面量部分的长度,遇到通配符或AntPathMatcher的分隔符时结束
+     */
+    private static int literalLength(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '{' || File.pathSeparator.indexOf(c) >= 0) {
+                return i;
+            }
+        }
+        return pattern.length();
+    }
+
+    /**
+     * 是否没有任何模式
+     *
+     * @return the boolean
+     */
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * 路径是否匹配任一模式
+     *
+     * @param path the path
+     * @return the boolean
+     */
+    boolean match(String path) {
+        if (empty || path == null) {
+            return false;
+        }
+        Node node = root;
+        int start = 0;
+        int length = path.length();
+        for (; ; ) {
+            for (String pattern : node.patterns) {
+                if (PATH_MATCHER.match(pattern, path)) {
+                    return true;
+                }
+            }
+            //下一个非空段
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start >= length || node.children.isEmpty()) {
+                return false;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                return false;
+            }
+            start = end;
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private final List<String> patterns = new ArrayList<>(2);
+    }
+}
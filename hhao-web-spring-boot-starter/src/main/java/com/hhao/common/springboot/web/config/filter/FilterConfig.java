@@ -48,6 +48,14 @@ public class FilterConfig extends AbstractBaseMvcConfig {
     private int maxPayloadLength;
     @Value("${com.hhao.config.filter.caching-request.type:cache_after}")
     private String requestType;
+    @Value("${com.hhao.config.filter.caching-request.async-capture:false}")
+    private boolean asyncCapture;
+    @Value("${com.hhao.config.filter.log.sample-rate:1.0}")
+    private double logSampleRate;
+    @Value("${com.hhao.config.filter.log.max-payload-length:1024}")
+    private int logMaxPayloadLength;
+    @Value("${com.hhao.config.filter.log.queue-size:1024}")
+    private int logQueueSize;
 
     /**
      * Request filter match properties match properties.
@@ -73,7 +81,7 @@ public class FilterConfig extends AbstractBaseMvcConfig {
         if (RequestCacheType.cache_after.name().equals(requestType)) {
             filterRegistrationBean.setFilter(new CachingAfterRequestFilter(maxPayloadLength, matchProperties));
         } else {
-            filterRegistrationBean.setFilter(new CachingBeforeRequestFilter(maxPayloadLength, matchProperties));
+            filterRegistrationBean.setFilter(new CachingBeforeRequestFilter(maxPayloadLength, matchProperties, asyncCapture));
         }
         filterRegistrationBean.addUrlPatterns("/*");
         filterRegistrationBean.setName("CachingRequestFilter");
@@ -140,17 +148,31 @@ public class FilterConfig extends AbstractBaseMvcConfig {
         return new MatchProperties();
     }
 
+    /**
+     * 日志采样的路径,include不为空时只对匹配include的路径采样,匹配exclude的路径不采样,未采样的路径全部记录
+     *
+     * @return the match properties
+     */
+    @Bean(name = "logSampleMatchProperties")
+    @ConfigurationProperties(prefix = "com.hhao.config.filter.log.sample")
+    public MatchProperties logSampleMatchProperties() {
+        return new MatchProperties();
+    }
+
     /**
      * Log filter filter registration bean.
      *
-     * @param matchProperties the match properties
+     * @param matchProperties       the match properties
+     * @param sampleMatchProperties the sample match properties
      * @return the filter registration bean
      */
     @Bean
     @ConditionalOnProperty(prefix = "com.hhao.config.filter.log", name = "enable", havingValue = "true", matchIfMissing = false)
-    FilterRegistrationBean logFilter(@Qualifier("logFilterMatchProperties") MatchProperties matchProperties) {
+    FilterRegistrationBean logFilter(@Qualifier("logFilterMatchProperties") MatchProperties matchProperties,
+                                     @Qualifier("logSampleMatchProperties") MatchProperties sampleMatchProperties) {
         FilterRegistrationBean filterRegistrationBean = new FilterRegistrationBean();
-        filterRegistrationBean.setFilter(new LoggingFilter(matchProperties));
+        filterRegistrationBean.setFilter(new LoggingFilter(matchProperties, sampleMatchProperties, logSampleRate,
+                logMaxPayloadLength, logQueueSize));
         filterRegistrationBean.addUrlPatterns("/*");
         filterRegistrationBean.setName("LogFilter");
         filterRegistrationBean.setOrder(4);
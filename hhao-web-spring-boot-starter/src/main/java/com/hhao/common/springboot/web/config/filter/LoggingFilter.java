@@ -17,33 +17,39 @@
 package com.hhao.common.springboot.web.config.filter;
 
 
-import com.hhao.common.jackson.JacksonUtilFactory;
 import com.hhao.common.log.Logger;
 import com.hhao.common.log.LoggerFactory;
-import com.hhao.common.springboot.jackson.SpringJacksonKeyType;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.context.request.async.WebAsyncUtils;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 日志过滤器
+ * 只有开启DEBUG日志、路径匹配且被采样的请求才生成访问日志事件,事件由AccessLogWriter在后台线程序列化输出:
+ * 1、sampleRate为采样比例(0-1),只作用于sampleMatchProperties严格匹配的路径(include不为空时须匹配include,且不匹配exclude),其它路径全部记录
+ * 2、请求体、响应体只记录前maxPayloadLength个字节
+ * 3、队列已满时丢弃事件,不阻塞请求线程
  *
  * @author Wang
  * @since 1.0.0
  */
 public class LoggingFilter implements Filter {
+    private static final int DEFAULT_MAX_PAYLOAD_LENGTH = 1024;
+    private static final int DEFAULT_QUEUE_SIZE = 1024;
     /**
      * The Logger.
      */
     protected final Logger logger = LoggerFactory.getLogger(LoggingFilter.class);
     private final String RUNTIME_ATTRIBUTE = "RUNTIME_ATTRIBUTE";
     private MatchProperties matchProperties;
+    private MatchProperties sampleMatchProperties;
+    private double sampleRate;
+    private int maxPayloadLength;
+    private final AccessLogWriter accessLogWriter;
 
     /**
      * Instantiates a new Logging filter.
@@ -51,17 +57,35 @@ public class LoggingFilter implements Filter {
      * @param matchProperties the match properties
      */
     public LoggingFilter(MatchProperties matchProperties) {
-        this.matchProperties = matchProperties;
+        this(matchProperties, null, 1.0D, DEFAULT_MAX_PAYLOAD_LENGTH, DEFAULT_QUEUE_SIZE);
     }
 
+    /**
+     * Instantiates a new Logging filter.
+     *
+     * @param matchProperties       the match properties
+     * @param sampleMatchProperties 采样的路径,为null时所有路径都采样
+     * @param sampleRate            采样比例(0-1)
+     * @param maxPayloadLength      请求体、响应体记录的最大字节数
+     * @param queueSize             日志队列的大小
+     */
+    public LoggingFilter(MatchProperties matchProperties, MatchProperties sampleMatchProperties, double sampleRate,
+                         int maxPayloadLength, int queueSize) {
+        this.matchProperties = matchProperties;
+        this.sampleMatchProperties = sampleMatchProperties;
+        this.sampleRate = sampleRate;
+        this.maxPayloadLength = Math.max(0, maxPayloadLength);
+        this.accessLogWriter = new AccessLogWriter(logger, queueSize);
+    }
     /**
      * Is async dispatch boolean.
+     * 异步读取请求体后的重新分派按初次分派处理,见CachingBeforeRequestFilter#isCaptureDispatch
      *
      * @param request the request
      * @return the boolean
      */
     protected boolean isAsyncDispatch(HttpServletRequest request) {
-        return DispatcherType.ASYNC.equals(request.getDispatcherType());
+        return DispatcherType.ASYNC.equals(request.getDispatcherType()) && !CachingBeforeRequestFilter.isCaptureDispatch(request);
     }
 
     /**
@@ -92,7 +116,7 @@ public class LoggingFilter implements Filter {
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
         //路径过滤
-        if (!matchProperties.match(httpRequest.getRequestURI())) {
+        if (!logger.isDebugEnabled() || !matchProperties.match(httpRequest.getRequestURI())) {
             chain.doFilter(httpRequest, httpResponse);
         } else {
             if (!isAsyncDispatch(httpRequest)) {
@@ -116,7 +140,25 @@ public class LoggingFilter implements Filter {
      * @throws IOException the io exception
      */
     protected void beforeRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        request.setAttribute(RUNTIME_ATTRIBUTE, Long.valueOf(System.currentTimeMillis()));
+        if (isSampled(request)) {
+            request.setAttribute(RUNTIME_ATTRIBUTE, Long.valueOf(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * 是否记录该请求的日志
+     *
+     * @param request the request
+     * @return the boolean
+     */
+    protected boolean isSampled(HttpServletRequest request) {
+        if (sampleRate >= 1.0D) {
+            return true;
+        }
+        if (sampleMatchProperties != null && !sampleMatchProperties.matchStrict(request.getRequestURI())) {
+            return true;
+        }
+        return sampleRate > 0.0D && ThreadLocalRandom.current().nextDouble() < sampleRate;
     }
 
     /**
@@ -127,41 +169,27 @@ public class LoggingFilter implements Filter {
      * @throws IOException the io exception
      */
     protected void afterRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        Map<String, Object> infoMap = new HashMap<>(16);
-        infoMap.put("RequestURL", request.getRequestURL());
-        infoMap.put("RequestURI", request.getRequestURI());
-        infoMap.put("Method", request.getMethod());
-        infoMap.put("DispatcherType", request.getDispatcherType());
-
-        infoMap.put("RemoteAddr", request.getRemoteAddr());
-        infoMap.put("RemoteHost", request.getRemoteHost());
-        infoMap.put("RemotePort", request.getRemotePort());
-        infoMap.put("RemoteUser", request.getRemoteUser());
-
-        infoMap.put("Locale", request.getLocale().getDisplayName());
-        infoMap.put("QueryString", request.getQueryString());
-        infoMap.put("ContentLength", request.getContentLength());
-
-        Map<String, String> headMap = new HashMap<>(32);
-        request.getHeaderNames().asIterator().forEachRemaining((name) -> {
-            headMap.put(name, request.getHeader(name));
-        });
-        infoMap.put("Heads", headMap);
-
-        if (request instanceof CachingAfterRequestWrapper) {
-            infoMap.put("PayLoad", new String(((CachingAfterRequestWrapper) request).getContentAsByteArray(), request.getCharacterEncoding()));
-        } else if (request instanceof CachingBeforeRequestWrapper) {
-            infoMap.put("PayLoad", new String(((CachingBeforeRequestWrapper) request).getContentAsByteArray(), request.getCharacterEncoding()));
-        }
-
         Long startTime = (Long) request.getAttribute(RUNTIME_ATTRIBUTE);
-        infoMap.put("Status", response.getStatus());
-        infoMap.put("Time", String.valueOf(System.currentTimeMillis() - startTime.longValue()));
-
-        if (response instanceof ContentCachingResponseWrapper) {
-            infoMap.put("Response", new String(((ContentCachingResponseWrapper) response).getContentAsByteArray(), request.getCharacterEncoding()));
+        if (startTime == null) {
+            return;
         }
+        accessLogWriter.submit(AccessLogEvent.of(request, response, startTime, maxPayloadLength));
+    }
 
-        logger.debug(JacksonUtilFactory.getJsonUtil(SpringJacksonKeyType.SPRING_DEFAULT).map2String(infoMap));
+    /**
+     * 队列已满丢弃的日志数量
+     *
+     * @return the dropped count
+     */
+    public long getDroppedCount() {
+        return accessLogWriter.getDropped();
+    }
+
+    /**
+     * 停止后台写日志的线程
+     */
+    @Override
+    public void destroy() {
+        accessLogWriter.shutdown();
     }
 }
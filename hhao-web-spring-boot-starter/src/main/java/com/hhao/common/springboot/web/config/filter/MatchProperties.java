@@ -16,25 +16,29 @@
 
 package com.hhao.common.springboot.web.config.filter;
 
-import org.springframework.util.AntPathMatcher;
+import com.hhao.common.utils.collections.cache.ConcurrentLruCache;
 import org.springframework.util.StringUtils;
 
-import java.io.File;
-
 /**
- * The type Match properties.
+ * 过滤器的路径匹配配置
+ * include、exclude为逗号分隔的Ant风格路径模式,匹配include时为true,否则匹配exclude时为false,都不匹配时为true
+ * matchStrict用于限定作用范围:include不为空时只有匹配include且不匹配exclude的路径为true
+ * 模式在设置时编译为CompiledPathMatcher,最近的路径及匹配结果缓存在有界的LRU中
  *
  * @author Wang
  * @since 1.0.0
  */
 public class MatchProperties {
+    private static final int DEFAULT_CACHE_SIZE = 1024;
     private final String SEPARATOR = ",";
     private String include;
     private String exclude;
-    private String[] includes;
-    private String[] excludes;
+    private int cacheSize = DEFAULT_CACHE_SIZE;
 
-    private AntPathMatcher pathMatch = new AntPathMatcher(File.pathSeparator);
+    private volatile CompiledPathMatcher includeMatcher = new CompiledPathMatcher(null);
+    private volatile CompiledPathMatcher excludeMatcher = new CompiledPathMatcher(null);
+    private volatile ConcurrentLruCache<String, Boolean> cache = new ConcurrentLruCache<>(DEFAULT_CACHE_SIZE);
+    private volatile ConcurrentLruCache<String, Boolean> strictCache = new ConcurrentLruCache<>(DEFAULT_CACHE_SIZE);
 
     /**
      * Gets include.
@@ -52,9 +56,8 @@ public class MatchProperties {
      */
     public void setInclude(String include) {
         this.include = include;
-        if (StringUtils.hasLength(this.include)) {
-            this.includes = this.include.split(SEPARATOR);
-        }
+        this.includeMatcher = new CompiledPathMatcher(split(include));
+        resetCache();
     }
 
     /**
@@ -73,9 +76,27 @@ public class MatchProperties {
      */
     public void setExclude(String exclude) {
         this.exclude = exclude;
-        if (StringUtils.hasLength(this.exclude)) {
-            this.excludes = this.exclude.split(SEPARATOR);
-        }
+        this.excludeMatcher = new CompiledPathMatcher(split(exclude));
+        resetCache();
+    }
+
+    /**
+     * Gets cache size.
+     *
+     * @return the cache size
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * 缓存匹配结果的路径数,小于等于0时不缓存
+     *
+     * @param cacheSize the cache size
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+        resetCache();
     }
 
     /**
@@ -85,20 +106,56 @@ public class MatchProperties {
      * @return the boolean
      */
     public boolean match(String path) {
-        if (this.includes != null) {
-            for (String s : includes) {
-                if (pathMatch.match(s, path)) {
-                    return true;
-                }
-            }
+        if (includeMatcher.isEmpty() && excludeMatcher.isEmpty()) {
+            return true;
         }
-        if (this.exclude != null) {
-            for (String s : excludes) {
-                if (pathMatch.match(s, path)) {
-                    return false;
-                }
-            }
+        ConcurrentLruCache<String, Boolean> cache = this.cache;
+        if (cache == null || path == null) {
+            return doMatch(path);
         }
-        return true;
+        return cache.computeIfAbsent(path, this::doMatch);
+    }
+
+    /**
+     * 严格匹配,include不为空时只有匹配include的路径为true,匹配exclude的路径为false
+     *
+     * @param path the path
+     * @return the boolean
+     */
+    public boolean matchStrict(String path) {
+        if (includeMatcher.isEmpty() && excludeMatcher.isEmpty()) {
+            return true;
+        }
+        ConcurrentLruCache<String, Boolean> cache = this.strictCache;
+        if (cache == null || path == null) {
+            return doMatchStrict(path);
+        }
+        return cache.computeIfAbsent(path, this::doMatchStrict);
+    }
+
+    private boolean doMatchStrict(String path) {
+        if (!includeMatcher.isEmpty() && !includeMatcher.match(path)) {
+            return false;
+        }
+        return !excludeMatcher.match(path);
+    }
+
+    private boolean doMatch(String path) {
+        if (includeMatcher.match(path)) {
+            return true;
+        }
+        return !excludeMatcher.match(path);
+    }
+
+    private String[] split(String patterns) {
+        if (!StringUtils.hasLength(patterns)) {
+            return null;
+        }
+        return StringUtils.tokenizeToStringArray(patterns, SEPARATOR);
+    }
+
+    private void resetCache() {
+        this.cache = cacheSize > 0 ? new ConcurrentLruCache<>(cacheSize) : null;
+        this.strictCache = cacheSize > 0 ? new ConcurrentLruCache<>(cacheSize) : null;
     }
 }
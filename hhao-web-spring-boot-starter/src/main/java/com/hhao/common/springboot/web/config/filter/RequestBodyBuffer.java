@@ -0,0 +1,184 @@
+/*
+ * Copyright 2008-2024 wangsheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hhao.common.springboot.web.config.filter;
+
+import jakarta.servlet.ServletInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * 请求体的缓存
+ * 按块直接读入最终的数组,Content-Length已知时只分配一次,未知时按倍数扩容,不经过中间缓冲区
+ * 读取完成后不再修改,通过只读ByteBuffer或ByteArrayInputStream访问,不复制数组
+ *
+ * @author Wang
+ * @since 1.0.0
+ */
+final class RequestBodyBuffer {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MIN_GROW = 256;
+    private final int limit;
+    private byte[] buffer;
+    private int length;
+
+    /**
+     * Instantiates a new Request body buffer.
+     *
+     * @param contentLength 请求的Content-Length,未知时为-1
+     * @param limit         最大缓存的字节数
+     */
+    RequestBodyBuffer(int contentLength, int limit) {
+        this.limit = limit;
+        this.buffer = new byte[Math.min(contentLength >= 0 ? contentLength : DEFAULT_CAPACITY, limit)];
+    }
+
+    private RequestBodyBuffer(byte[] content) {
+        this.limit = content.length;
+        this.buffer = content;
+        this.length = content.length;
+    }
+
+    /**
+     * 以已有的内容生成缓存,不复制数组
+     *
+     * @param content the content
+     * @return the request body buffer
+     */
+    static RequestBodyBuffer of(byte[] content) {
+        return new RequestBodyBuffer(content);
+    }
+
+    /**
+     * 阻塞读取输入流的全部内容
+     *
+     * @param is the is
+     * @return 超过limit时返回false
+     * @throws IOException the io exception
+     */
+    boolean readFrom(InputStream is) throws IOException {
+        for (; ; ) {
+            int read = readOnce(is);
+            if (read == -1) {
+                return true;
+            }
+            if (read == -2) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 非阻塞读取输入流当前可读的内容,在ReadListener#onDataAvailable中调用
+     *
+     * @param is the is
+     * @return 超过limit时返回false
+     * @throws IOException the io exception
+     */
+    boolean readAvailable(ServletInputStream is) throws IOException {
+        while (!is.isFinished() && is.isReady()) {
+            int read = readOnce(is);
+            if (read == -1) {
+                return true;
+            }
+            if (read == -2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取一次,缓冲区已满时先读一个字节判断是否结束,避免Content-Length已知时多分配
+     *
+     * @return 读取的字节数,结束时为-1,超过limit时为-2
+     */
+    private int readOnce(InputStream is) throws IOException {
+        if (length == buffer.length) {
+            int b = is.read();
+            if (b == -1) {
+                return -1;
+            }
+            if (length >= limit) {
+                return -2;
+            }
+            grow();
+            buffer[length++] = (byte) b;
+            return 1;
+        }
+        int read = is.read(buffer, length, buffer.length - length);
+        if (read > 0) {
+            length += read;
+        }
+        return read;
+    }
+
+    private void grow() {
+        int capacity = Math.min(Math.max(buffer.length * 2, buffer.length + MIN_GROW), limit);
+        buffer = Arrays.copyOf(buffer, capacity);
+    }
+
+    /**
+     * 缓存的字节数
+     *
+     * @return the int
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * 缓存内容的只读视图
+     *
+     * @return the byte buffer
+     */
+    ByteBuffer asReadOnlyBuffer() {
+        return ByteBuffer.wrap(buffer, 0, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * 读取缓存内容的输入流
+     *
+     * @return the input stream
+     */
+    ByteArrayInputStream newInputStream() {
+        return new ByteArrayInputStream(buffer, 0, length);
+    }
+
+    /**
+     * 缓存内容的副本
+     *
+     * @return the byte [ ]
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * 按字符集解码缓存内容
+     *
+     * @param charset the charset
+     * @return the string
+     */
+    String toString(Charset charset) {
+        return new String(buffer, 0, length, charset);
+    }
+}